@@ -0,0 +1,417 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * BoundedCache, least recently used cache bounded by the total weight of its
+ * entries. Optionally the entries are kept in a local disk store, either all
+ * stored entries (write-through) or only the evicted ones (spill); lookups
+ * missing the memory are answered from the disk store. Subclasses define the
+ * weight of an entry and, if a disk store is used, how an entry is read from
+ * and written to its file. The cached values have to be immutable or copied
+ * by the caller.
+ *
+ * @param <V> type of the cached values
+ */
+public abstract class BoundedCache<V> {
+
+  /** The Logger for this class */
+  private static final Logger LOG = LoggerFactory.getLogger(BoundedCache.class);
+
+  private final LinkedHashMap<String, V> entries = new LinkedHashMap<String, V>(64, 0.75f, true);
+
+  private final String fileExtension;
+
+  private final boolean writeThrough;
+
+  private long maximumWeight;
+
+  private long weight;
+
+  private File diskStore;
+
+  private long hitCount;
+
+  private long diskHitCount;
+
+  private long missCount;
+
+  private long evictionCount;
+
+  /**
+   * Constructor.
+   *
+   * @param maximumWeight maximum weight of the entries kept in memory
+   * @param fileExtension extension of the files in the disk store, null if
+   *          the cache can not have a disk store
+   * @param writeThrough true if every stored entry is written to the disk
+   *          store, false if only evicted entries are spilled to it
+   */
+  protected BoundedCache(final long maximumWeight, final String fileExtension, final boolean writeThrough) {
+    this.maximumWeight = maximumWeight;
+    this.fileExtension = fileExtension;
+    this.writeThrough = writeThrough;
+  }
+
+  /**
+   * method to get the weight of an entry
+   *
+   * @param key key of the entry
+   * @param value value of the entry
+   * @return weight, at least 0
+   */
+  protected abstract long weigh(String key, V value);
+
+  /**
+   * method to read an entry from its file in the disk store, caches with a
+   * file extension override it; the default reads nothing
+   *
+   * @param file file of the entry
+   * @param key key of the entry
+   * @return value or null if the file does not belong to the key
+   * @throws IOException if the file can not be read
+   */
+  protected V read(final File file, final String key) throws IOException {
+    return null;
+  }
+
+  /**
+   * method to write an entry to its file in the disk store, caches with a
+   * file extension override it; the default writes nothing
+   *
+   * @param file file of the entry
+   * @param key key of the entry
+   * @param value value of the entry
+   * @throws IOException if the file can not be written
+   */
+  protected void write(final File file, final String key, final V value) throws IOException {
+  }
+
+  /**
+   * method to get the value of the given key from memory or, if it is not
+   * in memory, from the disk store
+   *
+   * @param key key of the entry
+   * @return value or null if it is not cached
+   */
+  public V get(final String key) {
+    File store;
+    synchronized (this) {
+      V value = entries.get(key);
+      if (value != null) {
+        hitCount++;
+        return value;
+      }
+      store = diskStore;
+      if (store == null) {
+        missCount++;
+        return null;
+      }
+    }
+
+    V value = readFromDisk(store, key);
+    List<Map.Entry<String, V>> evicted = Collections.emptyList();
+    synchronized (this) {
+      if (value == null) {
+        missCount++;
+        return null;
+      }
+      hitCount++;
+      diskHitCount++;
+      if (!entries.containsKey(key)) {
+        evicted = insert(key, value);
+      }
+    }
+    spill(store, evicted);
+    return value;
+  }
+
+  /**
+   * method to store the value of the given key
+   *
+   * @param key key of the entry
+   * @param value value of the entry
+   */
+  public void put(final String key, final V value) {
+    File store;
+    List<Map.Entry<String, V>> evicted;
+    synchronized (this) {
+      evicted = insert(key, value);
+      store = diskStore;
+    }
+    if (store != null && writeThrough) {
+      writeToDisk(store, key, value);
+    }
+    spill(store, evicted);
+  }
+
+  /**
+   * method to remove the entry of the given key from memory, the disk store
+   * is kept
+   *
+   * @param key key of the entry
+   */
+  public synchronized void remove(final String key) {
+    V value = entries.remove(key);
+    if (value != null) {
+      weight -= weigh(key, value);
+    }
+  }
+
+  /**
+   * method to remove all entries from memory, the disk store is kept
+   */
+  public synchronized void clear() {
+    entries.clear();
+    weight = 0;
+  }
+
+  /**
+   * method to delete all entries of the disk store
+   */
+  public synchronized void clearDiskStore() {
+    if (diskStore == null) {
+      return;
+    }
+    File[] files = diskStore.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.getName().endsWith(fileExtension) && !file.delete()) {
+          LOG.warn("Stored cache entry can not be deleted: " + file);
+        }
+      }
+    }
+  }
+
+  /**
+   * method to set the maximum weight of the entries kept in memory, a value
+   * of 0 keeps no entries in memory
+   *
+   * @param maximumWeight maximum weight
+   */
+  public void setMaximumWeight(final long maximumWeight) {
+    if (maximumWeight < 0) {
+      throw new IllegalArgumentException("Maximum weight of the cache can not be negative");
+    }
+    File store;
+    List<Map.Entry<String, V>> evicted;
+    synchronized (this) {
+      this.maximumWeight = maximumWeight;
+      evicted = evict();
+      store = diskStore;
+    }
+    spill(store, evicted);
+  }
+
+  public synchronized long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  /**
+   * method to set the directory of the disk store, null disables the disk
+   * store
+   *
+   * @param directory directory of the disk store
+   * @throws IllegalArgumentException if the cache can not have a disk store
+   *           or the directory can not be created
+   */
+  public synchronized void setDiskStore(final File directory) {
+    if (directory != null && fileExtension == null) {
+      throw new IllegalArgumentException("Cache can not have a disk store");
+    }
+    if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+      throw new IllegalArgumentException("Disk store directory can not be created: " + directory);
+    }
+    this.diskStore = directory;
+  }
+
+  public synchronized File getDiskStore() {
+    return diskStore;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long getWeight() {
+    return weight;
+  }
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * method to get the number of hits which were served by the disk store,
+   * they are included in the hit count
+   *
+   * @return number of disk store hits
+   */
+  public synchronized long getDiskHitCount() {
+    return diskHitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * method to get the hit rate of all lookups
+   *
+   * @return hit rate between 0 and 1, 0 if there was no lookup
+   */
+  public synchronized double getHitRate() {
+    long lookups = hitCount + missCount;
+    return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+  }
+
+  /**
+   * method to reset the hit, miss and eviction counters
+   */
+  public synchronized void resetStatistics() {
+    hitCount = 0;
+    diskHitCount = 0;
+    missCount = 0;
+    evictionCount = 0;
+  }
+
+  /**
+   * method to get the SHA-1 digest of the given data as hex string
+   *
+   * @param data input data
+   * @return hex digest
+   */
+  public static String digest(final byte[] data) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      StringBuilder sb = new StringBuilder();
+      for (byte b : digest.digest(data)) {
+        sb.append(String.format("%02x", b));
+      }
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * method to store an entry in memory, entries heavier than the maximum
+   * weight are not kept
+   *
+   * @return evicted entries
+   */
+  private List<Map.Entry<String, V>> insert(final String key, final V value) {
+    V old = entries.remove(key);
+    if (old != null) {
+      weight -= weigh(key, old);
+    }
+    long entryWeight = weigh(key, value);
+    if (entryWeight > maximumWeight) {
+      evictionCount++;
+      List<Map.Entry<String, V>> evicted = new ArrayList<Map.Entry<String, V>>(evict());
+      evicted.add(new AbstractMap.SimpleImmutableEntry<String, V>(key, value));
+      return evicted;
+    }
+    entries.put(key, value);
+    weight += entryWeight;
+    return evict();
+  }
+
+  private List<Map.Entry<String, V>> evict() {
+    List<Map.Entry<String, V>> evicted = Collections.emptyList();
+    while (weight > maximumWeight && !entries.isEmpty()) {
+      Map.Entry<String, V> eldest = entries.entrySet().iterator().next();
+      if (evicted.isEmpty()) {
+        evicted = new ArrayList<Map.Entry<String, V>>();
+      }
+      evicted.add(new AbstractMap.SimpleImmutableEntry<String, V>(eldest));
+      entries.remove(eldest.getKey());
+      weight -= weigh(eldest.getKey(), eldest.getValue());
+      evictionCount++;
+    }
+    return evicted;
+  }
+
+  private void spill(final File store, final List<Map.Entry<String, V>> evicted) {
+    if (store == null || writeThrough) {
+      return;
+    }
+    for (Map.Entry<String, V> entry : evicted) {
+      writeToDisk(store, entry.getKey(), entry.getValue());
+    }
+  }
+
+  private File getDiskFile(final File store, final String key) {
+    return new File(store, digest(key.getBytes(StandardCharsets.UTF_8)) + fileExtension);
+  }
+
+  private V readFromDisk(final File store, final String key) {
+    File file = getDiskFile(store, key);
+    if (!file.isFile()) {
+      return null;
+    }
+    try {
+      return read(file, key);
+    } catch (IOException e) {
+      LOG.warn("Stored cache entry can not be read: " + e.getMessage());
+      return null;
+    }
+  }
+
+  private void writeToDisk(final File store, final String key, final V value) {
+    File file = getDiskFile(store, key);
+    try {
+      File temp = File.createTempFile(file.getName(), ".tmp", store);
+      try {
+        write(temp, key, value);
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temp.toPath());
+      }
+    } catch (IOException e) {
+      LOG.warn("Cache entry can not be written to the disk store: " + e.getMessage());
+    }
+  }
+}
@@ -32,7 +32,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
@@ -42,6 +45,14 @@ import org.helm.notation2.exception.ChemistryException;
 
 /**
  * Chemistry, singleton class to define which Chemistry-Plugin is used
+ * <p>
+ * The manipulators of the Chemistry-Plugins are not safe to share between
+ * threads, therefore the toolkit borrows its manipulators from a bounded pool
+ * via {@link #borrowManipulator()}; at most
+ * {@link #getManipulatorPoolSize()} pooled manipulators exist at a time.
+ * While a thread holds a borrowed manipulator, {@link #getManipulator()}
+ * returns this manipulator, otherwise it returns the one manipulator shared by
+ * all callers outside of a lease.
  *
  * @author hecht
  */
@@ -50,11 +61,27 @@ public final class Chemistry {
 
   private static final String CHEMISTRY_PLUGIN = "chemistry";
 
-  private static Chemistry _instance;
+  private static volatile Chemistry _instance;
 
   public static String chemistry;
 
-  private static AbstractChemistryManipulator manipulator;
+  private final AbstractChemistryManipulator manipulator;
+
+  private static final ThreadLocal<ManipulatorLease> currentLease = new ThreadLocal<ManipulatorLease>();
+
+  private static final Object POOL_LOCK = new Object();
+
+  private static final Deque<AbstractChemistryManipulator> idleManipulators = new ArrayDeque<AbstractChemistryManipulator>();
+
+  private static int poolSize = Runtime.getRuntime().availableProcessors();
+
+  private static int pooledManipulators;
+
+  private static final AtomicLong createdManipulators = new AtomicLong();
+
+  private static final AtomicLong borrowCount = new AtomicLong();
+
+  private static final AtomicLong waitTimeNanos = new AtomicLong();
 
   /**
    * Default constructor.
@@ -64,8 +91,20 @@ public final class Chemistry {
   private Chemistry() throws ChemistryException {
     refresh();
     readConfigFile();
+    manipulator = buildManipulator();
+  }
+
+  /**
+   * method to build a new manipulator of the configured Chemistry-Plugin
+   *
+   * @return AbstractChemistryManipulator
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  private static AbstractChemistryManipulator buildManipulator() throws ChemistryException {
     try {
-      manipulator = ManipulatorFactory.buildManipulator(chemistry);
+      AbstractChemistryManipulator result = ManipulatorFactory.buildManipulator(chemistry);
+      createdManipulators.incrementAndGet();
+      return result;
     } catch (ClassNotFoundException | NoSuchMethodException | SecurityException | InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
       e.printStackTrace();
       throw new ChemistryException("Chemistry Engine could not be initialized");
@@ -109,21 +148,202 @@ public final class Chemistry {
    * @throws ChemistryException if the Chemistry can not be initialized
    */
   public static Chemistry getInstance() throws ChemistryException {
-    if (_instance == null) {
-      _instance = new Chemistry();
+    Chemistry instance = _instance;
+    if (instance == null) {
+      synchronized (Chemistry.class) {
+        instance = _instance;
+        if (instance == null) {
+          instance = new Chemistry();
+          _instance = instance;
+        }
+      }
     }
-    return _instance;
+    return instance;
   }
 
   /**
-   * method to get the Manipulator
+   * method to get the Manipulator, this is the borrowed manipulator if the
+   * calling thread holds one; otherwise the shared manipulator is returned,
+   * which must not be used by several threads at the same time
    *
    * @return AbstractChemistryManipulator
    */
-  public synchronized AbstractChemistryManipulator getManipulator() {
+  public AbstractChemistryManipulator getManipulator() {
+    ManipulatorLease lease = currentLease.get();
+    if (lease != null) {
+      return lease.manipulator;
+    }
     return manipulator;
   }
 
+  /**
+   * method to borrow a manipulator from the pool, the returned lease has to be
+   * closed to give the manipulator back; if the calling thread already holds
+   * a manipulator, the same manipulator is handed out again
+   *
+   * @return lease of the borrowed manipulator
+   * @throws ChemistryException if no manipulator can be built or the thread
+   *           was interrupted while waiting
+   */
+  public ManipulatorLease borrowManipulator() throws ChemistryException {
+    ManipulatorLease lease = currentLease.get();
+    if (lease != null) {
+      lease.depth++;
+      return lease;
+    }
+
+    AbstractChemistryManipulator borrowed = null;
+    boolean build = false;
+    long start = System.nanoTime();
+    synchronized (POOL_LOCK) {
+      while (idleManipulators.isEmpty() && pooledManipulators >= poolSize) {
+        try {
+          POOL_LOCK.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new ChemistryException("Interrupted while waiting for a chemistry manipulator");
+        }
+      }
+      if (idleManipulators.isEmpty()) {
+        pooledManipulators++;
+        build = true;
+      } else {
+        borrowed = idleManipulators.pop();
+      }
+    }
+    waitTimeNanos.addAndGet(System.nanoTime() - start);
+    borrowCount.incrementAndGet();
+
+    if (build) {
+      try {
+        borrowed = buildManipulator();
+      } catch (ChemistryException | RuntimeException e) {
+        synchronized (POOL_LOCK) {
+          pooledManipulators--;
+          POOL_LOCK.notify();
+        }
+        throw e;
+      }
+    }
+    lease = new ManipulatorLease(borrowed);
+    currentLease.set(lease);
+    return lease;
+  }
+
+  /**
+   * method to give a borrowed manipulator back to the pool, equivalent to
+   * closing the lease
+   *
+   * @param lease lease of the borrowed manipulator
+   */
+  public void returnManipulator(ManipulatorLease lease) {
+    lease.close();
+  }
+
+  private static void release(AbstractChemistryManipulator released) {
+    synchronized (POOL_LOCK) {
+      if (pooledManipulators > poolSize) {
+        pooledManipulators--;
+      } else {
+        idleManipulators.push(released);
+      }
+      POOL_LOCK.notify();
+    }
+  }
+
+  /**
+   * method to set the maximum number of pooled manipulators
+   *
+   * @param size maximum number of pooled manipulators, at least 1
+   */
+  public static void setManipulatorPoolSize(int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("Size of the manipulator pool has to be at least 1");
+    }
+    synchronized (POOL_LOCK) {
+      poolSize = size;
+      while (pooledManipulators > poolSize && !idleManipulators.isEmpty()) {
+        idleManipulators.pop();
+        pooledManipulators--;
+      }
+      POOL_LOCK.notifyAll();
+    }
+  }
+
+  /**
+   * method to get the maximum number of pooled manipulators
+   *
+   * @return maximum number of pooled manipulators
+   */
+  public static int getManipulatorPoolSize() {
+    synchronized (POOL_LOCK) {
+      return poolSize;
+    }
+  }
+
+  /**
+   * method to get the number of manipulators built so far, the pooled ones
+   * and the shared one
+   *
+   * @return number of built manipulators
+   */
+  public static long getCreatedManipulatorCount() {
+    return createdManipulators.get();
+  }
+
+  /**
+   * method to get the number of manipulators borrowed from the pool so far,
+   * nested borrows of a thread are not counted
+   *
+   * @return number of borrowed manipulators
+   */
+  public static long getBorrowCount() {
+    return borrowCount.get();
+  }
+
+  /**
+   * method to get the total time threads waited for a pooled manipulator
+   *
+   * @return wait time in nanoseconds
+   */
+  public static long getManipulatorWaitTimeNanos() {
+    return waitTimeNanos.get();
+  }
+
+  /**
+   * ManipulatorLease, a manipulator borrowed from the pool; it is confined to
+   * the borrowing thread and goes back to the pool when the lease is closed
+   */
+  public static final class ManipulatorLease implements AutoCloseable {
+    private final AbstractChemistryManipulator manipulator;
+
+    private int depth = 1;
+
+    private ManipulatorLease(AbstractChemistryManipulator manipulator) {
+      this.manipulator = manipulator;
+    }
+
+    /**
+     * method to get the borrowed manipulator
+     *
+     * @return AbstractChemistryManipulator
+     */
+    public AbstractChemistryManipulator getManipulator() {
+      return manipulator;
+    }
+
+    @Override
+    public void close() {
+      if (currentLease.get() != this) {
+        throw new IllegalStateException("Manipulator lease has to be closed by the borrowing thread");
+      }
+      if (--depth == 0) {
+        currentLease.remove();
+        release(manipulator);
+      }
+    }
+  }
+
   public void refresh() {
     File configFile = new File(CONFIG_FILE_PATH);
     if (!configFile.exists()) {
@@ -0,0 +1,361 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Properties;
+
+import org.helm.notation2.parser.notation.HELM2Notation;
+import org.helm.notation2.parser.notation.connection.ConnectionNotation;
+import org.helm.notation2.parser.notation.polymer.PolymerNotation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MoleculeResultCache, bounded cache of the canonical smiles and the molecule
+ * properties of HELM structures. The entries are keyed by the normalized
+ * HELM2 representation of the polymers and connections without annotations,
+ * so equal structures share one entry. The memory is
+ * bounded by the weight of the entries (characters of key and smiles);
+ * evicted entries can be spilled into a local disk store. Spilled entries are
+ * only valid for the monomer database they were computed with, therefore the
+ * disk store is emptied whenever it is set.
+ * <p>
+ * Adding monomers does not change the structure of already valid keys, the
+ * cache has only to be cleared when the monomer database is replaced.
+ */
+public final class MoleculeResultCache {
+
+  /** The Logger for this class */
+  private static final Logger LOG = LoggerFactory.getLogger(MoleculeResultCache.class);
+
+  public static final long DEFAULT_MAXIMUM_WEIGHT = 8L * 1024 * 1024;
+
+  private static final int ENTRY_OVERHEAD = 64;
+
+  private static final String ALL_PREFIX = "A";
+
+  private static final String POLYMER_PREFIX = "P";
+
+  private static final String SMILES_KIND = "S";
+
+  private static final String PROPERTIES_KIND = "M";
+
+  private static final String DISK_KEY = "key";
+
+  private static final String DISK_SMILES = "smiles";
+
+  private static final String DISK_FORMULA = "formula";
+
+  private static final String DISK_WEIGHT = "molecularWeight";
+
+  private static final String DISK_EXACT_MASS = "exactMass";
+
+  private static final String DISK_FILE_EXTENSION = ".properties";
+
+  private static MoleculeResultCache _instance = new MoleculeResultCache();
+
+  private final BoundedCache<Entry> entries;
+
+  /**
+   * Default constructor.
+   */
+  private MoleculeResultCache() {
+    entries = new BoundedCache<Entry>(DEFAULT_MAXIMUM_WEIGHT, DISK_FILE_EXTENSION, false) {
+      @Override
+      protected long weigh(String key, Entry entry) {
+        return entry.weight(key);
+      }
+
+      @Override
+      protected Entry read(File file, String key) throws IOException {
+        return readEntry(file, key);
+      }
+
+      @Override
+      protected void write(File file, String key, Entry entry) throws IOException {
+        writeEntry(file, key, entry);
+      }
+    };
+  }
+
+  /**
+   * method to get the singleton instance
+   *
+   * @return MoleculeResultCache
+   */
+  public static MoleculeResultCache getInstance() {
+    return _instance;
+  }
+
+  /**
+   * method to generate the cache key for the whole HELMNotation
+   *
+   * @param helm2notation input HELMNotation
+   * @return cache key
+   */
+  public static String generateKey(final HELM2Notation helm2notation) {
+    StringBuilder sb = new StringBuilder(ALL_PREFIX);
+    for (PolymerNotation polymer : helm2notation.getListOfPolymers()) {
+      appendPolymer(sb, polymer);
+      sb.append('|');
+    }
+    sb.append('$');
+    for (ConnectionNotation connection : helm2notation.getListOfConnections()) {
+      sb.append(connection.getSourceId().getId()).append(',').append(connection.getTargetId().getId()).append(',');
+      sb.append(connection.getSourceUnit()).append(':').append(connection.getrGroupSource()).append('-');
+      sb.append(connection.getTargetUnit()).append(':').append(connection.getrGroupTarget()).append('|');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * method to generate the cache key for one single polymer
+   *
+   * @param polymer input PolymerNotation
+   * @return cache key
+   */
+  public static String generateKey(final PolymerNotation polymer) {
+    StringBuilder sb = new StringBuilder(POLYMER_PREFIX);
+    appendPolymer(sb, polymer);
+    return sb.toString();
+  }
+
+  private static void appendPolymer(final StringBuilder sb, final PolymerNotation polymer) {
+    sb.append(polymer.getPolymerID().getId()).append('{').append(polymer.getPolymerElements().toHELM2()).append('}');
+  }
+
+  /**
+   * method to get the cached canonical smiles
+   *
+   * @param key cache key
+   * @return canonical smiles or null if it is not cached
+   */
+  public String getCanonicalSMILES(final String key) {
+    Entry entry = entries.get(SMILES_KIND + key);
+    return entry == null ? null : entry.canonicalSMILES;
+  }
+
+  /**
+   * method to store the canonical smiles
+   *
+   * @param key cache key
+   * @param canonicalSMILES canonical smiles
+   */
+  public void putCanonicalSMILES(final String key, final String canonicalSMILES) {
+    Entry entry = new Entry();
+    entry.canonicalSMILES = canonicalSMILES;
+    entries.put(SMILES_KIND + key, entry);
+  }
+
+  /**
+   * method to get the cached molecular formula, molecular weight and exact
+   * mass
+   *
+   * @param key cache key
+   * @return copy of the cached properties or null if they are not cached
+   */
+  public MoleculeProperty getProperties(final String key) {
+    Entry entry = entries.get(PROPERTIES_KIND + key);
+    if (entry == null) {
+      return null;
+    }
+    MoleculeProperty result = new MoleculeProperty();
+    result.setMolecularFormula(entry.molecularFormula);
+    result.setMolecularWeight(entry.molecularWeight);
+    result.setExactMass(entry.exactMass);
+    return result;
+  }
+
+  /**
+   * method to store the molecular formula, molecular weight and exact mass
+   *
+   * @param key cache key
+   * @param property properties, the molecular formula has to be set
+   */
+  public void putProperties(final String key, final MoleculeProperty property) {
+    if (property.getMolecularFormula() == null) {
+      return;
+    }
+    Entry entry = new Entry();
+    entry.molecularFormula = property.getMolecularFormula();
+    entry.molecularWeight = property.getMolecularWeight();
+    entry.exactMass = property.getExactMass();
+    entries.put(PROPERTIES_KIND + key, entry);
+  }
+
+  /**
+   * method to remove all stored entries including the spilled ones, has to
+   * be called whenever the monomer database was replaced
+   */
+  public synchronized void clear() {
+    if (entries.size() > 0) {
+      LOG.debug("Molecule result cache invalidated (" + entries.size() + " entries)");
+    }
+    entries.clear();
+    entries.clearDiskStore();
+  }
+
+  /**
+   * method to set the maximum weight (characters of keys and values) of the
+   * entries kept in memory, a value of 0 keeps no entries in memory
+   *
+   * @param maximumWeight maximum weight
+   */
+  public void setMaximumWeight(final long maximumWeight) {
+    entries.setMaximumWeight(maximumWeight);
+  }
+
+  public long getMaximumWeight() {
+    return entries.getMaximumWeight();
+  }
+
+  /**
+   * method to set the directory evicted entries are spilled to, null
+   * disables the disk store; entries spilled to the directory before, e.g.
+   * by an earlier run with another monomer database, are deleted
+   *
+   * @param directory directory of the disk store
+   */
+  public synchronized void setDiskStore(final File directory) {
+    entries.setDiskStore(directory);
+    entries.clearDiskStore();
+  }
+
+  public File getDiskStore() {
+    return entries.getDiskStore();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long getWeight() {
+    return entries.getWeight();
+  }
+
+  public long getHitCount() {
+    return entries.getHitCount();
+  }
+
+  /**
+   * method to get the number of hits which were served by the disk store,
+   * they are included in the hit count
+   *
+   * @return number of disk store hits
+   */
+  public long getDiskHitCount() {
+    return entries.getDiskHitCount();
+  }
+
+  public long getMissCount() {
+    return entries.getMissCount();
+  }
+
+  public long getEvictionCount() {
+    return entries.getEvictionCount();
+  }
+
+  /**
+   * method to get the hit rate of all lookups
+   *
+   * @return hit rate between 0 and 1, 0 if there was no lookup
+   */
+  public double getHitRate() {
+    return entries.getHitRate();
+  }
+
+  /**
+   * method to reset the hit, miss and eviction counters
+   */
+  public void resetStatistics() {
+    entries.resetStatistics();
+  }
+
+  private static void writeEntry(final File file, final String key, final Entry entry) throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty(DISK_KEY, key);
+    if (entry.canonicalSMILES != null) {
+      properties.setProperty(DISK_SMILES, entry.canonicalSMILES);
+    }
+    if (entry.molecularFormula != null) {
+      properties.setProperty(DISK_FORMULA, entry.molecularFormula);
+      properties.setProperty(DISK_WEIGHT, Double.toString(entry.molecularWeight));
+      properties.setProperty(DISK_EXACT_MASS, Double.toString(entry.exactMass));
+    }
+    try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8")) {
+      properties.store(writer, null);
+    }
+  }
+
+  private static Entry readEntry(final File file, final String key) throws IOException {
+    Properties properties = new Properties();
+    try (Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8")) {
+      properties.load(reader);
+    }
+    if (!key.equals(properties.getProperty(DISK_KEY))) {
+      return null;
+    }
+    Entry entry = new Entry();
+    entry.canonicalSMILES = properties.getProperty(DISK_SMILES);
+    entry.molecularFormula = properties.getProperty(DISK_FORMULA);
+    if (entry.molecularFormula != null) {
+      entry.molecularWeight = Double.parseDouble(properties.getProperty(DISK_WEIGHT));
+      entry.exactMass = Double.parseDouble(properties.getProperty(DISK_EXACT_MASS));
+    }
+    return entry;
+  }
+
+  /**
+   * Entry, cached canonical smiles or cached properties of one HELM
+   * structure; it is not changed once it is stored
+   */
+  private static final class Entry {
+    private String canonicalSMILES;
+
+    private String molecularFormula;
+
+    private double molecularWeight;
+
+    private double exactMass;
+
+    private long weight(String key) {
+      long result = ENTRY_OVERHEAD + key.length();
+      if (canonicalSMILES != null) {
+        result += canonicalSMILES.length();
+      }
+      if (molecularFormula != null) {
+        result += molecularFormula.length();
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.helm.chemtoolkit.AbstractMolecule;
+import org.helm.chemtoolkit.AttachmentList;
+import org.helm.chemtoolkit.CTKException;
+import org.helm.notation2.exception.ChemistryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MoleculeTemplateCache, bounded cache of parsed monomer molecules. The
+ * templates are never handed out directly, every caller gets its own clone,
+ * which can be merged and modified without affecting the cache
+ */
+public final class MoleculeTemplateCache {
+
+  /** The Logger for this class */
+  private static final Logger LOG = LoggerFactory.getLogger(MoleculeTemplateCache.class);
+
+  public static final int DEFAULT_MAXIMUM_SIZE = 2000;
+
+  private static final char KEY_SEPARATOR = '\u0001';
+
+  private static final String NO_ATTACHMENTS = "\u0002";
+
+  private static MoleculeTemplateCache _instance = new MoleculeTemplateCache();
+
+  private final BoundedCache<AbstractMolecule> templates;
+
+  /**
+   * Default constructor.
+   */
+  private MoleculeTemplateCache() {
+    templates = new BoundedCache<AbstractMolecule>(DEFAULT_MAXIMUM_SIZE, null, false) {
+      @Override
+      protected long weigh(String key, AbstractMolecule template) {
+        return 1;
+      }
+    };
+  }
+
+  /**
+   * method to get the singleton instance
+   *
+   * @return MoleculeTemplateCache
+   */
+  public static MoleculeTemplateCache getInstance() {
+    return _instance;
+  }
+
+  /**
+   * method to get a molecule for the given input (smiles or molfile) and the
+   * given attachments; the input is only parsed by the Chemistry Engine if no
+   * template is stored for it
+   *
+   * @param input smiles or molfile
+   * @param attachments attachments of the monomer, can be null
+   * @return clone of the parsed molecule
+   * @throws IOException if the input can not be read
+   * @throws CTKException general ChemToolKit exception passed to HELMToolKit
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public AbstractMolecule getMolecule(final String input, final List<Attachment> attachments) throws IOException, CTKException, ChemistryException {
+    String key = generateKey(input, attachments);
+    AbstractMolecule template = templates.get(key);
+    if (template == null) {
+      try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+        template = lease.getManipulator().getMolecule(input, generateAttachmentList(attachments));
+      }
+      templates.put(key, template);
+    }
+    return template.cloneMolecule();
+  }
+
+  /**
+   * method to remove all stored templates, has to be called whenever the
+   * monomer database was changed
+   */
+  public void clear() {
+    if (templates.size() > 0) {
+      LOG.debug("Molecule template cache invalidated (" + templates.size() + " entries)");
+    }
+    templates.clear();
+  }
+
+  /**
+   * method to set the maximum number of stored templates, a value of 0
+   * disables the cache
+   *
+   * @param maximumSize maximum number of templates
+   */
+  public void setMaximumSize(final int maximumSize) {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("Maximum size of the molecule template cache can not be negative");
+    }
+    templates.setMaximumWeight(maximumSize);
+  }
+
+  public int getMaximumSize() {
+    return (int) templates.getMaximumWeight();
+  }
+
+  public int size() {
+    return templates.size();
+  }
+
+  public long getHitCount() {
+    return templates.getHitCount();
+  }
+
+  public long getMissCount() {
+    return templates.getMissCount();
+  }
+
+  public long getEvictionCount() {
+    return templates.getEvictionCount();
+  }
+
+  /**
+   * method to reset the hit, miss and eviction counters
+   */
+  public void resetStatistics() {
+    templates.resetStatistics();
+  }
+
+  private static String generateKey(final String input, final List<Attachment> attachments) {
+    StringBuilder sb = new StringBuilder(input);
+    sb.append(KEY_SEPARATOR);
+    if (attachments == null) {
+      sb.append(NO_ATTACHMENTS);
+    } else {
+      for (Attachment attachment : attachments) {
+        sb.append(attachment.getAlternateId()).append(KEY_SEPARATOR);
+        sb.append(attachment.getLabel()).append(KEY_SEPARATOR);
+        sb.append(attachment.getCapGroupName()).append(KEY_SEPARATOR);
+        sb.append(attachment.getCapGroupSMILES()).append(KEY_SEPARATOR);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static AttachmentList generateAttachmentList(final List<Attachment> attachments) {
+    if (attachments == null) {
+      return null;
+    }
+    AttachmentList list = new AttachmentList();
+    for (Attachment attachment : attachments) {
+      list.add(new org.helm.chemtoolkit.Attachment(attachment.getAlternateId(), attachment.getLabel(), attachment.getCapGroupName(), attachment.getCapGroupSMILES()));
+    }
+    return list;
+  }
+}
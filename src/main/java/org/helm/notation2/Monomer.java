@@ -23,6 +23,7 @@ package org.helm.notation2;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -31,9 +32,13 @@ import org.helm.chemtoolkit.AbstractMolecule;
 import org.helm.chemtoolkit.CTKException;
 import org.helm.chemtoolkit.IAtomBase;
 import org.helm.notation2.exception.ChemistryException;
+import org.helm.notation2.exception.EncoderException;
 import org.helm.notation2.tools.BuilderMolecule;
+import org.helm.notation2.tools.MolfileEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
@@ -43,6 +48,24 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  */
 public class Monomer implements Serializable {
 
+  private static final long serialVersionUID = -6883353310424364753L;
+
+  /** The Logger for this class */
+  private static final Logger LOG = LoggerFactory.getLogger(Monomer.class);
+
+  public static final int DEFAULT_DECODED_MOLFILE_CACHE_SIZE = 500;
+
+  /*
+   * recently decoded molfiles of monomers holding only the compressed
+   * molfile, keyed by the digest of the compressed molfile
+   */
+  private static final BoundedCache<String> decodedMolfiles = new BoundedCache<String>(DEFAULT_DECODED_MOLFILE_CACHE_SIZE, null, false) {
+    @Override
+    protected long weigh(String key, String value) {
+      return 1;
+    }
+  };
+
   public static final String NUCLIEC_ACID_POLYMER_TYPE = "RNA";
 
   public static final String PEPTIDE_POLYMER_TYPE = "PEPTIDE";
@@ -77,7 +100,11 @@ public class Monomer implements Serializable {
 
   private String canSMILES;
 
-  private String molfile; // monomer type, Backone, Branch, UnDefined
+  private String molfile;
+
+  private byte[] compressedMolfile;
+
+  private transient String decodedMolfileKey;
 
   private String monomerType; // polymer type, NucleicAcid, Peptide,
   // ChemicalStructure
@@ -251,12 +278,121 @@ public class Monomer implements Serializable {
     this.attachmentList = attachmentList;
   }
 
+  /**
+   * returns the molfile of the monomer; a molfile given in encoded form is
+   * decoded on demand
+   *
+   * @return molfile, null if the monomer has no molfile
+   */
   public String getMolfile() {
+    if (molfile == null && compressedMolfile != null) {
+      return decodeMolfile();
+    }
     return molfile;
   }
 
   public void setMolfile(String molfile) {
+    evictDecodedMolfile();
     this.molfile = molfile;
+    this.compressedMolfile = null;
+  }
+
+  /**
+   * sets the molfile in its encoded (gzipped Base64) form, it is only decoded
+   * when {@link #getMolfile()} is called
+   *
+   * @param encodedMolfile gzipped Base64 molfile
+   * @throws EncoderException if the given molfile is not gzipped Base64
+   */
+  public void setEncodedMolfile(String encodedMolfile) throws EncoderException {
+    byte[] compressed = MolfileEncoder.toCompressedBytes(encodedMolfile);
+    evictDecodedMolfile();
+    this.compressedMolfile = compressed;
+    this.molfile = null;
+  }
+
+  /**
+   * returns whether the monomer has a molfile, without decoding it
+   *
+   * @return true if the monomer has a molfile, false otherwise
+   */
+  public boolean hasMolfile() {
+    return molfile != null || compressedMolfile != null;
+  }
+
+  /**
+   * returns a digest of the structure of the monomer, computed from the
+   * smiles or, without smiles, from the molfile; an encoded molfile is not
+   * decoded
+   *
+   * @return hex digest, null if the monomer has no structure
+   */
+  @JsonIgnore
+  public String getStructureDigest() {
+    if (canSMILES != null) {
+      return BoundedCache.digest(canSMILES.getBytes(StandardCharsets.UTF_8));
+    } else if (compressedMolfile != null) {
+      return BoundedCache.digest(compressedMolfile);
+    } else if (molfile != null) {
+      return BoundedCache.digest(molfile.getBytes(StandardCharsets.UTF_8));
+    }
+    return null;
+  }
+
+  byte[] getCompressedMolfile() {
+    return compressedMolfile;
+  }
+
+  void setCompressedMolfile(byte[] compressedMolfile) {
+    evictDecodedMolfile();
+    this.compressedMolfile = compressedMolfile;
+    this.molfile = null;
+  }
+
+  /**
+   * removes the decoded molfile of this monomer from the cache, it has to be
+   * called before the molfile is changed
+   */
+  private void evictDecodedMolfile() {
+    if (decodedMolfileKey != null) {
+      decodedMolfiles.remove(decodedMolfileKey);
+      decodedMolfileKey = null;
+    }
+  }
+
+  private String decodeMolfile() {
+    if (decodedMolfileKey == null) {
+      decodedMolfileKey = BoundedCache.digest(compressedMolfile);
+    }
+    String decoded = decodedMolfiles.get(decodedMolfileKey);
+    if (decoded != null) {
+      return decoded;
+    }
+    try {
+      decoded = MolfileEncoder.decode(compressedMolfile);
+    } catch (EncoderException e) {
+      LOG.warn("Molfile of monomer " + alternateId + " can not be decoded: " + e.getMessage());
+      return null;
+    }
+    decodedMolfiles.put(decodedMolfileKey, decoded);
+    return decoded;
+  }
+
+  /**
+   * sets the maximum number of decoded molfiles which are kept in memory, 0
+   * disables the cache
+   *
+   * @param size maximum number of decoded molfiles
+   */
+  public static void setDecodedMolfileCacheSize(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Cache size must not be negative");
+    }
+    decodedMolfiles.setMaximumWeight(size);
+  }
+
+  public static int getDecodedMolfileCacheSize() {
+    return (int) decodedMolfiles.getMaximumWeight();
   }
 
   /**
@@ -289,7 +425,10 @@ public class Monomer implements Serializable {
     for (Attachment attachment : attachmentList) {
       if (attachment.getLabel().equalsIgnoreCase(label)) {
         String capSmi = attachment.getCapGroupSMILES();
-        org.helm.chemtoolkit.MoleculeInfo info = Chemistry.getInstance().getManipulator().getMoleculeInfo(Chemistry.getInstance().getManipulator().getMolecule(capSmi, null));
+        org.helm.chemtoolkit.MoleculeInfo info;
+        try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+          info = lease.getManipulator().getMoleculeInfo(lease.getManipulator().getMolecule(capSmi, null));
+        }
         MoleculeProperty moleculeinfo = new MoleculeProperty();
         moleculeinfo.setExactMass(info.getExactMass());
         moleculeinfo.setMolecularFormula(info.getMolecularFormula());
@@ -32,18 +32,32 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.helm.chemtoolkit.CTKException;
+import org.helm.notation2.calculation.AdditivePropertyCalculator;
 import org.helm.notation2.exception.AttachmentException;
 import org.helm.notation2.exception.ChemistryException;
 import org.helm.notation2.exception.EncoderException;
@@ -78,6 +92,11 @@ public class MonomerFactory {
 	public static final String MONOMER_CACHE_FILE_PATH = NOTATION_DIRECTORY + System.getProperty("file.separator")
 			+ MONOMER_CACHE_FILE_NAME;
 
+	public static final String MONOMER_SNAPSHOT_FILE_NAME = "MonomerLibrary.bin";
+
+	public static final String MONOMER_SNAPSHOT_FILE_PATH = NOTATION_DIRECTORY + System.getProperty("file.separator")
+			+ MONOMER_SNAPSHOT_FILE_NAME;
+
 	public static final String MONOMER_DB_FILE_NAME = "MonomerDBGZEncoded.xml";
 
 	public static final String MONOMER_DB_FILE_PATH = NOTATION_DIRECTORY + System.getProperty("file.separator")
@@ -103,38 +122,67 @@ public class MonomerFactory {
 
 	public static final String ATTACHMENT_LIST_ELEMENT = "AttachmentList";
 
-	private static MonomerFactory instance;
+	private static volatile MonomerFactory instance;
 
 	/**
-	 * First key is polymer Type, such as "RNA" Second key is monomer ID, such
-	 * as "A"
+	 * current snapshot of the monomer library; readers take no lock, writers
+	 * publish a new snapshot while holding {@link #WRITE_LOCK}
 	 */
-	private static Map<String, Map<String, Monomer>> monomerDB;
-	// key is
-	// monomer
-	// SMILES, value
-	// is Monomer
-
-	private static Map<String, Monomer> smilesMonomerDB; // key is
-	// AttachementID,
-	// value is
-	// Attachment
+	private static volatile Library library;
 
-	private static Map<String, Attachment> attachmentDB;
+	private static final Object WRITE_LOCK = new Object();
 
 	// private static Map<String, Map<String, Monomer>> externalMonomerDB;
 	private static SAXBuilder builder;
 
 	private static Logger logger = Logger.getLogger(MonomerFactory.class.toString());
 
-	private static boolean dbChanged = true;
+	private static volatile boolean dbChanged = true;
+
+	/** delay in milliseconds used to coalesce write-behind saves */
+	public static final long SAVE_DELAY_MILLIS = 500;
+
+	private static final Object PERSISTENCE_LOCK = new Object();
+
+	private static final AtomicBoolean saveRequested = new AtomicBoolean(false);
+
+	private static ScheduledExecutorService persistenceExecutor;
+
+	/** directory the monomer cache files are read from and written to */
+	private static volatile File persistenceDirectory = new File(NOTATION_DIRECTORY);
+
+	public static final String LOAD_PHASE_PARSE = "parse";
+
+	public static final String LOAD_PHASE_DECODE = "decode";
+
+	public static final String LOAD_PHASE_INDEX = "index";
+
+	public static final String LOAD_PHASE_VALIDATE = "validate";
+
+	private static volatile Map<String, Long> loadTimings = Collections.emptyMap();
+
+	/**
+	 * Monomer store (first key is polymer Type, such as "RNA", second key is
+	 * monomer ID, such as "A"; smiles map keyed by monomer SMILES) together with
+	 * the attachments, keyed by AttachementID
+	 */
+	private static final class Library {
+		private final MonomerStore monomerStore;
+
+		private final Map<String, Attachment> attachmentDB;
+
+		private Library(MonomerStore monomerStore, Map<String, Attachment> attachmentDB) {
+			this.monomerStore = monomerStore;
+			this.attachmentDB = attachmentDB;
+		}
+	}
 
 	/**
 	 * retruns the monomer database
 	 *
 	 * @return Map as {@code Map<String, Map<String, Monomer>>}
 	 */
-	public synchronized Map<String, Map<String, Monomer>> getMonomerDB() {
+	public Map<String, Map<String, Monomer>> getMonomerDB() {
 		return getMonomerDB(true);
 	}
 
@@ -146,7 +194,8 @@ public class MonomerFactory {
 	 *            if true, then the new monomers will be added to the monomer db
 	 * @return Map as {@code Map<String, Map<String, Monomer>>}
 	 */
-	public synchronized Map<String, Map<String, Monomer>> getMonomerDB(boolean includeNewMonomers) {
+	public Map<String, Map<String, Monomer>> getMonomerDB(boolean includeNewMonomers) {
+		Map<String, Map<String, Monomer>> monomerDB = library.monomerStore.getMonomerDB();
 		if (includeNewMonomers) {
 			return monomerDB;
 		} else {
@@ -160,30 +209,26 @@ public class MonomerFactory {
 		}
 	}
 
-	protected MonomerStore monomerStore;
-
 	/**
-	 * create a MonomerStore instance based on MonomerFactory's monomerDB and
+	 * returns the MonomerStore holding MonomerFactory's monomerDB and
 	 * smilesMonomerDB
 	 *
 	 * @return MonomerStore
 	 */
-	public synchronized MonomerStore getMonomerStore() {
-		if (monomerStore == null) {
-			monomerStore = new MonomerStore(monomerDB, smilesMonomerDB);
-		}
-		return monomerStore;
+	public MonomerStore getMonomerStore() {
+		return library.monomerStore;
 	}
 
-	public synchronized Map<String, Attachment> getAttachmentDB() {
-		return attachmentDB;
+	public Map<String, Attachment> getAttachmentDB() {
+		return library.attachmentDB;
 	}
 
-	public synchronized Map<String, Monomer> getSmilesMonomerDB() {
+	public Map<String, Monomer> getSmilesMonomerDB() {
 		return getSmilesMonomerDB(true);
 	}
 
-	public synchronized Map<String, Monomer> getSmilesMonomerDB(boolean includeNewMonomers) {
+	public Map<String, Monomer> getSmilesMonomerDB(boolean includeNewMonomers) {
+		Map<String, Monomer> smilesMonomerDB = library.monomerStore.getSmilesMonomerDB();
 		if (includeNewMonomers) {
 			return smilesMonomerDB;
 		} else {
@@ -191,7 +236,7 @@ public class MonomerFactory {
 		}
 	}
 
-	private synchronized Map<String, Monomer> excludeNewMonomersSmiles(Map<String, Monomer> monomerMap) {
+	private Map<String, Monomer> excludeNewMonomersSmiles(Map<String, Monomer> monomerMap) {
 		Map<String, Monomer> reducedMonomerMap = new HashMap<String, Monomer>();
 		for (String identifier : monomerMap.keySet()) {
 			Monomer monomer = monomerMap.get(identifier);
@@ -202,7 +247,7 @@ public class MonomerFactory {
 		return reducedMonomerMap;
 	}
 
-	private synchronized Map<String, Monomer> excludeNewMonomers(Map<String, Monomer> monomerMap) {
+	private Map<String, Monomer> excludeNewMonomers(Map<String, Monomer> monomerMap) {
 		Map<String, Monomer> reducedMonomerMap = new TreeMap<String, Monomer>(String.CASE_INSENSITIVE_ORDER);
 		for (String identifier : monomerMap.keySet()) {
 			Monomer monomer = monomerMap.get(identifier);
@@ -213,16 +258,16 @@ public class MonomerFactory {
 		return reducedMonomerMap;
 	}
 
-	public synchronized List<String> getPolymerTypes() {
+	public List<String> getPolymerTypes() {
 		List<String> l = new ArrayList<String>();
-		l.addAll(monomerDB.keySet());
+		l.addAll(library.monomerStore.getPolymerTypeSet());
 		Collections.sort(l);
 		return l;
 	}
 
-	public synchronized List<String> getMonomerTypes() {
+	public List<String> getMonomerTypes() {
 		List<String> monomerTypeList = new ArrayList<String>();
-		Object[] col = monomerDB.values().toArray();
+		Object[] col = library.monomerStore.getMonomerDB().values().toArray();
 		for (int i = 0; i < col.length; i++) {
 			Map<String, Monomer> map = (Map<String, Monomer>) col[i];
 			Monomer[] monomers = map.values().toArray(new Monomer[0]);
@@ -236,7 +281,8 @@ public class MonomerFactory {
 		return monomerTypeList;
 	}
 
-	public synchronized Map<String, List<String>> getAttachmentLabelIDs() {
+	public Map<String, List<String>> getAttachmentLabelIDs() {
+		Map<String, Attachment> attachmentDB = library.attachmentDB;
 		Map<String, List<String>> labelMap = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
 
 		// group attachments based on R value (label)
@@ -285,7 +331,11 @@ public class MonomerFactory {
 	 */
 	public static MonomerFactory getInstance() throws MonomerLoadingException, ChemistryException {
 		if (null == instance) {
-			refreshMonomerCache();
+			synchronized (WRITE_LOCK) {
+				if (null == instance) {
+					refreshMonomerCache();
+				}
+			}
 		}
 
 		else if (MonomerStoreConfiguration.getInstance().isUseWebservice()
@@ -296,8 +346,13 @@ public class MonomerFactory {
 	}
 
 	public static void refreshMonomerCache() throws MonomerLoadingException, ChemistryException {
-		initializeMonomerCache();
-		instance = new MonomerFactory();
+		synchronized (WRITE_LOCK) {
+			initializeMonomerCache();
+			instance = new MonomerFactory();
+			MoleculeTemplateCache.getInstance().clear();
+			MoleculeResultCache.getInstance().clear();
+			AdditivePropertyCalculator.clear();
+		}
 	}
 
 	public static void setDBChanged(boolean isChanged) {
@@ -319,11 +374,51 @@ public class MonomerFactory {
 	}
 
 	private static void serializeMonomerCache(MonomerCache monomerCache, String fileName) throws IOException {
-		FileOutputStream fos = new FileOutputStream(fileName);
-		ObjectOutputStream oos = new ObjectOutputStream(fos);
-		oos.writeObject(monomerCache);
-		oos.close();
-		fos.close();
+		File tempFile = createTempFile(fileName);
+		try {
+			FileOutputStream fos = new FileOutputStream(tempFile);
+			ObjectOutputStream oos = new ObjectOutputStream(fos);
+			oos.writeObject(monomerCache);
+			oos.close();
+			fos.close();
+			replaceFile(tempFile, fileName);
+		} finally {
+			tempFile.delete();
+		}
+	}
+
+	/**
+	 * writes the content to a temporary file next to the target file and
+	 * moves it over the target file afterwards
+	 */
+	static void writeFile(byte[] content, String fileName) throws IOException {
+		File tempFile = createTempFile(fileName);
+		try {
+			try (FileOutputStream fos = new FileOutputStream(tempFile)) {
+				fos.write(content);
+			}
+			replaceFile(tempFile, fileName);
+		} finally {
+			tempFile.delete();
+		}
+	}
+
+	private static File createTempFile(String fileName) throws IOException {
+		File file = new File(fileName);
+		return File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+	}
+
+	/**
+	 * moves the completely written temporary file over the target file, so
+	 * readers never see a partially written file
+	 */
+	private static void replaceFile(File tempFile, String fileName) throws IOException {
+		Path target = Paths.get(fileName);
+		try {
+			Files.move(tempFile.toPath(), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tempFile.toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+		}
 	}
 
 	private static MonomerCache deserializeMonomerCache(String fileName) throws IOException, MonomerException {
@@ -357,34 +452,14 @@ public class MonomerFactory {
 	 * @throws MonomerException
 	 *             if monomer is not valid
 	 */
-	public synchronized void addNewMonomer(Monomer monomer) throws IOException, MonomerException {
-		monomer.setNewMonomer(true);
-		addMonomer(monomerDB, smilesMonomerDB, monomer);
-
-		dbChanged = true;
-	}
+	public void addNewMonomer(Monomer monomer) throws IOException, MonomerException {
+		synchronized (WRITE_LOCK) {
+			monomer.setNewMonomer(true);
+			library.monomerStore.addMonomers(Collections.singletonList(monomer));
+			MoleculeTemplateCache.getInstance().clear();
 
-	private void addMonomer(Map<String, Map<String, Monomer>> monomerDB, Map<String, Monomer> smilesMonomerDB,
-			Monomer monomer) throws IOException, MonomerException {
-		Map<String, Monomer> monomerMap = monomerDB.get(monomer.getPolymerType());
-		if (null == monomerMap) {
-			Map<String, Monomer> map = new TreeMap<String, Monomer>(String.CASE_INSENSITIVE_ORDER);
-			Monomer copyMonomer = DeepCopy.copy(monomer);
-			map.put(monomer.getAlternateId(), copyMonomer);
-			monomerDB.put(monomer.getPolymerType(), map);
-		} else {
-			if (!monomerMap.containsKey(monomer.getAlternateId())) {
-				monomerMap.put(monomer.getAlternateId(), monomer);
-			}
-		}
-
-		if (monomer.getCanSMILES() != null && monomer.getCanSMILES().length() > 0) {
-			if (!smilesMonomerDB.containsKey(monomer.getCanSMILES())) {
-				smilesMonomerDB.put(monomer.getCanSMILES(), monomer);
-			}
+			dbChanged = true;
 		}
-
-		dbChanged = true;
 	}
 
 	/**
@@ -422,27 +497,24 @@ public class MonomerFactory {
 	 * @throws org.helm.notation2.exception.MonomerException
 	 *             if monomer is not valid
 	 */
-	public synchronized void merge(MonomerCache remoteMonomerCache) throws IOException, MonomerException {
-		Map<Monomer, Monomer> conflicts = getConflictedMonomerMap(remoteMonomerCache);
-		if (conflicts.size() > 0) {
-			throw new MonomerException("Local new monomer and remote monomer database conflict found");
-		} else {
-			Map<String, Map<String, Monomer>> monoDB = remoteMonomerCache.getMonomerDB();
-
-			Set<String> polymerTypeSet = monoDB.keySet();
-			for (Iterator i = polymerTypeSet.iterator(); i.hasNext();) {
-				String polymerType = (String) i.next();
-				Map<String, Monomer> map = monoDB.get(polymerType);
-				Set<String> monomerSet = map.keySet();
-				for (Iterator it = monomerSet.iterator(); it.hasNext();) {
-					String id = (String) it.next();
-					Monomer m = map.get(id);
-					addMonomer(monomerDB, smilesMonomerDB, m);
+	public void merge(MonomerCache remoteMonomerCache) throws IOException, MonomerException {
+		synchronized (WRITE_LOCK) {
+			Map<Monomer, Monomer> conflicts = getConflictedMonomerMap(remoteMonomerCache);
+			if (conflicts.size() > 0) {
+				throw new MonomerException("Local new monomer and remote monomer database conflict found");
+			} else {
+				Map<String, Map<String, Monomer>> monoDB = remoteMonomerCache.getMonomerDB();
+
+				List<Monomer> monomers = new ArrayList<Monomer>();
+				for (Map<String, Monomer> map : monoDB.values()) {
+					monomers.addAll(map.values());
 				}
+				library.monomerStore.addMonomers(monomers);
+				MoleculeTemplateCache.getInstance().clear();
 			}
-		}
 
-		dbChanged = true;
+			dbChanged = true;
+		}
 	}
 
 	/**
@@ -455,12 +527,17 @@ public class MonomerFactory {
 	 * @throws org.helm.notation2.exception.MonomerException
 	 *             if monomer is not valid
 	 */
-	public synchronized void setMonomerCache(MonomerCache remoteMonomerCache) throws IOException, MonomerException {
-		monomerDB = remoteMonomerCache.getMonomerDB();
-		attachmentDB = remoteMonomerCache.getAttachmentDB();
-		smilesMonomerDB = remoteMonomerCache.getSmilesMonomerDB();
-
-		dbChanged = true;
+	public void setMonomerCache(MonomerCache remoteMonomerCache) throws IOException, MonomerException {
+		synchronized (WRITE_LOCK) {
+			library = new Library(
+					new MonomerStore(remoteMonomerCache.getMonomerDB(), remoteMonomerCache.getSmilesMonomerDB()),
+					remoteMonomerCache.getAttachmentDB());
+			MoleculeTemplateCache.getInstance().clear();
+			MoleculeResultCache.getInstance().clear();
+			AdditivePropertyCalculator.clear();
+
+			dbChanged = true;
+		}
 	}
 
 	/**
@@ -474,13 +551,13 @@ public class MonomerFactory {
 	 * @throws org.helm.notation2.exception.MonomerException
 	 *             if monomer is not valid
 	 */
-	public synchronized Map<Monomer, Monomer> getConflictedMonomerMap(MonomerCache remoteMonomerCache)
+	public Map<Monomer, Monomer> getConflictedMonomerMap(MonomerCache remoteMonomerCache)
 			throws IOException, MonomerException {
 		Map<String, Map<String, Monomer>> remoteMonomerDB = remoteMonomerCache.getMonomerDB();
 		Map<String, Monomer> remoteSmilesDB = remoteMonomerCache.getSmilesMonomerDB();
 
 		Map<Monomer, Monomer> map = new HashMap<Monomer, Monomer>();
-		List<Monomer> newMonomers = getNewMonomers(monomerDB);
+		List<Monomer> newMonomers = getNewMonomers(library.monomerStore.getMonomerDB());
 		if (newMonomers.size() > 0) {
 
 			for (int i = 0; i < newMonomers.size(); i++) {
@@ -569,6 +646,8 @@ public class MonomerFactory {
 	private static MonomerCache buildMonomerCacheFromXML(InputStream monomerDBInputStream)
 			throws MonomerException, IOException, JDOMException, ChemistryException, CTKException {
 
+		Map<String, Long> timings = new LinkedHashMap<String, Long>();
+		long start = System.currentTimeMillis();
 		if (null == builder) {
 			setupBuilder();
 		}
@@ -580,8 +659,15 @@ public class MonomerFactory {
 		// root.getNamespace());
 
 		Map<String, Attachment> newAttachmentDB = buildAttachmentDB();
+		start = recordTiming(timings, LOAD_PHASE_PARSE, start);
 		Map<String, Map<String, Monomer>> newMonomerDB = buildMonomerDB(polymerList);
+		start = recordTiming(timings, LOAD_PHASE_DECODE, start);
 		Map<String, Monomer> newSmilesMonomerDB = buildSmilesMonomerDB(newMonomerDB);
+		start = recordTiming(timings, LOAD_PHASE_INDEX, start);
+		validate(newMonomerDB);
+		recordTiming(timings, LOAD_PHASE_VALIDATE, start);
+		loadTimings = Collections.unmodifiableMap(timings);
+		logger.log(Level.INFO, "Monomer library loaded, timings in ms: " + timings);
 
 		MonomerCache cache = new MonomerCache();
 		cache.setMonomerDB(newMonomerDB);
@@ -692,7 +778,6 @@ public class MonomerFactory {
 			try {
 				in = new FileInputStream(MonomerStoreConfiguration.getInstance().getExternalMonomersPath());
 				cache = buildMonomerCacheFromXML(in);
-				validate(cache.getMonomerDB());
 				logger.log(Level.INFO, MonomerStoreConfiguration.getInstance().getExternalMonomersPath()
 						+ " is used for monomer cache initialization");
 			} catch (Exception e) {
@@ -701,12 +786,25 @@ public class MonomerFactory {
 			}
 
 		} else {
-			File cacheFile = new File(MONOMER_CACHE_FILE_PATH);
-			if (cacheFile.exists()) {
+			File snapshotFile = getPersistenceFile(MONOMER_SNAPSHOT_FILE_NAME);
+			if (snapshotFile.exists()) {
 				try {
-					cache = deserializeMonomerCache(MONOMER_CACHE_FILE_PATH);
+					/* the snapshot is only written from an already validated library */
+					cache = MonomerLibrarySnapshot.readMonomerCache(snapshotFile);
+					logger.log(Level.INFO, snapshotFile + " is used for monomer cache initialization");
+				} catch (Exception e) {
+					logger.log(Level.INFO, "Unable to use local monomer snapshot file: " + MONOMER_SNAPSHOT_FILE_NAME);
+					snapshotFile.delete();
+					logger.log(Level.INFO, "Deleted local monomer snapshot file: " + MONOMER_SNAPSHOT_FILE_NAME);
+				}
+			}
+
+			File cacheFile = getPersistenceFile(MONOMER_CACHE_FILE_NAME);
+			if (null == cache && cacheFile.exists()) {
+				try {
+					cache = deserializeMonomerCache(cacheFile.getPath());
 					validate(cache.getMonomerDB());
-					logger.log(Level.INFO, MONOMER_CACHE_FILE_PATH + " is used for monomer cache initialization");
+					logger.log(Level.INFO, cacheFile + " is used for monomer cache initialization");
 				} catch (Exception e) {
 					logger.log(Level.INFO, "Unable to use local monomer cache file: " + MONOMER_CACHE_FILE_NAME);
 					cacheFile.delete();
@@ -714,13 +812,12 @@ public class MonomerFactory {
 				}
 			}
 
-			File localMonomerDBFile = new File(MONOMER_DB_FILE_PATH);
+			File localMonomerDBFile = getPersistenceFile(MONOMER_DB_FILE_NAME);
 			if (null == cache && localMonomerDBFile.exists()) {
 				try {
-					in = new FileInputStream(MONOMER_DB_FILE_PATH);
+					in = new FileInputStream(localMonomerDBFile);
 					cache = buildMonomerCacheFromXML(in);
-					validate(cache.getMonomerDB());
-					logger.log(Level.INFO, MONOMER_DB_FILE_PATH + " is used for monomer cache initialization");
+					logger.log(Level.INFO, localMonomerDBFile + " is used for monomer cache initialization");
 				} catch (Exception e) {
 					logger.log(Level.INFO, "Unable to use local monomer DB file: " + MONOMER_DB_FILE_NAME);
 					localMonomerDBFile.delete();
@@ -733,7 +830,6 @@ public class MonomerFactory {
 				try {
 					LOG.info("BuildMonomerCacheFromXML");
 					cache = buildMonomerCacheFromXML(in);
-					validate(cache.getMonomerDB());
 				} catch (MonomerException | IOException | JDOMException | CTKException e) {
 					throw new MonomerLoadingException(
 							"Initializing MonomerStore failed because of " + e.getClass().getSimpleName(), e);
@@ -744,9 +840,8 @@ public class MonomerFactory {
 
 		}
 
-		monomerDB = cache.getMonomerDB();
-		attachmentDB = cache.getAttachmentDB();
-		smilesMonomerDB = cache.getSmilesMonomerDB();
+		library = new Library(new MonomerStore(cache.getMonomerDB(), cache.getSmilesMonomerDB()),
+				cache.getAttachmentDB());
 
 		dbChanged = true;
 
@@ -761,21 +856,103 @@ public class MonomerFactory {
 	 *             if monomer is not valid
 	 */
 	public void saveMonomerCache() throws IOException, MonomerException {
-		File f = new File(NOTATION_DIRECTORY);
-		if (!f.exists()) {
-			f.mkdir();
+		synchronized (PERSISTENCE_LOCK) {
+			saveRequested.set(false);
+			File f = persistenceDirectory;
+			if (!f.exists()) {
+				f.mkdirs();
+			}
+			MonomerCache cache = new MonomerCache();
+			cache.setMonomerDB(getMonomerDB(false));
+			cache.setAttachmentDB(getAttachmentDB());
+			cache.setSmilesMonomerDB(getSmilesMonomerDB(false));
+			serializeMonomerCache(cache, getPersistenceFile(MONOMER_CACHE_FILE_NAME).getPath());
+			writeFile(MonomerLibrarySnapshot.encodeMonomerCache(cache), getPersistenceFile(MONOMER_SNAPSHOT_FILE_NAME).getPath());
+
+			String monomerDbXML = buildMonomerDbXMLFromCache(cache);
+
+			writeFile(monomerDbXML.getBytes(), getPersistenceFile(MONOMER_DB_FILE_NAME).getPath());
 		}
-		MonomerCache cache = new MonomerCache();
-		cache.setMonomerDB(getMonomerDB(false));
-		cache.setAttachmentDB(getAttachmentDB());
-		cache.setSmilesMonomerDB(getSmilesMonomerDB(false));
-		serializeMonomerCache(cache, MONOMER_CACHE_FILE_PATH);
+	}
+
+	/**
+	 * requests to save the monomerCache to disk file in the background;
+	 * requests arriving before the pending save runs are coalesced into one
+	 * save
+	 */
+	public void requestMonomerCacheSave() {
+		if (saveRequested.compareAndSet(false, true)) {
+			getPersistenceExecutor().schedule(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						flushMonomerCache();
+					} catch (IOException | MonomerException e) {
+						logger.log(Level.WARNING, "Unable to save monomer cache", e);
+					}
+				}
+			}, SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * saves the monomerCache to disk file if a save was requested and has not
+	 * been written yet
+	 *
+	 * @throws java.io.IOException
+	 *             if the monomer can not be saved to disk file
+	 * @throws MonomerException
+	 *             if monomer is not valid
+	 */
+	public void flushMonomerCache() throws IOException, MonomerException {
+		synchronized (PERSISTENCE_LOCK) {
+			if (saveRequested.get() && library != null) {
+				saveMonomerCache();
+			}
+		}
+	}
 
-		String monomerDbXML = buildMonomerDbXMLFromCache(cache);
+	/**
+	 * sets the directory the monomer cache files are read from and written
+	 * to, by default {@link #NOTATION_DIRECTORY}
+	 *
+	 * @param directory
+	 *            directory of the monomer cache files
+	 */
+	static void setPersistenceDirectory(File directory) {
+		synchronized (PERSISTENCE_LOCK) {
+			persistenceDirectory = directory;
+		}
+	}
 
-		FileOutputStream fos = new FileOutputStream(MONOMER_DB_FILE_PATH);
-		fos.write(monomerDbXML.getBytes());
-		fos.close();
+	static File getPersistenceFile(String fileName) {
+		return new File(persistenceDirectory, fileName);
+	}
+
+	private static synchronized ScheduledExecutorService getPersistenceExecutor() {
+		if (persistenceExecutor == null) {
+			persistenceExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "monomer-cache-writer");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				@Override
+				public void run() {
+					try {
+						if (instance != null) {
+							instance.flushMonomerCache();
+						}
+					} catch (IOException | MonomerException e) {
+						logger.log(Level.WARNING, "Unable to save monomer cache", e);
+					}
+				}
+			});
+		}
+		return persistenceExecutor;
 	}
 
 	private static Map<String, Map<String, Monomer>> buildMonomerDB(Element polymerList)
@@ -796,11 +973,9 @@ public class MonomerFactory {
 			while (it.hasNext()) {
 				Element monomer = (Element) it.next();
 				
+				/* monomers are validated afterwards in parallel */
 				Monomer m = MonomerParser.getMonomer(monomer);
-
-				if (MonomerParser.validateMonomer(m)) {
-					idMonomerMap.put(m.getAlternateId(), m);
-				}
+				idMonomerMap.put(m.getAlternateId(), m);
 			}
 			map.put(polymerType.getValue(), idMonomerMap);
 		}
@@ -837,45 +1012,118 @@ public class MonomerFactory {
 			for (Iterator it = monomerSet.iterator(); it.hasNext();) {
 				String monomerID = (String) it.next();
 				Monomer monomer = monomerMap.get(monomerID);
-				String smiles = monomer.getCanSMILES();
-
-				try {
-					Chemistry.getInstance().getManipulator().canonicalize(smiles);
-				} catch (Exception e) {
-					smiles = monomer.getCanSMILES();
-
-				}
-
-				monomer.setCanSMILES(smiles);
-				map.put(smiles, monomer);
+				map.put(monomer.getCanSMILES(), monomer);
 
 			}
 		}
 		return map;
 	}
 
+	/**
+	 * validates all monomers of the given monomer db on a fork-join pool; if
+	 * several monomers are invalid, the error of the first one in db order is
+	 * thrown, independent of the execution order; every leaf task borrows its
+	 * own chemistry manipulator, so the parallelism is limited to the size of
+	 * the manipulator pool
+	 */
 	private static boolean validate(Map<String, Map<String, Monomer>> monomerDB)
 			throws MonomerException, IOException, CTKException, ChemistryException {
-		Set<String> polymers = monomerDB.keySet();
-		for (String polymer : polymers) {
-			Map<String, Monomer> monomerMap = monomerDB.get(polymer);
-			Set<String> monomers = monomerMap.keySet();
-			for (String monomer : monomers) {
-				Monomer m = monomerMap.get(monomer);
-				logger.info(m.getAlternateId());
-				MonomerParser.validateMonomer(m);
+		List<Monomer> monomers = new ArrayList<Monomer>();
+		for (Map<String, Monomer> monomerMap : monomerDB.values()) {
+			monomers.addAll(monomerMap.values());
+		}
+		Exception[] errors = new Exception[monomers.size()];
+
+		ForkJoinPool pool = new ForkJoinPool(Chemistry.getManipulatorPoolSize());
+		try {
+			pool.invoke(new ValidationTask(monomers, errors, 0, monomers.size()));
+		} finally {
+			pool.shutdown();
+		}
+
+		for (Exception e : errors) {
+			if (e instanceof MonomerException) {
+				throw (MonomerException) e;
+			} else if (e instanceof IOException) {
+				throw (IOException) e;
+			} else if (e instanceof CTKException) {
+				throw (CTKException) e;
+			} else if (e instanceof ChemistryException) {
+				throw (ChemistryException) e;
+			} else if (e != null) {
+				throw (RuntimeException) e;
 			}
 		}
 		return true;
 	}
 
-	public static void finalizeMonomerCache() {
+	private static final class ValidationTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
 
-		monomerDB = null;
-		attachmentDB = null;
-		smilesMonomerDB = null;
-		dbChanged = true;
-		instance = null;
+		private static final int THRESHOLD = 16;
+
+		private final List<Monomer> monomers;
+
+		private final Exception[] errors;
+
+		private final int from;
+
+		private final int to;
+
+		private ValidationTask(List<Monomer> monomers, Exception[] errors, int from, int to) {
+			this.monomers = monomers;
+			this.errors = errors;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= THRESHOLD) {
+				try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+					for (int i = from; i < to; i++) {
+						try {
+							MonomerParser.validateMonomer(monomers.get(i));
+						} catch (MonomerException | IOException | CTKException | ChemistryException | RuntimeException e) {
+							errors[i] = e;
+						}
+					}
+				} catch (ChemistryException e) {
+					for (int i = from; i < to; i++) {
+						errors[i] = e;
+					}
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ValidationTask(monomers, errors, from, middle),
+						new ValidationTask(monomers, errors, middle, to));
+			}
+		}
+	}
+
+	private static long recordTiming(Map<String, Long> timings, String phase, long start) {
+		long end = System.currentTimeMillis();
+		timings.put(phase, end - start);
+		return end;
+	}
+
+	/**
+	 * returns the time in milliseconds spent in each phase of the latest
+	 * monomer library load from XML
+	 *
+	 * @return phase name and time in ms, in phase order; empty if no library
+	 *         was loaded from XML yet
+	 */
+	public static Map<String, Long> getLoadTimings() {
+		return loadTimings;
+	}
+
+	public static void finalizeMonomerCache() {
+		synchronized (WRITE_LOCK) {
+			library = null;
+			dbChanged = true;
+			instance = null;
+		}
 	}
 
 }
@@ -0,0 +1,350 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * MonomerLibrarySnapshot, compact versioned binary format for the monomer,
+ * attachment and nucleotide template libraries. A snapshot stores the monomers
+ * exactly as they are held in memory, including their canonical SMILES, so
+ * loading it needs neither XML parsing, molfile decoding nor SMILES
+ * canonicalization. Snapshots are read through a memory-mapped
+ * {@link FileChannel}.
+ */
+public final class MonomerLibrarySnapshot {
+
+  /** "HELM" */
+  private static final int MAGIC = 0x48454c4d;
+
+  public static final int VERSION = 2;
+
+  private static final byte MONOMER_LIBRARY = 1;
+
+  private static final byte NUCLEOTIDE_TEMPLATES = 2;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private MonomerLibrarySnapshot() {
+  }
+
+  /**
+   * method to encode the given monomer cache as snapshot
+   *
+   * @param cache monomer cache
+   * @return snapshot as byte array
+   * @throws IOException if the snapshot can not be written
+   */
+  public static byte[] encodeMonomerCache(MonomerCache cache) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    writeHeader(out, MONOMER_LIBRARY);
+
+    Map<String, Attachment> attachmentDB = cache.getAttachmentDB();
+    out.writeInt(attachmentDB.size());
+    for (Attachment attachment : attachmentDB.values()) {
+      writeAttachment(out, attachment);
+    }
+
+    /* monomers of the smiles map which are not part of the monomer db follow the others */
+    List<Monomer> monomers = new ArrayList<Monomer>();
+    for (Map<String, Monomer> monomerMap : cache.getMonomerDB().values()) {
+      monomers.addAll(monomerMap.values());
+    }
+    int indexedMonomers = monomers.size();
+    Map<Monomer, Integer> positions = new IdentityHashMap<Monomer, Integer>();
+    for (Monomer monomer : monomers) {
+      positions.put(monomer, positions.size());
+    }
+    for (Monomer monomer : cache.getSmilesMonomerDB().values()) {
+      if (!positions.containsKey(monomer)) {
+        positions.put(monomer, monomers.size());
+        monomers.add(monomer);
+      }
+    }
+
+    out.writeInt(monomers.size());
+    out.writeInt(indexedMonomers);
+    for (Monomer monomer : monomers) {
+      writeMonomer(out, monomer);
+    }
+
+    out.writeInt(cache.getSmilesMonomerDB().size());
+    for (Map.Entry<String, Monomer> entry : cache.getSmilesMonomerDB().entrySet()) {
+      writeString(out, entry.getKey());
+      out.writeInt(positions.get(entry.getValue()));
+    }
+    out.close();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * method to read a monomer cache from the given snapshot file
+   *
+   * @param file snapshot file
+   * @return MonomerCache
+   * @throws IOException if the file can not be read or is no supported
+   *           snapshot
+   */
+  public static MonomerCache readMonomerCache(File file) throws IOException {
+    ByteBuffer in = map(file);
+    readHeader(in, MONOMER_LIBRARY);
+
+    Map<String, Attachment> attachmentDB = new TreeMap<String, Attachment>(String.CASE_INSENSITIVE_ORDER);
+    int attachmentCount = in.getInt();
+    for (int i = 0; i < attachmentCount; i++) {
+      Attachment attachment = readAttachment(in);
+      attachmentDB.put(attachment.getAlternateId(), attachment);
+    }
+
+    int monomerCount = in.getInt();
+    int indexedMonomers = in.getInt();
+    Monomer[] monomers = new Monomer[monomerCount];
+    Map<String, Map<String, Monomer>> monomerDB = new TreeMap<String, Map<String, Monomer>>(String.CASE_INSENSITIVE_ORDER);
+    for (int i = 0; i < monomerCount; i++) {
+      Monomer monomer = readMonomer(in);
+      monomers[i] = monomer;
+      if (i < indexedMonomers) {
+        Map<String, Monomer> monomerMap = monomerDB.get(monomer.getPolymerType());
+        if (monomerMap == null) {
+          monomerMap = new TreeMap<String, Monomer>(String.CASE_INSENSITIVE_ORDER);
+          monomerDB.put(monomer.getPolymerType(), monomerMap);
+        }
+        monomerMap.put(monomer.getAlternateId(), monomer);
+      }
+    }
+
+    int smilesCount = in.getInt();
+    Map<String, Monomer> smilesMonomerDB = new HashMap<String, Monomer>(smilesCount * 2);
+    for (int i = 0; i < smilesCount; i++) {
+      String smiles = readString(in);
+      smilesMonomerDB.put(smiles, monomers[in.getInt()]);
+    }
+
+    MonomerCache cache = new MonomerCache();
+    cache.setMonomerDB(monomerDB);
+    cache.setAttachmentDB(attachmentDB);
+    cache.setSmilesMonomerDB(smilesMonomerDB);
+    return cache;
+  }
+
+  /**
+   * method to encode the given nucleotide templates as snapshot
+   *
+   * @param templates nucleotide templates, first key is notation source, second
+   *          key is nucleotide symbol
+   * @return snapshot as byte array
+   * @throws IOException if the snapshot can not be written
+   */
+  public static byte[] encodeNucleotideTemplates(Map<String, Map<String, String>> templates) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    writeHeader(out, NUCLEOTIDE_TEMPLATES);
+    out.writeInt(templates.size());
+    for (Map.Entry<String, Map<String, String>> source : templates.entrySet()) {
+      writeString(out, source.getKey());
+      out.writeInt(source.getValue().size());
+      for (Map.Entry<String, String> template : source.getValue().entrySet()) {
+        writeString(out, template.getKey());
+        writeString(out, template.getValue());
+      }
+    }
+    out.close();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * method to read nucleotide templates from the given snapshot file
+   *
+   * @param file snapshot file
+   * @return nucleotide templates
+   * @throws IOException if the file can not be read or is no supported
+   *           snapshot
+   */
+  public static Map<String, Map<String, String>> readNucleotideTemplates(File file) throws IOException {
+    ByteBuffer in = map(file);
+    readHeader(in, NUCLEOTIDE_TEMPLATES);
+    Map<String, Map<String, String>> templates = new TreeMap<String, Map<String, String>>(String.CASE_INSENSITIVE_ORDER);
+    int sourceCount = in.getInt();
+    for (int i = 0; i < sourceCount; i++) {
+      String source = readString(in);
+      Map<String, String> map = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+      int templateCount = in.getInt();
+      for (int j = 0; j < templateCount; j++) {
+        String symbol = readString(in);
+        map.put(symbol, readString(in));
+      }
+      templates.put(source, map);
+    }
+    return templates;
+  }
+
+  private static ByteBuffer map(File file) throws IOException {
+    FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    try {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return buffer;
+    } finally {
+      channel.close();
+    }
+  }
+
+  private static void writeHeader(DataOutputStream out, byte kind) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeByte(kind);
+  }
+
+  private static void readHeader(ByteBuffer in, byte kind) throws IOException {
+    try {
+      if (in.getInt() != MAGIC) {
+        throw new IOException("File is no monomer library snapshot");
+      }
+      int version = in.getInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported monomer library snapshot version " + version);
+      }
+      if (in.get() != kind) {
+        throw new IOException("Monomer library snapshot contains unexpected content");
+      }
+    } catch (RuntimeException e) {
+      throw new IOException("File is no monomer library snapshot", e);
+    }
+  }
+
+  private static void writeMonomer(DataOutputStream out, Monomer monomer) throws IOException {
+    out.writeInt(monomer.getId());
+    writeString(out, monomer.getAlternateId());
+    writeString(out, monomer.getNaturalAnalog());
+    writeString(out, monomer.getName());
+    writeString(out, monomer.getCanSMILES());
+    if (monomer.getCompressedMolfile() != null) {
+      out.writeBoolean(true);
+      writeBytes(out, monomer.getCompressedMolfile());
+    } else {
+      out.writeBoolean(false);
+      writeString(out, monomer.getMolfile());
+    }
+    writeString(out, monomer.getMonomerType());
+    writeString(out, monomer.getPolymerType());
+    out.writeBoolean(monomer.isNewMonomer());
+    out.writeBoolean(monomer.isAdHocMonomer());
+    List<Attachment> attachments = monomer.getAttachmentList();
+    out.writeInt(attachments == null ? -1 : attachments.size());
+    if (attachments != null) {
+      for (Attachment attachment : attachments) {
+        writeAttachment(out, attachment);
+      }
+    }
+  }
+
+  private static Monomer readMonomer(ByteBuffer in) {
+    Monomer monomer = new Monomer();
+    monomer.setId(in.getInt());
+    monomer.setAlternateId(readString(in));
+    monomer.setNaturalAnalog(readString(in));
+    monomer.setName(readString(in));
+    monomer.setCanSMILES(readString(in));
+    if (in.get() != 0) {
+      monomer.setCompressedMolfile(readBytes(in));
+    } else {
+      monomer.setMolfile(readString(in));
+    }
+    monomer.setMonomerType(readString(in));
+    monomer.setPolymerType(readString(in));
+    monomer.setNewMonomer(in.get() != 0);
+    monomer.setAdHocMonomer(in.get() != 0);
+    int attachmentCount = in.getInt();
+    if (attachmentCount < 0) {
+      monomer.setAttachmentList(null);
+    } else {
+      List<Attachment> attachments = new ArrayList<Attachment>(attachmentCount);
+      for (int i = 0; i < attachmentCount; i++) {
+        attachments.add(readAttachment(in));
+      }
+      monomer.setAttachmentList(attachments);
+    }
+    return monomer;
+  }
+
+  private static void writeAttachment(DataOutputStream out, Attachment attachment) throws IOException {
+    out.writeInt(attachment.getId());
+    writeString(out, attachment.getAlternateId());
+    writeString(out, attachment.getLabel());
+    writeString(out, attachment.getCapGroupName());
+    writeString(out, attachment.getCapGroupSMILES());
+  }
+
+  private static Attachment readAttachment(ByteBuffer in) {
+    Attachment attachment = new Attachment();
+    attachment.setId(in.getInt());
+    attachment.setAlternateId(readString(in));
+    attachment.setLabel(readString(in));
+    attachment.setCapGroupName(readString(in));
+    attachment.setCapGroupSMILES(readString(in));
+    return attachment;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    writeBytes(out, value == null ? null : value.getBytes(UTF8));
+  }
+
+  private static String readString(ByteBuffer in) {
+    byte[] bytes = readBytes(in);
+    return bytes == null ? null : new String(bytes, UTF8);
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    if (bytes == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static byte[] readBytes(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return bytes;
+  }
+}
@@ -2,6 +2,8 @@ package org.helm.notation2;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,25 +17,26 @@ import org.helm.notation2.tools.SMILES;
  * This class represents a store for monomers. It is mainly used to seperate the
  * monomers coming from a single (XHELM) file from the monomers within the local
  * database.
+ * <p>
+ * Readers work on an immutable snapshot of the store which is published via a
+ * volatile field, so lookups never block. Every modification copies the
+ * affected maps and publishes a new snapshot.
  *
  * @author maisel
  *
  */
 public class MonomerStore {
-  private Map<String, Map<String, Monomer>> monomerDB;
-
-  private Map<String, Monomer> smilesMonomerDB;
+  private volatile Snapshot snapshot;
 
   /**
    * Constructor with Monomer- and SmilesDB
    *
-   * @param monomerDB given monomerDB
-   * @param smilesMonomerDB given smiles DB
+   * @param monomerDB given monomerDB, must not be modified afterwards
+   * @param smilesMonomerDB given smiles DB, must not be modified afterwards
    */
   public MonomerStore(Map<String, Map<String, Monomer>> monomerDB,
       Map<String, Monomer> smilesMonomerDB) {
-    this.monomerDB = monomerDB;
-    this.smilesMonomerDB = smilesMonomerDB;
+    this.snapshot = Snapshot.of(monomerDB, smilesMonomerDB);
   }
 
   /**
@@ -42,26 +45,25 @@ public class MonomerStore {
    *
    */
   public MonomerStore() {
-    monomerDB = new TreeMap<String, Map<String, Monomer>>(String.CASE_INSENSITIVE_ORDER);
-    smilesMonomerDB = new HashMap<String, Monomer>();
+    this.snapshot = Snapshot.of(new TreeMap<String, Map<String, Monomer>>(String.CASE_INSENSITIVE_ORDER), new HashMap<String, Monomer>());
   }
 
   /**
    * returns MonomerDB
    *
-   * @return MonomerDB as {@code Map<String, Map<String, Monomer>>}
+   * @return MonomerDB as unmodifiable {@code Map<String, Map<String, Monomer>>}
    */
   public Map<String, Map<String, Monomer>> getMonomerDB() {
-    return monomerDB;
+    return snapshot.monomerDB;
   }
 
   /**
    * returns SmilesMonomerDB
    *
-   * @return SmilesMonomerDB as {@code Map<String, Monomer>}
+   * @return SmilesMonomerDB as unmodifiable {@code Map<String, Monomer>}
    */
   public Map<String, Monomer> getSmilesMonomerDB() {
-    return smilesMonomerDB;
+    return snapshot.smilesMonomerDB;
   }
 
   /**
@@ -86,9 +88,6 @@ public class MonomerStore {
    */
   public void addMonomer(Monomer monomer, boolean dbChanged)
       throws IOException, MonomerException {
-    Map<String, Monomer> monomerMap = monomerDB.get(monomer.getPolymerType());
-    String polymerType = monomer.getPolymerType();
-    String alternateId = monomer.getAlternateId();
     String smilesString = monomer.getCanSMILES();
 
     try {
@@ -99,11 +98,6 @@ public class MonomerStore {
 
     boolean hasSmilesString = (smilesString != null && smilesString.length() > 0);
 
-    if (null == monomerMap) {
-      monomerMap = new TreeMap<String, Monomer>(String.CASE_INSENSITIVE_ORDER);
-      monomerDB.put(polymerType, monomerMap);
-    }
-
     Monomer copyMonomer = DeepCopy.copy(monomer);
 
     // ensure the canonical SMILES is indexed in the monomer store
@@ -111,23 +105,76 @@ public class MonomerStore {
       copyMonomer.setCanSMILES(smilesString);
     }
 
-    boolean alreadyAdded = false;
-    alreadyAdded = monomerMap.containsKey(alternateId);
+    addMonomers(Collections.singletonList(copyMonomer));
 
-    if (!alreadyAdded) {
-      monomerMap.put(alternateId, copyMonomer);
+    if (dbChanged) {
+      MonomerFactory.setDBChanged(true);
+    }
+  }
 
-      boolean alreadyInSMILESMap = hasSmilesString
-          && (smilesMonomerDB.containsKey(smilesString));
+  /**
+   * Adds the given monomers as they are to the store and publishes the result
+   * as one new snapshot. Monomers whose id is already present for their
+   * polymer type are skipped, as are SMILES already present in the smiles
+   * map.
+   *
+   * @param monomers monomers to add
+   */
+  synchronized void addMonomers(Collection<Monomer> monomers) {
+    Snapshot current = snapshot;
+    Map<String, Map<String, Monomer>> monomerDB = new TreeMap<String, Map<String, Monomer>>(String.CASE_INSENSITIVE_ORDER);
+    monomerDB.putAll(current.monomerDB);
+    Map<String, Monomer> smilesMonomerDB = null;
+    Map<String, Map<String, Monomer>> copiedMonomerMaps = new HashMap<String, Map<String, Monomer>>();
+
+    for (Monomer monomer : monomers) {
+      String polymerType = monomer.getPolymerType();
+      Map<String, Monomer> monomerMap = copiedMonomerMaps.get(polymerType);
+      if (monomerMap == null) {
+        monomerMap = new TreeMap<String, Monomer>(String.CASE_INSENSITIVE_ORDER);
+        if (monomerDB.containsKey(polymerType)) {
+          monomerMap.putAll(monomerDB.get(polymerType));
+        }
+        copiedMonomerMaps.put(polymerType, monomerMap);
+      }
 
-      if (!alreadyInSMILESMap) {
-        smilesMonomerDB.put(smilesString, copyMonomer);
+      if (!monomerMap.containsKey(monomer.getAlternateId())) {
+        monomerMap.put(monomer.getAlternateId(), monomer);
+
+        String smilesString = monomer.getCanSMILES();
+        if (smilesString != null && smilesString.length() > 0) {
+          if (smilesMonomerDB == null) {
+            smilesMonomerDB = new HashMap<String, Monomer>(current.smilesMonomerDB);
+          }
+          if (!smilesMonomerDB.containsKey(smilesString)) {
+            smilesMonomerDB.put(smilesString, monomer);
+          }
+        }
       }
     }
 
-    if (dbChanged) {
-      MonomerFactory.setDBChanged(true);
+    for (Map.Entry<String, Map<String, Monomer>> entry : copiedMonomerMaps.entrySet()) {
+      monomerDB.put(entry.getKey(), Collections.unmodifiableMap(entry.getValue()));
     }
+    snapshot = new Snapshot(Collections.unmodifiableMap(monomerDB),
+        smilesMonomerDB == null ? current.smilesMonomerDB : Collections.unmodifiableMap(smilesMonomerDB));
+  }
+
+  /**
+   * Registers an additional SMILES under which an already stored monomer can be
+   * found, e.g. the SMILES as it was written by the user
+   *
+   * @param smiles additional SMILES key
+   * @param monomer monomer to be found under the given SMILES
+   */
+  public synchronized void addSmilesAlias(String smiles, Monomer monomer) {
+    if (smiles == null || smiles.length() == 0) {
+      return;
+    }
+    Snapshot current = snapshot;
+    Map<String, Monomer> smilesMonomerDB = new HashMap<String, Monomer>(current.smilesMonomerDB);
+    smilesMonomerDB.put(smiles, monomer);
+    snapshot = new Snapshot(current.monomerDB, Collections.unmodifiableMap(smilesMonomerDB));
   }
 
   /**
@@ -138,7 +185,8 @@ public class MonomerStore {
    * @return true if monomer exists, false if not
    */
   public boolean hasMonomer(String polymerType, String alternateId) {
-    return ((monomerDB.get(polymerType) != null) && getMonomer(polymerType, alternateId) != null);
+    Map<String, Monomer> monomerMap = snapshot.monomerDB.get(polymerType);
+    return ((monomerMap != null) && monomerMap.get(alternateId) != null);
   }
 
   /**
@@ -149,9 +197,7 @@ public class MonomerStore {
    * @return the matching monomer
    */
   public Monomer getMonomer(String polymerType, String alternateId) {
-	Map<String, Monomer> map1 = monomerDB.get(polymerType);
-	//alternateId = alternateId.toUpperCase();
-    return monomerDB.get(polymerType).get(alternateId);
+    return snapshot.monomerDB.get(polymerType).get(alternateId);
   }
 
   /**
@@ -161,7 +207,7 @@ public class MonomerStore {
    * @return the matching monomer
    */
   public Monomer getMonomer(String smiles) {
-    return smilesMonomerDB.get(smiles);
+    return snapshot.smilesMonomerDB.get(smiles);
   }
 
   /**
@@ -171,7 +217,7 @@ public class MonomerStore {
    * @return All monomers with polymerType
    */
   public Map<String, Monomer> getMonomers(String polymerType) {
-    return monomerDB.get(polymerType);
+    return snapshot.monomerDB.get(polymerType);
   }
 
   /**
@@ -185,6 +231,7 @@ public class MonomerStore {
       MonomerException {
     monomer.setNewMonomer(true);
     addMonomer(monomer, true);
+    MoleculeTemplateCache.getInstance().clear();
   }
 
   /**
@@ -193,21 +240,20 @@ public class MonomerStore {
    * @return true if the store is empty, false if not
    */
   public boolean isMonomerStoreEmpty() {
-    return (this.monomerDB == null || this.monomerDB.values() == null || this.monomerDB.values().size() == 0);
+    return snapshot.monomerDB.isEmpty();
   }
 
   /**
    * Clears the MonomerStore
    */
   public synchronized void clearMonomers() {
-    this.monomerDB.clear();
-    this.smilesMonomerDB.clear();
+    this.snapshot = Snapshot.of(new TreeMap<String, Map<String, Monomer>>(String.CASE_INSENSITIVE_ORDER), new HashMap<String, Monomer>());
   }
 
   @Override
   public String toString() {
     String str = "";
-    for (Map<String, Monomer> val : this.monomerDB.values()) {
+    for (Map<String, Monomer> val : snapshot.monomerDB.values()) {
       for (Monomer mon : val.values()) {
         str += mon.getAlternateId() + "(" + mon.getPolymerType()
             + "); ";
@@ -224,7 +270,7 @@ public class MonomerStore {
    * @return the polymer type set as {@code Set<String>}
    */
   public Set<String> getPolymerTypeSet() {
-    return monomerDB.keySet();
+    return snapshot.monomerDB.keySet();
   }
 
   /**
@@ -235,11 +281,32 @@ public class MonomerStore {
    */
   public List<Monomer> getAllMonomersList() {
     List<Monomer> monomers = new ArrayList<Monomer>();
-    for (String polymerType : getPolymerTypeSet()) {
-      Map<String, Monomer> map = getMonomers(polymerType);
+    for (Map<String, Monomer> map : snapshot.monomerDB.values()) {
       monomers.addAll(map.values());
     }
     return monomers;
 
   }
+
+  /**
+   * Immutable view of the monomer and smiles maps at one point in time
+   */
+  private static final class Snapshot {
+    private final Map<String, Map<String, Monomer>> monomerDB;
+
+    private final Map<String, Monomer> smilesMonomerDB;
+
+    private Snapshot(Map<String, Map<String, Monomer>> monomerDB, Map<String, Monomer> smilesMonomerDB) {
+      this.monomerDB = monomerDB;
+      this.smilesMonomerDB = smilesMonomerDB;
+    }
+
+    private static Snapshot of(Map<String, Map<String, Monomer>> monomerDB, Map<String, Monomer> smilesMonomerDB) {
+      Map<String, Map<String, Monomer>> views = new TreeMap<String, Map<String, Monomer>>(String.CASE_INSENSITIVE_ORDER);
+      for (Map.Entry<String, Map<String, Monomer>> entry : monomerDB.entrySet()) {
+        views.put(entry.getKey(), Collections.unmodifiableMap(entry.getValue()));
+      }
+      return new Snapshot(Collections.unmodifiableMap(views), Collections.unmodifiableMap(smilesMonomerDB));
+    }
+  }
 }
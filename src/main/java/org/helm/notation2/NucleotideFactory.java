@@ -24,7 +24,6 @@ package org.helm.notation2;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
@@ -61,6 +60,8 @@ public class NucleotideFactory {
       + System.getProperty("file.separator")
       + LOCAL_NUCLEOTIDE_TEMPLATE_FILE_NAME;
 
+  public static final String LOCAL_NUCLEOTIDE_SNAPSHOT_FILE_NAME = "NucleotideTemplates.bin";
+
   public static final String NUCLEOTIDE_TEMPLATE_XML_RESOURCE = "resources/NucleotideTemplates.xml";
 
   public static final String NUCLEOTIDE_TEMPLATE_SCHEMA_RESOURCE = "resources/NucleotideTemplateSchema.xsd";
@@ -155,15 +156,29 @@ public class NucleotideFactory {
   private static void initializeNucleotideTemplates() throws NucleotideLoadingException {
 
     InputStream in = null;
-    File localFile = new File(LOCAL_NUCLEOTIDE_TEMPLATE_FILE_PATH);
+    File snapshotFile = MonomerFactory.getPersistenceFile(LOCAL_NUCLEOTIDE_SNAPSHOT_FILE_NAME);
+    File localFile = MonomerFactory.getPersistenceFile(LOCAL_NUCLEOTIDE_TEMPLATE_FILE_NAME);
     Map<String, Map<String, String>> templates = null;
 
-    if (localFile.exists()) {
+    if (snapshotFile.exists()) {
+      try {
+        /* the snapshot is only written from already validated templates */
+        templates = MonomerLibrarySnapshot.readNucleotideTemplates(snapshotFile);
+        logger.log(Level.INFO, snapshotFile.getPath()
+            + " is used for nucleotide templates initialization");
+      } catch (Exception e) {
+        logger.log(Level.INFO, "Unable to use local nucleotide templates snapshot for initialization");
+        snapshotFile.delete();
+        logger.log(Level.INFO, "Deleted local nucleotide templates snapshot file");
+      }
+    }
+
+    if (null == templates && localFile.exists()) {
       try {
         in = new FileInputStream(localFile);
         templates = buildNucleotideTemplates(in);
         validate(templates);
-        logger.log(Level.INFO, LOCAL_NUCLEOTIDE_TEMPLATE_FILE_PATH
+        logger.log(Level.INFO, localFile.getPath()
             + " is used for nucleotide templates initialization");
       } catch (Exception e) {
         logger.log(Level.INFO, "Unable to use local nucleotide templates for initialization");
@@ -240,19 +255,20 @@ public class NucleotideFactory {
   }
 
   /**
-   * save Nucleotide Templates to disk file
+   * save Nucleotide Templates to disk file, next to the monomer cache files
    *
    * @throws java.io.IOException if it can't be saved
    */
   public void saveNucleotideTemplates() throws IOException {
-    File f = new File(NOTATION_DIRECTORY);
+    File localFile = MonomerFactory.getPersistenceFile(LOCAL_NUCLEOTIDE_TEMPLATE_FILE_NAME);
+    File f = localFile.getParentFile();
     if (!f.exists()) {
-      f.mkdir();
+      f.mkdirs();
     }
     String nucleotideTemplatesXML = NucleotideParser.getNucleotideTemplatesXML(getNucleotideTemplates());
-    FileOutputStream fos = new FileOutputStream(
-        LOCAL_NUCLEOTIDE_TEMPLATE_FILE_PATH);
-    fos.write(nucleotideTemplatesXML.getBytes());
+    MonomerFactory.writeFile(nucleotideTemplatesXML.getBytes(), localFile.getPath());
+
+    MonomerFactory.writeFile(MonomerLibrarySnapshot.encodeNucleotideTemplates(getNucleotideTemplates()), MonomerFactory.getPersistenceFile(LOCAL_NUCLEOTIDE_SNAPSHOT_FILE_NAME).getPath());
   }
 
   /**
@@ -0,0 +1,336 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2.calculation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+import org.helm.chemtoolkit.AbstractMolecule;
+import org.helm.chemtoolkit.CTKException;
+import org.helm.chemtoolkit.MoleculeInfo;
+import org.helm.notation2.Attachment;
+import org.helm.notation2.Chemistry;
+import org.helm.notation2.MoleculeProperty;
+import org.helm.notation2.MoleculeTemplateCache;
+import org.helm.notation2.Monomer;
+import org.helm.notation2.MonomerFactory;
+import org.helm.notation2.MonomerStore;
+import org.helm.notation2.calculation.MoleculePropertyCalculator.Property;
+import org.helm.notation2.exception.BuilderMoleculeException;
+import org.helm.notation2.exception.ChemistryException;
+import org.helm.notation2.exception.HELM2HandledException;
+import org.helm.notation2.exception.MonomerLoadingException;
+import org.helm.notation2.parser.notation.HELM2Notation;
+import org.helm.notation2.parser.notation.connection.ConnectionNotation;
+import org.helm.notation2.parser.notation.polymer.ChemEntity;
+import org.helm.notation2.parser.notation.polymer.GroupEntity;
+import org.helm.notation2.parser.notation.polymer.PeptideEntity;
+import org.helm.notation2.parser.notation.polymer.PolymerNotation;
+import org.helm.notation2.parser.notation.polymer.RNAEntity;
+import org.helm.notation2.tools.BuilderMolecule;
+import org.helm.notation2.tools.HELM2NotationUtils;
+import org.helm.notation2.tools.MethodsMonomerUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * AdditivePropertyCalculator, class to calculate the molecular formula,
+ * molecular weight and exact mass of a HELM molecule as the sum of the
+ * monomer contributions plus the cap groups of all unused rgroups, without
+ * building the whole molecule. The contributions of every monomer and every
+ * cap group are calculated only once with the Chemistry Engine
+ */
+public final class AdditivePropertyCalculator {
+  /** The Logger for this class */
+  private static final Logger LOG = LoggerFactory.getLogger(AdditivePropertyCalculator.class);
+
+  private static final String RGROUP_SYMBOL = "R";
+
+  /** contributions of the monomers, stored for each MonomerStore */
+  private static final Map<MonomerStore, Map<Monomer, Contribution>> MONOMER_CONTRIBUTIONS = new WeakHashMap<MonomerStore, Map<Monomer, Contribution>>();
+
+  /** contributions of the cap groups, key is the cap group smiles */
+  private static final Map<String, Contribution> CAP_CONTRIBUTIONS = new HashMap<String, Contribution>();
+
+  /**
+   * Default constructor.
+   */
+  private AdditivePropertyCalculator() {
+
+  }
+
+  /**
+   * method to calculate the requested properties (molecular formula,
+   * molecular weight and exact mass) for the given HELM2Notation out of the
+   * monomer contributions
+   *
+   * @param helm2notation given HELM2 object
+   * @param properties requested properties
+   * @return molecule properties or null, if the HELM2Notation contains
+   *         features which can only be handled by building the whole molecule
+   *         (e.g. inline smiles or ambiguous connections)
+   * @throws BuilderMoleculeException if the molecule of a monomer can not be
+   *           built
+   * @throws CTKException general ChemToolKit exception passed to HELMToolKit
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public static MoleculeProperty calculate(HELM2Notation helm2notation, Set<Property> properties) throws BuilderMoleculeException, CTKException, ChemistryException {
+    Map<String, List<Map<String, String>>> openRgroups = new HashMap<String, List<Map<String, String>>>();
+    Contribution sum = new Contribution();
+
+    Map<Monomer, Contribution> monomerContributions;
+    try {
+      monomerContributions = getMonomerContributions(MonomerFactory.getInstance().getMonomerStore());
+    } catch (MonomerLoadingException e) {
+      throw new BuilderMoleculeException("Monomer store can not be loaded " + e.getMessage());
+    }
+
+    /* monomer contributions + intra polymer connections */
+    for (PolymerNotation polymer : helm2notation.getListOfPolymers()) {
+      List<Monomer> monomers;
+      if (!(polymer.getPolymerID() instanceof PeptideEntity || polymer.getPolymerID() instanceof RNAEntity || polymer.getPolymerID() instanceof ChemEntity)) {
+        return null;
+      }
+      try {
+        monomers = MethodsMonomerUtils.getListOfHandledMonomers(polymer.getPolymerElements().getListOfElements());
+      } catch (HELM2HandledException e) {
+        return null;
+      }
+      if (monomers.isEmpty() || (polymer.getPolymerID() instanceof ChemEntity && monomers.size() != 1)) {
+        return null;
+      }
+
+      List<Map<String, String>> rgroups = new ArrayList<Map<String, String>>();
+      for (Monomer monomer : monomers) {
+        if (monomer.isAdHocMonomer()) {
+          return null;
+        }
+        Contribution contribution = getMonomerContribution(monomerContributions, monomer);
+        if (contribution == null) {
+          return null;
+        }
+        sum.add(contribution);
+        Map<String, String> caps = new LinkedHashMap<String, String>();
+        for (Attachment attachment : monomer.getAttachmentList()) {
+          caps.put(attachment.getLabel(), attachment.getCapGroupSMILES());
+        }
+        rgroups.add(caps);
+      }
+
+      /* same connection logic as used for building the molecule */
+      int prev = 0;
+      for (int i = 1; i < monomers.size(); i++) {
+        String monomerType = monomers.get(i).getMonomerType();
+        if (Monomer.BACKBONE_MOMONER_TYPE.equals(monomerType)) {
+          if (!close(rgroups, prev, "R2") || !close(rgroups, i, "R1")) {
+            return null;
+          }
+          prev = i;
+        } else if (Monomer.BRANCH_MOMONER_TYPE.equals(monomerType)) {
+          if (!close(rgroups, prev, "R3") || !close(rgroups, i, "R1")) {
+            return null;
+          }
+        } else {
+          return null;
+        }
+      }
+      openRgroups.put(polymer.getPolymerID().getId(), rgroups);
+    }
+
+    /* inter polymer connections */
+    for (ConnectionNotation connection : HELM2NotationUtils.getAllEdgeConnections(helm2notation.getListOfConnections())) {
+      if (connection.getSourceId() instanceof GroupEntity || connection.getTargetId() instanceof GroupEntity) {
+        return null;
+      }
+      List<Map<String, String>> source = openRgroups.get(connection.getSourceId().getId());
+      List<Map<String, String>> target = openRgroups.get(connection.getTargetId().getId());
+      if (source == null || target == null) {
+        return null;
+      }
+      try {
+        if (!close(source, Integer.parseInt(connection.getSourceUnit()) - 1, connection.getrGroupSource())
+            || !close(target, Integer.parseInt(connection.getTargetUnit()) - 1, connection.getrGroupTarget())) {
+          return null;
+        }
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    /* cap groups of all unused rgroups */
+    for (List<Map<String, String>> rgroups : openRgroups.values()) {
+      for (Map<String, String> caps : rgroups) {
+        for (String capSmiles : caps.values()) {
+          if (capSmiles == null) {
+            return null;
+          }
+          sum.add(getCapContribution(capSmiles));
+        }
+      }
+    }
+
+    MoleculeProperty result = new MoleculeProperty();
+    if (properties.contains(Property.MOLECULAR_FORMULA)) {
+      result.setMolecularFormula(MoleculePropertyCalculator.generateMolecularFormula(sum.atoms));
+    }
+    if (properties.contains(Property.MOLECULAR_WEIGHT)) {
+      result.setMolecularWeight(sum.molecularWeight);
+    }
+    if (properties.contains(Property.EXACT_MASS)) {
+      result.setExactMass(sum.exactMass);
+    }
+    return result;
+  }
+
+  /**
+   * method to remove all stored contributions
+   */
+  public static void clear() {
+    synchronized (MONOMER_CONTRIBUTIONS) {
+      MONOMER_CONTRIBUTIONS.clear();
+    }
+    synchronized (CAP_CONTRIBUTIONS) {
+      CAP_CONTRIBUTIONS.clear();
+    }
+  }
+
+  /**
+   * method to mark an rgroup of a monomer as used
+   *
+   * @param rgroups unused rgroups of each monomer
+   * @param position position of the monomer
+   * @param label label of the rgroup
+   * @return true if the rgroup was unused, false otherwise
+   */
+  private static boolean close(List<Map<String, String>> rgroups, int position, String label) {
+    if (position < 0 || position >= rgroups.size() || !rgroups.get(position).containsKey(label)) {
+      return false;
+    }
+    rgroups.get(position).remove(label);
+    return true;
+  }
+
+  private static Map<Monomer, Contribution> getMonomerContributions(MonomerStore store) {
+    synchronized (MONOMER_CONTRIBUTIONS) {
+      Map<Monomer, Contribution> contributions = MONOMER_CONTRIBUTIONS.get(store);
+      if (contributions == null) {
+        contributions = new HashMap<Monomer, Contribution>();
+        MONOMER_CONTRIBUTIONS.put(store, contributions);
+      }
+      return contributions;
+    }
+  }
+
+  /**
+   * method to get the contribution of a monomer without its rgroups
+   *
+   * @return contribution of the monomer or null, if the number of rgroups of
+   *         the molecule does not fit to the attachments of the monomer
+   */
+  private static Contribution getMonomerContribution(Map<Monomer, Contribution> contributions, Monomer monomer) throws BuilderMoleculeException, CTKException, ChemistryException {
+    synchronized (MONOMER_CONTRIBUTIONS) {
+      if (contributions.containsKey(monomer)) {
+        return contributions.get(monomer);
+      }
+    }
+    AbstractMolecule molecule = BuilderMolecule.getMoleculeForMonomer(monomer);
+    Contribution contribution = null;
+    if (molecule != null) {
+      try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+        contribution = new Contribution(lease.getManipulator().getMoleculeInfo(molecule));
+      }
+      if (contribution.rgroups != monomer.getAttachmentList().size()) {
+        LOG.debug("Rgroups of monomer " + monomer.getAlternateId() + " do not fit to its attachments");
+        contribution = null;
+      }
+    }
+    synchronized (MONOMER_CONTRIBUTIONS) {
+      contributions.put(monomer, contribution);
+    }
+    return contribution;
+  }
+
+  /**
+   * method to get the contribution of a cap group without its rgroup
+   */
+  private static Contribution getCapContribution(String capSmiles) throws BuilderMoleculeException, CTKException, ChemistryException {
+    synchronized (CAP_CONTRIBUTIONS) {
+      Contribution contribution = CAP_CONTRIBUTIONS.get(capSmiles);
+      if (contribution != null) {
+        return contribution;
+      }
+    }
+    try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+      Contribution contribution = new Contribution(lease.getManipulator().getMoleculeInfo(MoleculeTemplateCache.getInstance().getMolecule(capSmiles, null)));
+      synchronized (CAP_CONTRIBUTIONS) {
+        CAP_CONTRIBUTIONS.put(capSmiles, contribution);
+      }
+      return contribution;
+    } catch (IOException e) {
+      throw new BuilderMoleculeException("Cap group can not be built " + e.getMessage());
+    }
+  }
+
+  /**
+   * Contribution of a monomer or cap group to the whole molecule; rgroups are
+   * not part of the contribution
+   */
+  private static final class Contribution {
+    private final Map<String, Integer> atoms;
+
+    private double molecularWeight;
+
+    private double exactMass;
+
+    private int rgroups;
+
+    private Contribution() {
+      atoms = new TreeMap<String, Integer>();
+    }
+
+    private Contribution(MoleculeInfo info) {
+      atoms = MoleculePropertyCalculator.generateAtomNumberMap(info.getMolecularFormula(), new TreeMap<String, Integer>());
+      Integer number = atoms.remove(RGROUP_SYMBOL);
+      rgroups = (number == null) ? 0 : number;
+      molecularWeight = info.getMolecularWeight();
+      exactMass = info.getExactMass();
+    }
+
+    private void add(Contribution contribution) {
+      for (Map.Entry<String, Integer> e : contribution.atoms.entrySet()) {
+        Integer number = atoms.get(e.getKey());
+        atoms.put(e.getKey(), (number == null) ? e.getValue() : number + e.getValue());
+      }
+      molecularWeight += contribution.molecularWeight;
+      exactMass += contribution.exactMass;
+    }
+  }
+}
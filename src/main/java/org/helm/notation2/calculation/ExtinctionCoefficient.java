@@ -27,13 +27,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
-import java.util.Set;
 
 import org.helm.chemtoolkit.CTKException;
 import org.helm.notation2.Monomer;
@@ -67,11 +64,21 @@ public final class ExtinctionCoefficient {
 
   public static final int PEPTIDE_UNIT_TYPE = 2;
 
-  private static Map<String, Float> monoNucleotideMap = new HashMap<String, Float>();
+  /* lookup tables are indexed by the single letter natural analog or amino acid */
+  private static final int ALPHABET = 128;
 
-  private static Map<String, Float> diNucleotideMap = new HashMap<String, Float>();
+  private static final int UNKNOWN = -1;
 
-  private static Map<String, Float> aminoAcidMap = new HashMap<String, Float>();
+  /* dense code for every nucleotide letter of the property file, UNKNOWN otherwise */
+  private static int[] nucleotideCodes = new int[ALPHABET];
+
+  private static float[] monoNucleotides = new float[0];
+
+  /* indexed by code of the first nucleotide * number of nucleotides + code of the second one, NaN if unknown */
+  private static float[] diNucleotides = new float[0];
+
+  /* NaN if the amino acid does not contribute */
+  private static float[] aminoAcids = new float[ALPHABET];
 
   private static String rnaPropertyFile = "/org/helm/notation2/resources/RNAExtinctionCoefficient.properties";
 
@@ -100,16 +107,34 @@ public final class ExtinctionCoefficient {
     Properties rp = new Properties();
     rp.load(ris);
 
+    Arrays.fill(nucleotideCodes, UNKNOWN);
+    int size = 0;
     Enumeration<?> re = rp.propertyNames();
     while (re.hasMoreElements()) {
       String key = (String) re.nextElement();
-      String value = rp.getProperty(key);
-      Float f = new Float(value);
-      int len = key.length();
-      if (len == 1) {
-        monoNucleotideMap.put(key, f);
-      } else if (len == 2) {
-        diNucleotideMap.put(key, f);
+      if (key.length() == 1 && key.charAt(0) < ALPHABET) {
+        nucleotideCodes[key.charAt(0)] = size++;
+      }
+    }
+    monoNucleotides = new float[size];
+    re = rp.propertyNames();
+    while (re.hasMoreElements()) {
+      String key = (String) re.nextElement();
+      if (key.length() == 1 && key.charAt(0) < ALPHABET) {
+        monoNucleotides[nucleotideCodes[key.charAt(0)]] = Float.parseFloat(rp.getProperty(key));
+      }
+    }
+    diNucleotides = new float[size * size];
+    Arrays.fill(diNucleotides, Float.NaN);
+    re = rp.propertyNames();
+    while (re.hasMoreElements()) {
+      String key = (String) re.nextElement();
+      if (key.length() == 2) {
+        int first = nucleotideCode(key.substring(0, 1));
+        int second = nucleotideCode(key.substring(1));
+        if (first != UNKNOWN && second != UNKNOWN) {
+          diNucleotides[first * size + second] = Float.parseFloat(rp.getProperty(key));
+        }
       }
     }
     ris.close();
@@ -118,17 +143,31 @@ public final class ExtinctionCoefficient {
     Properties pp = new Properties();
     pp.load(pis);
 
+    Arrays.fill(aminoAcids, Float.NaN);
     Enumeration<?> pe = pp.propertyNames();
     while (pe.hasMoreElements()) {
       String key = (String) pe.nextElement();
-      String value = pp.getProperty(key);
-
-      Float f = new Float(value);
-      aminoAcidMap.put(key, f);
+      if (key.length() == 1 && key.charAt(0) < ALPHABET) {
+        aminoAcids[key.charAt(0)] = Float.parseFloat(pp.getProperty(key));
+      }
     }
     pis.close();
   }
 
+  private static int nucleotideCode(String naturalAnalog) {
+    if (naturalAnalog == null || naturalAnalog.length() != 1 || naturalAnalog.charAt(0) >= ALPHABET) {
+      return UNKNOWN;
+    }
+    return nucleotideCodes[naturalAnalog.charAt(0)];
+  }
+
+  private static float aminoAcid(String id) {
+    if (id == null || id.length() != 1 || id.charAt(0) >= ALPHABET) {
+      return Float.NaN;
+    }
+    return aminoAcids[id.charAt(0)];
+  }
+
   public String getUnit(int unitType) {
     switch (unitType) {
     case RNA_UNIT_TYPE:
@@ -210,6 +249,35 @@ public final class ExtinctionCoefficient {
     return result;
   }
 
+  /**
+   * method to calculate the extinction coefficients of several HELM molecules
+   *
+   * @param helm2notations input HELM2Notations
+   * @return extinction coefficients in the order of the input
+   * @throws ExtinctionCoefficientException if a HELM contains HELM2 features
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public float[] calculate(List<HELM2Notation> helm2notations) throws ExtinctionCoefficientException, ChemistryException {
+    return calculate(helm2notations, getDefaultUnitType());
+  }
+
+  /**
+   * method to calculate the extinction coefficients of several HELM molecules
+   *
+   * @param helm2notations input HELM2Notations
+   * @param unitType Unit of the extinction coefficients
+   * @return extinction coefficients in the order of the input
+   * @throws ExtinctionCoefficientException if a HELM contains HELM2 features
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public float[] calculate(List<HELM2Notation> helm2notations, int unitType) throws ExtinctionCoefficientException, ChemistryException {
+    float[] result = new float[helm2notations.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = calculate(helm2notations.get(i), unitType);
+    }
+    return result;
+  }
+
   /**
    * method to calculate the extinction coefficient for rna
    *
@@ -222,34 +290,34 @@ public final class ExtinctionCoefficient {
     LOG.debug("ExtinctionCalculation of RNA");
     float resultSingle = 0.0f;
     float resultDi = 0.0f;
-    String previous = "";
+    int size = monoNucleotides.length;
     if (monomers.size() == 0) {
       throw new CalculationException("Input sequence cannot be null");
     } else {
       if (monomers.size() == 1) {
-        if (monoNucleotideMap.containsKey(monomers.get(0).getNaturalAnalog())) {
-          return monoNucleotideMap.get(monomers.get(0).getNaturalAnalog()).floatValue();
+        int code = nucleotideCode(monomers.get(0).getNaturalAnalog());
+        if (code != UNKNOWN) {
+          return monoNucleotides[code];
 
         } else {
           throw new CalculationException("Unknown nucleotide found");
         }
       }
+      int previous = UNKNOWN;
       for (int i = 0; i < monomers.size(); i++) {
-        if (i > 0 && i < monomers.size() - 1) {
-          if (monoNucleotideMap.containsKey(monomers.get(i).getNaturalAnalog())) {
-            Float value = monoNucleotideMap.get(monomers.get(i).getNaturalAnalog()).floatValue();
-            resultSingle += (value.floatValue() * 1.0);
-
+        int code = nucleotideCode(monomers.get(i).getNaturalAnalog());
+        if (code != UNKNOWN) {
+          if (i > 0 && i < monomers.size() - 1) {
+            resultSingle += (monoNucleotides[code] * 1.0);
           }
-        }
-        if (previous != "") {
-          if (diNucleotideMap.containsKey(previous + monomers.get(i).getNaturalAnalog())) {
-            Float value = diNucleotideMap.get(previous + monomers.get(i).getNaturalAnalog()).floatValue();
-            resultDi += (value.floatValue() * 1.0);
+          if (previous != UNKNOWN) {
+            float value = diNucleotides[previous * size + code];
+            if (!Float.isNaN(value)) {
+              resultDi += (value * 1.0);
+            }
           }
         }
-
-        previous = monomers.get(i).getNaturalAnalog();
+        previous = code;
       }
 
     }
@@ -272,24 +340,12 @@ public final class ExtinctionCoefficient {
       return 0.0f;
     }
 
-    Map<String, Integer> countMap = new HashMap<String, Integer>();
-    for (Monomer monomer : monomers) {
-      if (aminoAcidMap.containsKey(monomer.getAlternateId())) {
-        int count = 1;
-        if (countMap.containsKey(monomer.getAlternateId())) {
-          count = count + countMap.get(monomer.getAlternateId());
-        }
-        countMap.put(monomer.getAlternateId(), count);
-      }
-    }
-
     float result = 0.0f;
-    Set<String> keys = countMap.keySet();
-    for (Iterator<String> it = keys.iterator(); it.hasNext();) {
-      String key = it.next();
-      int count = countMap.get(key);
-      float factor = aminoAcidMap.get(key);
-      result = result + factor * count;
+    for (int i = 0; i < monomers.size(); i++) {
+      float factor = aminoAcid(monomers.get(i).getAlternateId());
+      if (!Float.isNaN(factor)) {
+        result = result + factor;
+      }
     }
 
     return BigDecimal.valueOf(result).floatValue();
@@ -23,6 +23,7 @@
  */
 package org.helm.notation2.calculation;
 
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -31,8 +32,10 @@ import java.util.TreeMap;
 
 import org.helm.chemtoolkit.AbstractMolecule;
 import org.helm.chemtoolkit.CTKException;
+import org.helm.chemtoolkit.MoleculeInfo;
 import org.helm.notation2.Chemistry;
 import org.helm.notation2.MoleculeProperty;
+import org.helm.notation2.MoleculeResultCache;
 import org.helm.notation2.exception.BuilderMoleculeException;
 import org.helm.notation2.exception.ChemistryException;
 import org.helm.notation2.exception.ExtinctionCoefficientException;
@@ -51,6 +54,10 @@ public final class MoleculePropertyCalculator {
   /** The Logger for this class */
   private static final Logger LOG = LoggerFactory.getLogger(MoleculePropertyCalculator.class);
 
+  private static final String ADDITIVE_KEY_PREFIX = "additive:";
+
+  private static volatile boolean additiveCalculation = false;
+
   /**
    * Default constructor.
    */
@@ -68,6 +75,30 @@ public final class MoleculePropertyCalculator {
     return BuilderMolecule.buildMoleculefromPolymers(helm2notation.getListOfPolymers(), HELM2NotationUtils.getAllEdgeConnections(helm2notation.getListOfConnections()));
   }
 
+  /**
+   * properties which can be calculated for a HELM molecule
+   */
+  public enum Property {
+    MOLECULAR_FORMULA, MOLECULAR_WEIGHT, EXACT_MASS, EXTINCTION_COEFFICIENT
+  }
+
+  /**
+   * method to enable the additive calculation: molecular formula, molecular
+   * weight and exact mass are calculated as the sum of the monomer
+   * contributions instead of building the whole molecule; HELM notations
+   * which can not be handled this way (e.g. inline smiles) are still built
+   * with the Chemistry Engine
+   *
+   * @param additive true, if the additive calculation should be used
+   */
+  public static void setAdditiveCalculation(boolean additive) {
+    additiveCalculation = additive;
+  }
+
+  public static boolean isAdditiveCalculation() {
+    return additiveCalculation;
+  }
+
   /**
    * method to get the molecular weight for the whole HELM
    *
@@ -78,94 +109,179 @@ public final class MoleculePropertyCalculator {
    * @throws ChemistryException if the Chemistry Engine can not be initialized
    */
   public static double getMolecularWeight(HELM2Notation helm2notation) throws BuilderMoleculeException, CTKException, ChemistryException {
-    /* First build one big molecule; List of molecules? */
-    List<AbstractMolecule> molecules = buildMolecule(helm2notation);
-    return calculateMolecularWeight(molecules);
+    return calculateProperties(helm2notation, EnumSet.of(Property.MOLECULAR_WEIGHT)).getMolecularWeight();
   }
 
   /**
-   * intern method to calculate the molecular weight for a list of molecules
+   * method to get the ExactMass for the whole HELM
    *
-   * @param molecules
-   * @return
-   * @throws BuilderMoleculeException
-   * @throws CTKException
+   * @param helm2notation input HELM2Notation
+   * @return ExactMass of the whole HELM
+   * @throws BuilderMoleculeException if the whole molecule can not be built
+   * @throws CTKException general ChemToolKit exception passed to HELMToolKit
    * @throws ChemistryException if the Chemistry Engine can not be initialized
    */
-  private static double calculateMolecularWeight(List<AbstractMolecule> molecules) throws BuilderMoleculeException, CTKException, ChemistryException {
-    Double result = 0.0;
-    for (AbstractMolecule molecule : molecules) {
-      molecule = BuilderMolecule.mergeRgroups(molecule);
-      result += Chemistry.getInstance().getManipulator().getMoleculeInfo(molecule).getMolecularWeight();
-    }
-    return result;
+  public static double getExactMass(HELM2Notation helm2notation) throws BuilderMoleculeException, CTKException, ChemistryException {
+    return calculateProperties(helm2notation, EnumSet.of(Property.EXACT_MASS)).getExactMass();
   }
 
   /**
-   * method to get the ExactMass for the whole HELM
+   * method to get the MolecularFormular for the whole HELM
    *
    * @param helm2notation input HELM2Notation
-   * @return ExactMass of the whole HELM
+   * @return MolecularFormular of the whole HELM
    * @throws BuilderMoleculeException if the whole molecule can not be built
    * @throws CTKException general ChemToolKit exception passed to HELMToolKit
    * @throws ChemistryException if the Chemistry Engine can not be initialized
    */
-  public static double getExactMass(HELM2Notation helm2notation) throws BuilderMoleculeException, CTKException, ChemistryException {
-    /* First build one big molecule; List of molecules */
-    List<AbstractMolecule> molecules = buildMolecule(helm2notation);
-    return calculateExactMass(molecules);
+  public static String getMolecularFormular(HELM2Notation helm2notation) throws BuilderMoleculeException, CTKException, ChemistryException {
+    return calculateProperties(helm2notation, EnumSet.of(Property.MOLECULAR_FORMULA)).getMolecularFormula();
   }
 
   /**
-   * intern method to calculate the exact mass for a list of molecules
+   * method to get all molecule properties for one HELM2Notation
    *
-   * @param molecules
-   * @return
-   * @throws CTKException
+   * @param helm2notation given HELM2 object
+   * @return List of molecule properties: molecular formula, molecular weight,
+   *         exact mass, extinction coefficient
+   * @throws BuilderMoleculeException if helm molecule can not be built
+   * @throws CTKException general ChemToolKit exception passed to HELMToolKit
+   * @throws ExtinctionCoefficientException if the extinction coefficient can not be calculated
    * @throws ChemistryException if the Chemistry Engine can not be initialized
- * @throws BuilderMoleculeException 
    */
-  private static double calculateExactMass(List<AbstractMolecule> molecules) throws CTKException, ChemistryException, BuilderMoleculeException {
-    Double result = 0.0;
-    for (AbstractMolecule molecule : molecules) {
-        molecule = BuilderMolecule.mergeRgroups(molecule);
-      result += Chemistry.getInstance().getManipulator().getMoleculeInfo(molecule).getExactMass();
+  public static MoleculeProperty getMoleculeProperties(HELM2Notation helm2notation) throws BuilderMoleculeException, CTKException, ExtinctionCoefficientException, ChemistryException {
+    return getMoleculeProperties(helm2notation, EnumSet.allOf(Property.class));
+  }
+
+  /**
+   * method to get the requested molecule properties for one HELM2Notation;
+   * the molecule is built once and the unused rgroups are merged only once
+   * for all requested properties
+   *
+   * @param helm2notation given HELM2 object
+   * @param properties properties to be calculated, all other properties of
+   *          the result are not set
+   * @return molecule properties
+   * @throws BuilderMoleculeException if helm molecule can not be built
+   * @throws CTKException general ChemToolKit exception passed to HELMToolKit
+   * @throws ExtinctionCoefficientException if the extinction coefficient can
+   *           not be calculated
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public static MoleculeProperty getMoleculeProperties(HELM2Notation helm2notation, Set<Property> properties) throws BuilderMoleculeException, CTKException, ExtinctionCoefficientException,
+      ChemistryException {
+    MoleculeProperty result;
+    if (properties.contains(Property.MOLECULAR_FORMULA) || properties.contains(Property.MOLECULAR_WEIGHT) || properties.contains(Property.EXACT_MASS)) {
+      result = calculateProperties(helm2notation, properties);
+    } else {
+      result = new MoleculeProperty();
+    }
+    /* add Extinction Coefficient calculation to it */
+    if (properties.contains(Property.EXTINCTION_COEFFICIENT)) {
+      result.setExtinctionCoefficient(ExtinctionCoefficient.getInstance().calculate(helm2notation));
     }
     return result;
   }
 
   /**
-   * method to get the MolecularFormular for the whole HELM
+   * intern method to calculate the molecular formula, molecular weight and
+   * exact mass for the whole HELM, either additive or by building the molecule;
+   * all three are calculated and cached in the {@link MoleculeResultCache}
    *
-   * @param helm2notation input HELM2Notation
-   * @return MolecularFormular of the whole HELM
-   * @throws BuilderMoleculeException if the whole molecule can not be built
-   * @throws CTKException general ChemToolKit exception passed to HELMToolKit
+   * @param helm2notation
+   * @param properties requested properties
+   * @return
+   * @throws BuilderMoleculeException
+   * @throws CTKException
    * @throws ChemistryException if the Chemistry Engine can not be initialized
    */
-  public static String getMolecularFormular(HELM2Notation helm2notation) throws BuilderMoleculeException, CTKException, ChemistryException {
-    /* First build HELM molecule */
-    List<AbstractMolecule> molecules = buildMolecule(helm2notation);
-    LOG.info("Build process is finished");
-    return calculateMolecularFormula(molecules);
+  private static MoleculeProperty calculateProperties(HELM2Notation helm2notation, Set<Property> properties) throws BuilderMoleculeException, CTKException, ChemistryException {
+    boolean additive = additiveCalculation;
+    String key = MoleculeResultCache.generateKey(helm2notation);
+    if (additive) {
+      /* additive results are cached apart from the ones of the built molecule */
+      key = ADDITIVE_KEY_PREFIX + key;
+    }
+    MoleculeProperty result = MoleculeResultCache.getInstance().getProperties(key);
+    if (result == null) {
+      Set<Property> cachedProperties = EnumSet.of(Property.MOLECULAR_FORMULA, Property.MOLECULAR_WEIGHT, Property.EXACT_MASS);
+      if (additive) {
+        result = AdditivePropertyCalculator.calculate(helm2notation, cachedProperties);
+        if (result == null) {
+          LOG.info("Additive calculation is not possible, the whole molecule is built");
+        }
+      }
+      if (result == null) {
+        /* First build HELM molecule */
+        List<AbstractMolecule> molecules = buildMolecule(helm2notation);
+        LOG.info("Build process is finished");
+        result = calculateProperties(molecules, cachedProperties);
+      }
+      MoleculeResultCache.getInstance().putProperties(key, result);
+    }
+
+    MoleculeProperty requested = new MoleculeProperty();
+    if (properties.contains(Property.MOLECULAR_FORMULA)) {
+      requested.setMolecularFormula(result.getMolecularFormula());
+    }
+    if (properties.contains(Property.MOLECULAR_WEIGHT)) {
+      requested.setMolecularWeight(result.getMolecularWeight());
+    }
+    if (properties.contains(Property.EXACT_MASS)) {
+      requested.setExactMass(result.getExactMass());
+    }
+    return requested;
   }
 
   /**
-   * intern method to calculate the molecular formular for a list of molecules
+   * intern method to calculate the molecular formula, molecular weight and
+   * exact mass for a list of molecules in one pass
    *
    * @param molecules
+   * @param properties requested properties
    * @return
    * @throws BuilderMoleculeException
    * @throws CTKException
    * @throws ChemistryException if the Chemistry Engine can not be initialized
    */
-  private static String calculateMolecularFormula(List<AbstractMolecule> molecules) throws BuilderMoleculeException, CTKException, ChemistryException {
+  private static MoleculeProperty calculateProperties(List<AbstractMolecule> molecules, Set<Property> properties) throws BuilderMoleculeException, CTKException, ChemistryException {
+    MoleculeProperty result = new MoleculeProperty();
     Map<String, Integer> atomNumberMap = new TreeMap<String, Integer>();
-    for (AbstractMolecule molecule : molecules) {
-      LOG.info(molecule.getMolecule().toString());
-      atomNumberMap = generateAtomNumberMap(molecule, atomNumberMap);
+    double molecularWeight = 0.0;
+    double exactMass = 0.0;
+    try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+      for (AbstractMolecule molecule : molecules) {
+        molecule = BuilderMolecule.mergeRgroups(molecule);
+        LOG.info("Merge group is finished");
+        MoleculeInfo info = lease.getManipulator().getMoleculeInfo(molecule);
+        molecularWeight += info.getMolecularWeight();
+        exactMass += info.getExactMass();
+        if (properties.contains(Property.MOLECULAR_FORMULA)) {
+          atomNumberMap = generateAtomNumberMap(info.getMolecularFormula(), atomNumberMap);
+        }
+      }
+    }
+
+    if (properties.contains(Property.MOLECULAR_FORMULA)) {
+      result.setMolecularFormula(generateMolecularFormula(atomNumberMap));
+    }
+    if (properties.contains(Property.MOLECULAR_WEIGHT)) {
+      result.setMolecularWeight(molecularWeight);
+    }
+    if (properties.contains(Property.EXACT_MASS)) {
+      result.setExactMass(exactMass);
     }
-    LOG.info("GET map");
+    return result;
+  }
+
+  /**
+   * intern method to generate the molecular formular out of the atom
+   * occurences
+   *
+   * @param atomNumberMap Map of atoms with the number of its occurences
+   * @return molecular formula
+   */
+  static String generateMolecularFormula(Map<String, Integer> atomNumberMap) {
     StringBuilder sb = new StringBuilder();
     Set<String> atoms = atomNumberMap.keySet();
     for (Iterator<String> i = atoms.iterator(); i.hasNext();) {
@@ -180,48 +296,14 @@ public final class MoleculePropertyCalculator {
     return sb.toString();
   }
 
-  /**
-   * method to get all molecule properties for one HELM2Notation
-   *
-   * @param helm2notation given HELM2 object
-   * @return List of molecule properties: molecular formula, molecular weight,
-   *         exact mass, extinction coefficient
-   * @throws BuilderMoleculeException if helm molecule can not be built
-   * @throws CTKException general ChemToolKit exception passed to HELMToolKit
-   * @throws ExtinctionCoefficientException if the extinction coefficient can not be calculated
-   * @throws ChemistryException if the Chemistry Engine can not be initialized
-   */
-  public static MoleculeProperty getMoleculeProperties(HELM2Notation helm2notation) throws BuilderMoleculeException, CTKException, ExtinctionCoefficientException, ChemistryException {
-    MoleculeProperty result = new MoleculeProperty();
-    /* First build HELM molecule */
-    List<AbstractMolecule> molecules = buildMolecule(helm2notation);
-    /* calculate molecular formula */
-    result.setMolecularFormula(calculateMolecularFormula(molecules));
-    /* calculate molecular weight */
-    result.setMolecularWeight(calculateMolecularWeight(molecules));
-    /* calculate exact mass */
-    result.setExactMass(calculateExactMass(molecules));
-    /* add Extinction Coefficient calculation to it */
-    result.setExtinctionCoefficient(ExtinctionCoefficient.getInstance().calculate(helm2notation));
-
-    return result;
-  }
-
   /**
    * method to get for every atom the number of occurences
    *
-   * @param molecule input Molecule
+   * @param formula molecular formula of one molecule
    * @param mapAtoms Map of atoms with the number its occurences
    * @return Map of atoms with the number of its occurences
-   * @throws BuilderMoleculeException if the Rgroups of the molecule can not be
-   *           merged into it
-   * @throws CTKException
-   * @throws ChemistryException if the Chemistry Engine can not be initialized
    */
-  private static Map<String, Integer> generateAtomNumberMap(AbstractMolecule molecule, Map<String, Integer> mapAtoms) throws BuilderMoleculeException, CTKException, ChemistryException {
-    molecule = BuilderMolecule.mergeRgroups(molecule);
-    LOG.info("Merge group is finished");
-    String formula = Chemistry.getInstance().getManipulator().getMoleculeInfo(molecule).getMolecularFormula();
+  static Map<String, Integer> generateAtomNumberMap(String formula, Map<String, Integer> mapAtoms) {
     String atom = "";
     String number = "";
 
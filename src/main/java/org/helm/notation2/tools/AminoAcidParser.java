@@ -25,10 +25,8 @@ package org.helm.notation2.tools;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.StringTokenizer;
 
 import org.helm.chemtoolkit.CTKException;
@@ -49,6 +47,8 @@ public class AminoAcidParser {
 
   public static final String[] SEQUENCE_DELIMETERS = {".", ":", ",", ";"};
 
+  private static volatile SymbolTrie peptideTrie;
+
   /**
    * This method converts peptide sequence into a List of amino acid
    *
@@ -69,24 +69,21 @@ public class AminoAcidParser {
     String cleanSeq = cleanup(peptideSequence);
 
     Map<String, Monomer> peptideMap = MonomerFactory.getInstance().getMonomerDB().get(Monomer.PEPTIDE_POLYMER_TYPE);
-    Set<String> keySet = peptideMap.keySet();
+    SymbolTrie trie = peptideTrie;
+    if (trie == null || !trie.isBuiltFrom(peptideMap)) {
+      trie = new SymbolTrie(peptideMap);
+      peptideTrie = trie;
+    }
 
-    // walk the sequence
+    // walk the sequence, taking the longest matching monomer ID
     List<String> l = new ArrayList<String>();
     int pos = 0;
     while (pos < cleanSeq.length()) {
-      boolean found = false;
-      for (Iterator i = keySet.iterator(); i.hasNext();) {
-        String symbol = (String) i.next();
-
-        if (cleanSeq.startsWith(symbol, pos)) {
-          found = true;
-          l.add(symbol);
-          pos = pos + symbol.length();
-          break;
-        }
-      }
-      if (!found) {
+      int length = trie.match(cleanSeq, pos);
+      if (length > 0) {
+        l.add(cleanSeq.substring(pos, pos + length));
+        pos = pos + length;
+      } else {
         throw new NotationException(
             "Sequence contains unknown amino acid starting at "
                 + cleanSeq.substring(pos));
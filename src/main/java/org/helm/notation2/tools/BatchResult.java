@@ -0,0 +1,86 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2.tools;
+
+/**
+ * BatchResult, result of one input of a batch call: either the calculated
+ * value or the exception which was thrown for this input
+ */
+public final class BatchResult<T> {
+
+  private final String input;
+
+  private final T result;
+
+  private final Exception error;
+
+  private BatchResult(String input, T result, Exception error) {
+    this.input = input;
+    this.result = result;
+    this.error = error;
+  }
+
+  /**
+   * method to generate a successful result
+   *
+   * @param input given input
+   * @param result calculated value
+   * @return BatchResult
+   */
+  public static <T> BatchResult<T> success(String input, T result) {
+    return new BatchResult<T>(input, result, null);
+  }
+
+  /**
+   * method to generate a failed result
+   *
+   * @param input given input
+   * @param error exception thrown for the input
+   * @return BatchResult
+   */
+  public static <T> BatchResult<T> failure(String input, Exception error) {
+    return new BatchResult<T>(input, null, error);
+  }
+
+  public String getInput() {
+    return input;
+  }
+
+  public T getResult() {
+    return result;
+  }
+
+  public Exception getError() {
+    return error;
+  }
+
+  public boolean isSuccessful() {
+    return error == null;
+  }
+
+  @Override
+  public String toString() {
+    return isSuccessful() ? String.valueOf(result) : error.getClass().getSimpleName() + ": " + error.getMessage();
+  }
+}
@@ -28,20 +28,27 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.helm.chemtoolkit.AbstractChemistryManipulator.StType;
 import org.helm.chemtoolkit.AbstractMolecule;
-import org.helm.chemtoolkit.AttachmentList;
 
 import org.helm.chemtoolkit.CTKException;
 import org.helm.chemtoolkit.IAtomBase;
-import org.helm.notation2.Attachment;
 import org.helm.notation2.Chemistry;
+import org.helm.notation2.MoleculeTemplateCache;
 import org.helm.notation2.Monomer;
 import org.helm.notation2.RgroupStructure;
 import org.helm.notation2.exception.BuilderMoleculeException;
 import org.helm.notation2.exception.ChemistryException;
 import org.helm.notation2.exception.HELM2HandledException;
+import org.helm.notation2.parser.notation.HELM2Notation;
 import org.helm.notation2.parser.notation.connection.ConnectionNotation;
 import org.helm.notation2.parser.notation.polymer.BlobEntity;
 import org.helm.notation2.parser.notation.polymer.ChemEntity;
@@ -64,6 +71,10 @@ public final class BuilderMolecule {
   /** The Logger for this class */
   private static final Logger LOG = LoggerFactory.getLogger(BuilderMolecule.class);
 
+  private static int polymerBuildThreads = 1;
+
+  private static ExecutorService polymerBuildExecutor;
+
   /**
    * Default constructor.
    */
@@ -100,6 +111,108 @@ public final class BuilderMolecule {
     }
   }
 
+  /**
+   * method to set the number of threads used to build the single polymers of
+   * a HELMNotation concurrently, a value of 1 (default) builds them serially
+   *
+   * @param threads number of threads
+   */
+  public static synchronized void setPolymerBuildThreads(final int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Number of polymer build threads has to be at least 1");
+    }
+    if (threads != polymerBuildThreads && polymerBuildExecutor != null) {
+      polymerBuildExecutor.shutdown();
+      polymerBuildExecutor = null;
+    }
+    polymerBuildThreads = threads;
+  }
+
+  /**
+   * method to get the number of threads used to build the single polymers
+   *
+   * @return number of threads
+   */
+  public static synchronized int getPolymerBuildThreads() {
+    return polymerBuildThreads;
+  }
+
+  /**
+   * method to get the executor for concurrent polymer builds
+   *
+   * @return executor or null if the polymers are built serially
+   */
+  private static synchronized ExecutorService getPolymerBuildExecutor() {
+    if (polymerBuildThreads > 1 && polymerBuildExecutor == null) {
+      polymerBuildExecutor = Executors.newFixedThreadPool(polymerBuildThreads, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "polymer-builder-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return polymerBuildExecutor;
+  }
+
+  /**
+   * method to build the single molecules for all polymers, concurrently if
+   * more than one polymer build thread is configured
+   *
+   * @param polymers all polymers of the HELMNotation
+   * @return molecules of the polymers in the same order
+   * @throws BuilderMoleculeException if a polymer can not be built
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  private static RgroupStructure[] buildSinglePolymers(final List<PolymerNotation> polymers) throws BuilderMoleculeException, ChemistryException {
+    RgroupStructure[] fragments = new RgroupStructure[polymers.size()];
+    ExecutorService executor = polymers.size() > 1 ? getPolymerBuildExecutor() : null;
+    if (executor == null) {
+      for (int i = 0; i < fragments.length; i++) {
+        try {
+          fragments[i] = buildMoleculefromSinglePolymer(polymers.get(i));
+        } catch (HELM2HandledException e) {
+          throw new BuilderMoleculeException(e.getMessage());
+        }
+      }
+      return fragments;
+    }
+
+    List<Future<RgroupStructure>> futures = new ArrayList<Future<RgroupStructure>>();
+    for (final PolymerNotation polymer : polymers) {
+      futures.add(executor.submit(new Callable<RgroupStructure>() {
+        @Override
+        public RgroupStructure call() throws Exception {
+          return buildMoleculefromSinglePolymer(polymer);
+        }
+      }));
+    }
+    try {
+      for (int i = 0; i < fragments.length; i++) {
+        fragments[i] = futures.get(i).get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BuilderMoleculeException("Building of the polymers was interrupted");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof BuilderMoleculeException) {
+        throw (BuilderMoleculeException) cause;
+      } else if (cause instanceof ChemistryException) {
+        throw (ChemistryException) cause;
+      }
+      throw new BuilderMoleculeException(cause.getMessage());
+    } finally {
+      for (Future<RgroupStructure> future : futures) {
+        future.cancel(true);
+      }
+    }
+    return fragments;
+  }
+
   /**
    * method to build molecules for the whole HELMNotation
    *
@@ -113,140 +226,189 @@ public final class BuilderMolecule {
       final List<ConnectionNotation> connections) throws BuilderMoleculeException, ChemistryException {
 
     LOG.info("Building process for the all polymers is starting");
-    Map<String, PolymerNotation> map = new HashMap<String, PolymerNotation>();
-
-    Map<String, RgroupStructure> mapMolecules = new HashMap<String, RgroupStructure>();
-    Map<String, String> mapConnections = new HashMap<String, String>();
-    Map<String, Map<String, IAtomBase>> mapIAtomBase = new HashMap<String, Map<String, IAtomBase>>();
-
-    List<AbstractMolecule> listMolecules = new ArrayList<AbstractMolecule>();
-    RgroupStructure current = new RgroupStructure();
+    Map<String, Integer> polymerIndex = new HashMap<String, Integer>();
+    for (PolymerNotation polymer : polymers) {
+      polymerIndex.put(polymer.getPolymerID().getId(), polymerIndex.size());
+    }
 
-    AbstractMolecule molecule = null;
     /* Build for every single polymer a single molecule */
     LOG.info("Build for each polymer a single molecule");
-    for (PolymerNotation polymer : polymers) {
-      map.put(polymer.getPolymerID().getId(), polymer);
-      try {
-
-        current = buildMoleculefromSinglePolymer(polymer);
-        mapMolecules.put(polymer.getPolymerID().getId(), current);
-        mapIAtomBase.put(polymer.getPolymerID().getId(), current.getMolecule().getRgroups());
-      } catch (HELM2HandledException | CTKException e) {
-        throw new BuilderMoleculeException(e.getMessage());
-      }
-    }
+    RgroupStructure[] fragments = buildSinglePolymers(polymers);
 
     /* Build interconnections between single molecules */
     LOG.info("Connect the single molecules together");
-    for (ConnectionNotation connection : connections) {
-      LOG.info("Connection: " + connection.toString());
-      /* Group Id -> throw exception */
-      if (connection.getSourceId() instanceof GroupEntity || connection.getTargetId() instanceof GroupEntity) {
-        LOG.error("Molecule can't be build for group connection");
-        throw new BuilderMoleculeException("Molecule can't be build for group connection");
-      }
-      /* Get the source molecule + target molecule */
-      String idFirst = connection.getSourceId().getId();
-      String idSecond = connection.getTargetId().getId();
-      if (mapMolecules.get(idFirst) == null) {
-        idFirst = mapConnections.get(idFirst);
-      }
-      if (mapMolecules.get(idSecond) == null) {
-        idSecond = mapConnections.get(idSecond);
-      }
+    FragmentTracker tracker = new FragmentTracker(fragments.length);
+    try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+      for (ConnectionNotation connection : connections) {
+        LOG.info("Connection: " + connection.toString());
+        /* Group Id -> throw exception */
+        if (connection.getSourceId() instanceof GroupEntity || connection.getTargetId() instanceof GroupEntity) {
+          LOG.error("Molecule can't be build for group connection");
+          throw new BuilderMoleculeException("Molecule can't be build for group connection");
+        }
+        /* Get the fragments containing the source + target molecule */
+        Integer sourcePolymer = polymerIndex.get(connection.getSourceId().getId());
+        Integer targetPolymer = polymerIndex.get(connection.getTargetId().getId());
+        if (sourcePolymer == null || targetPolymer == null) {
+          throw new BuilderMoleculeException("Connection refers to an unknown polymer");
+        }
+        int idFirst = tracker.find(sourcePolymer);
+        int idSecond = tracker.find(targetPolymer);
+        RgroupStructure one = fragments[idFirst];
+        RgroupStructure two = fragments[idSecond];
+
+        /*
+         * connection details: have to be an integer value + specific
+         * MonomerNotationUnit
+         */
+        int source;
+        int target;
+        try {
+          source = Integer.parseInt(connection.getSourceUnit());
+          target = Integer.parseInt(connection.getTargetUnit());
+        } catch (NumberFormatException e) {
+          throw new BuilderMoleculeException("Connection has to be unambiguous");
+        }
 
-      RgroupStructure one = mapMolecules.get(idFirst);
-      RgroupStructure two = mapMolecules.get(idSecond);
-      mapMolecules.remove(idFirst);
-      mapMolecules.remove(idSecond);
+        /* R group of connection is unknown */
+        if (connection.getrGroupSource().equals("?") || connection.getrGroupTarget().equals("?")) {
+          throw new BuilderMoleculeException("Connection's R groups have to be known");
+        }
 
-      /*
-       * connection details: have to be an integer value + specific
-       * MonomerNotationUnit
-       */
-      int source;
-      int target;
-      try {
-        source = Integer.parseInt(connection.getSourceUnit());
-        target = Integer.parseInt(connection.getTargetUnit());
-      } catch (NumberFormatException e) {
-        throw new BuilderMoleculeException("Connection has to be unambiguous");
+        String rgroupOne = connection.getSourceId().getId() + ":" + source + ":" + connection.getrGroupSource();
+        String rgroupTwo = connection.getTargetId().getId() + ":" + target + ":" + connection.getrGroupTarget();
+        /* Self cycle */
+        if (idFirst == idSecond) {
+          try {
+            LOG.debug("Self-cycle connection: " + connection.toString());
+            lease.getManipulator().merge(one.getMolecule(), one.getRgroupMap().get(rgroupOne), one.getMolecule(), one.getRgroupMap().get(rgroupTwo));
+            one.getRgroupMap().remove(rgroupOne);
+            one.getRgroupMap().remove(rgroupTwo);
+          } catch (CTKException e) {
+            throw new BuilderMoleculeException(e.getMessage());
+          }
+        } else {
+          try {
+            LOG.info("MERGE");
+            AbstractMolecule molecule =
+                lease.getManipulator().merge(one.getMolecule(), one.getRgroupMap().get(rgroupOne), two.getMolecule(), two.getRgroupMap().get(rgroupTwo));
+            LOG.info("Merge completed");
+            one.getRgroupMap().remove(rgroupOne);
+            two.getRgroupMap().remove(rgroupTwo);
+
+            /* the unused R groups of the smaller fragment move to the larger one */
+            Map<String, IAtomBase> rgroupMap = one.getRgroupMap();
+            Map<String, IAtomBase> otherRgroupMap = two.getRgroupMap();
+            if (rgroupMap.size() < otherRgroupMap.size()) {
+              rgroupMap = two.getRgroupMap();
+              otherRgroupMap = one.getRgroupMap();
+            }
+            rgroupMap.putAll(otherRgroupMap);
+
+            RgroupStructure actual = new RgroupStructure();
+            actual.setMolecule(molecule);
+            actual.setRgroupMap(rgroupMap);
+            int root = tracker.union(idFirst, idSecond);
+            fragments[idFirst] = null;
+            fragments[idSecond] = null;
+            fragments[root] = actual;
+          } catch (CTKException e) {
+            throw new BuilderMoleculeException(e.getMessage());
+          }
+        }
       }
+    }
 
-      /* if the */
-      // if
-      // (!((MethodsForContainerHELM2.isMonomerSpecific(map.get(connection.getSourceId().getID()),
-      // source)
-      // &&
-      // MethodsForContainerHELM2.isMonomerSpecific(map.get(connection.getTargetId().getID()),
-      // target)))) {
-      // throw new BuilderMoleculeException("Connection has to be
-      // unambiguous");
-      // }
-
-      /* R group of connection is unknown */
-      if (connection.getrGroupSource().equals("?") || connection.getrGroupTarget().equals("?")) {
-        throw new BuilderMoleculeException("Connection's R groups have to be known");
+    /* one molecule per fragment, in the order of the first polymer of each fragment */
+    List<AbstractMolecule> listMolecules = new ArrayList<AbstractMolecule>();
+    for (int i = 0; i < fragments.length; i++) {
+      int root = tracker.find(i);
+      if (fragments[root] != null) {
+        listMolecules.add(fragments[root].getMolecule());
+        fragments[root] = null;
       }
+    }
 
-      String rgroupOne = connection.getrGroupSource();
-      String rgroupTwo = connection.getrGroupTarget();
-      /* Self cycle */
-      if (idFirst.equals(idSecond)) {
-        try {
-          LOG.debug("Self-cycle connection: " + connection.toString());
-          molecule =
-              Chemistry.getInstance().getManipulator().merge(one.getMolecule(), one.getRgroupMap().get(connection.getSourceId().getId() + ":" + source + ":"
-                  + rgroupOne), one.getMolecule(), one.getRgroupMap().get(connection.getTargetId().getId() + ":"
-                      + target + ":"
-                      + rgroupTwo));
-          one.getRgroupMap().remove(connection.getSourceId().getId() + ":" + source + ":" + rgroupOne);
-          one.getRgroupMap().remove(connection.getSourceId().getId() + ":" + source + ":" + rgroupTwo);
-          mapMolecules.put(idFirst, one);
-        } catch (CTKException e) {
-          throw new BuilderMoleculeException(e.getMessage());
-        }
+    return listMolecules;
+  }
+
+  /**
+   * method to build one molecule for the whole HELMNotation: all unused
+   * rgroups are merged, disconnected molecules are combined into one molecule
+   * and 2D coordinates are generated, so that the molecule can be written or
+   * rendered without a round trip over smiles
+   *
+   * @param helm2notation input HELMNotation
+   * @return molecule of the whole HELMNotation
+   * @throws BuilderMoleculeException if the molecule can not be built
+   * @throws CTKException if the coordinates can not be generated
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public static AbstractMolecule buildMoleculeForAll(final HELM2Notation helm2notation) throws BuilderMoleculeException, CTKException, ChemistryException {
+    List<AbstractMolecule> molecules = buildMoleculefromPolymers(helm2notation.getListOfPolymers(),
+        HELM2NotationUtils.getAllEdgeConnections(helm2notation.getListOfConnections()));
+    AbstractMolecule result = null;
+    for (AbstractMolecule molecule : molecules) {
+      molecule = mergeRgroups(molecule);
+      if (result == null) {
+        result = molecule;
       } else {
-        try {
-          LOG.info("MERGE");
-          molecule =
-              Chemistry.getInstance().getManipulator().merge(one.getMolecule(), one.getRgroupMap().get(connection.getSourceId().getId() + ":" + source + ":"
-                  + rgroupOne), two.getMolecule(), two.getRgroupMap().get(connection.getTargetId().getId() + ":"
-                      + target + ":"
-                      + rgroupTwo));
-          LOG.info("Merge completed");
-          RgroupStructure actual = new RgroupStructure();
-          actual.setMolecule(molecule);
-          Map<String, IAtomBase> rgroupMap = new HashMap<String, IAtomBase>();
-          one.getRgroupMap().remove(connection.getSourceId().getId() + ":" + source + ":" + rgroupOne);
-          two.getRgroupMap().remove(connection.getTargetId().getId() + ":" + target + ":" + rgroupTwo);
-          rgroupMap.putAll(one.getRgroupMap());
-          rgroupMap.putAll(two.getRgroupMap());
-          actual.setRgroupMap(rgroupMap);
-          mapMolecules.put(idFirst + idSecond, actual);
-        } catch (CTKException e) {
-          throw new BuilderMoleculeException(e.getMessage());
-        }
-        mapConnections.put(connection.getSourceId().getId(), idFirst + idSecond);
-        mapConnections.put(connection.getTargetId().getId(), idFirst + idSecond);
+        result.addIBase(molecule);
+      }
+    }
+    if (result == null) {
+      throw new BuilderMoleculeException("HELM molecule has no contents");
+    }
+    result.generateCoordinates(0);
+    return result;
+  }
 
-        /* HashMap refresh */
-        for (Map.Entry e : mapConnections.entrySet()) {
-          if (e.getValue().equals(idFirst) || e.getValue().equals(idSecond)) {
-            mapConnections.put((String) e.getKey(), idFirst + idSecond);
-          }
-        }
+  /**
+   * FragmentTracker, union-find structure over the polymer positions which
+   * tracks the fragment each polymer belongs to
+   */
+  private static final class FragmentTracker {
+    private final int[] parent;
 
-      }
+    private final int[] size;
 
+    private FragmentTracker(int count) {
+      parent = new int[count];
+      size = new int[count];
+      for (int i = 0; i < count; i++) {
+        parent[i] = i;
+        size[i] = 1;
+      }
     }
 
-    for (Map.Entry<String, RgroupStructure> e : mapMolecules.entrySet()) {
-      listMolecules.add(e.getValue().getMolecule());
+    private int find(int element) {
+      int root = element;
+      while (parent[root] != root) {
+        root = parent[root];
+      }
+      while (parent[element] != root) {
+        int next = parent[element];
+        parent[element] = root;
+        element = next;
+      }
+      return root;
     }
 
-    return listMolecules;
+    /**
+     * unites the fragments of the given roots
+     *
+     * @return root of the united fragment
+     */
+    private int union(int first, int second) {
+      if (size[first] < size[second]) {
+        int tmp = first;
+        first = second;
+        second = tmp;
+      }
+      parent[second] = first;
+      size[first] += size[second];
+      return first;
+    }
   }
 
   /**
@@ -268,13 +430,7 @@ public final class BuilderMolecule {
         if (input != null) {
           /* Build monomer + Rgroup information! */
 
-          List<Attachment> listAttachments = monomer.getAttachmentList();
-          AttachmentList list = new AttachmentList();
-
-          for (Attachment attachment : listAttachments) {
-            list.add(new org.helm.chemtoolkit.Attachment(attachment.getAlternateId(), attachment.getLabel(), attachment.getCapGroupName(), attachment.getCapGroupSMILES()));
-          }
-          AbstractMolecule molecule = Chemistry.getInstance().getManipulator().getMolecule(input, list);
+          AbstractMolecule molecule = MoleculeTemplateCache.getInstance().getMolecule(input, monomer.getAttachmentList());
           RgroupStructure result = new RgroupStructure();
           result.setMolecule(molecule);
           result.setRgroupMap(generateRgroupMap(id + ":" + "1", molecule));
@@ -323,81 +479,65 @@ public final class BuilderMolecule {
    * @throws ChemistryException if the Chemistry Engine can not be initialized
    */
   private static RgroupStructure buildMoleculefromPeptideOrRNA(final String id, final List<Monomer> validMonomers) throws BuilderMoleculeException, ChemistryException {
-    try {
-      String input = null;
-      AbstractMolecule currentMolecule = null;
-      input = getInput(validMonomers.get(0));
-      AbstractMolecule prevMolecule =
-          Chemistry.getInstance().getManipulator().getMolecule(input, generateAttachmentList(validMonomers.get(0).getAttachmentList()));
-      AbstractMolecule firstMolecule = null;
-      Monomer prevMonomer = null;
+    if (validMonomers == null || validMonomers.size() == 0) {
+      LOG.error("Polymer (Peptide/RNA) has no contents");
+      throw new BuilderMoleculeException("Polymer (Peptide/RNA) has no contents");
+    }
+    try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+      /*
+       * unused Rgroups of every monomer, indexed by monomer position and
+       * Rgroup label; updated in place while the chain grows
+       */
+      List<Map<String, IAtomBase>> openRgroups = new ArrayList<Map<String, IAtomBase>>(validMonomers.size());
+      AbstractMolecule molecule = null;
+      int prev = 0;
 
-      RgroupStructure first = new RgroupStructure();
-      RgroupStructure current = new RgroupStructure();
+      for (int i = 0; i < validMonomers.size(); i++) {
+        Monomer currentMonomer = validMonomers.get(i);
+        LOG.debug("Monomer " + currentMonomer.getAlternateId());
+        String input = getInput(currentMonomer);
+        AbstractMolecule currentMolecule = MoleculeTemplateCache.getInstance().getMolecule(input, currentMonomer.getAttachmentList());
+        Map<String, IAtomBase> currentRgroups = new HashMap<String, IAtomBase>(currentMolecule.getRgroups());
+        openRgroups.add(currentRgroups);
+
+        /* first Monomer! */
+        if (molecule == null) {
+          molecule = currentMolecule;
+          continue;
+        }
+
+        String prevRgroup;
+        /* Backbone Connection */
+        if (currentMonomer.getMonomerType().equals(Monomer.BACKBONE_MOMONER_TYPE)) {
+          prevRgroup = "R2";
+        } /* Backbone to Branch Connection */ else if (currentMonomer.getMonomerType().equals(Monomer.BRANCH_MOMONER_TYPE)) {
+          prevRgroup = "R3";
+        } /* Unknown connection */ else {
+          LOG.error("Intra connection is unknown");
+          throw new BuilderMoleculeException("Intra connection is unknown");
+        }
 
-      int prev = 1;
+        Map<String, IAtomBase> prevRgroups = openRgroups.get(prev);
+        molecule = lease.getManipulator().merge(molecule, prevRgroups.get(prevRgroup), currentMolecule, currentRgroups.get("R1"));
+        prevRgroups.remove(prevRgroup);
+        currentRgroups.remove("R1");
 
-      if (validMonomers.size() == 0 || validMonomers == null) {
-        LOG.error("Polymer (Peptide/RNA) has no contents");
-        throw new BuilderMoleculeException("Polymer (Peptide/RNA) has no contents");
-      }
-      int i = 0;
-      /* First catch all IAtomBases */
-      for (Monomer currentMonomer : validMonomers) {
-        LOG.debug("Monomer " + currentMonomer.getAlternateId());
-        i++;
-        if (prevMonomer != null) {
-          input = getInput(currentMonomer);
-          currentMolecule = Chemistry.getInstance().getManipulator().getMolecule(input, generateAttachmentList(currentMonomer.getAttachmentList()));
-
-          current.setMolecule(currentMolecule);
-          current.setRgroupMap(generateRgroupMap(id + ":" + String.valueOf(i), currentMolecule));
-          /* Backbone Connection */
-          if (currentMonomer.getMonomerType().equals(Monomer.BACKBONE_MOMONER_TYPE)) {
-
-            prevMolecule = Chemistry.getInstance().getManipulator().merge(first.getMolecule(), first.getRgroupMap().get(id + ":" + prev
-                + ":R2"), current.getMolecule(), current.getRgroupMap().get(id
-                    + ":" + i
-                    + ":R1"));
-
-            first.getRgroupMap().remove(id + ":" + prev + ":R2");
-            current.getRgroupMap().remove(id + ":" + i + ":R1");
-
-            first.setMolecule(prevMolecule);
-            Map<String, IAtomBase> map = new HashMap<String, IAtomBase>();
-            map.putAll(first.getRgroupMap());
-            map.putAll(current.getRgroupMap());
-            first.setRgroupMap(map);
-            prev = i;
-
-          } /* Backbone to Branch Connection */ else if (currentMonomer.getMonomerType().equals(Monomer.BRANCH_MOMONER_TYPE)) {
-            prevMolecule = Chemistry.getInstance().getManipulator().merge(first.getMolecule(), first.getRgroupMap().get(id + ":" + prev
-                + ":R3"), current.getMolecule(), current.getRgroupMap().get(id
-                    + ":"
-                    + i + ":R1"));
-            first.getRgroupMap().remove(id + ":" + prev + ":R3");
-            current.getRgroupMap().remove(id + ":" + i + ":R1");
-            first.setMolecule(prevMolecule);
-            Map<String, IAtomBase> map = new HashMap<String, IAtomBase>();
-            map.putAll(first.getRgroupMap());
-            map.putAll(current.getRgroupMap());
-            first.setRgroupMap(map);
-          } /* Unknown connection */ else {
-            LOG.error("Intra connection is unknown");
-            throw new BuilderMoleculeException("Intra connection is unknown");
-          }
-        } /* first Monomer! */ else {
-          prevMonomer = currentMonomer;
-          input = getInput(prevMonomer);
-          prevMolecule =
-              Chemistry.getInstance().getManipulator().getMolecule(input, generateAttachmentList(prevMonomer.getAttachmentList()));
-          firstMolecule = prevMolecule;
-          first.setMolecule(firstMolecule);
-          first.setRgroupMap(generateRgroupMap(id + ":" + String.valueOf(i), firstMolecule));
+        if (prevRgroup.equals("R2")) {
+          prev = i;
         }
+      }
 
+      Map<String, IAtomBase> rgroupMap = new HashMap<String, IAtomBase>();
+      for (int i = 0; i < openRgroups.size(); i++) {
+        for (Map.Entry<String, IAtomBase> e : openRgroups.get(i).entrySet()) {
+          rgroupMap.put(id + ":" + (i + 1) + ":" + e.getKey(), e.getValue());
+        }
       }
-      LOG.debug(first.getRgroupMap().keySet().toString());
+      LOG.debug(rgroupMap.keySet().toString());
+
+      RgroupStructure first = new RgroupStructure();
+      first.setMolecule(molecule);
+      first.setRgroupMap(rgroupMap);
       return first;
     } catch (IOException | CTKException e) {
       LOG.error("Polymer(Peptide/RNA) molecule can't be built " + e.getMessage());
@@ -405,21 +545,6 @@ public final class BuilderMolecule {
     }
   }
 
-  /**
-   * method to generate the AttachmentList given a list of attachments
-   *
-   * @param listAttachments input list of Attachments
-   * @return AttachmentList generated AttachmentList
-   */
-  private static AttachmentList generateAttachmentList(final List<Attachment> listAttachments) {
-    AttachmentList list = new AttachmentList();
-
-    for (Attachment attachment : listAttachments) {
-      list.add(new org.helm.chemtoolkit.Attachment(attachment.getAlternateId(), attachment.getLabel(), attachment.getCapGroupName(), attachment.getCapGroupSMILES()));
-    }
-    return list;
-  }
-
   /**
    * method to merge all unused rgroups into a molecule
    *
@@ -429,15 +554,15 @@ public final class BuilderMolecule {
    * @throws ChemistryException if the Chemistry Engine ca not be initialized
    */
   public static AbstractMolecule mergeRgroups(AbstractMolecule molecule) throws BuilderMoleculeException, ChemistryException {
-    try {
+    try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
       boolean flag = true;
       // while (flag) {
       // if (molecule.getAttachments().size() > 0) {
       for (int i = molecule.getAttachments().size() - 1; i > -1; i--) {
         org.helm.chemtoolkit.Attachment attachment = molecule.getAttachments().get(i);
         int groupId = AbstractMolecule.getIdFromLabel(attachment.getLabel());
-        AbstractMolecule rMol = Chemistry.getInstance().getManipulator().getMolecule(attachment.getSmiles(), null);
-        molecule = Chemistry.getInstance().getManipulator().merge(molecule, molecule.getRGroupAtom(groupId, true), rMol, rMol.getRGroupAtom(groupId, true));
+        AbstractMolecule rMol = MoleculeTemplateCache.getInstance().getMolecule(attachment.getSmiles(), null);
+        molecule = lease.getManipulator().merge(molecule, molecule.getRGroupAtom(groupId, true), rMol, rMol.getRGroupAtom(groupId, true));
       } 
       return molecule;
     } catch (NullPointerException | IOException | CTKException e) {
@@ -456,14 +581,8 @@ public final class BuilderMolecule {
   public static AbstractMolecule getMoleculeForMonomer(final Monomer monomer) throws BuilderMoleculeException, ChemistryException {
     String input = getInput(monomer);
     if (input != null) {
-      List<Attachment> listAttachments = monomer.getAttachmentList();
-      AttachmentList list = new AttachmentList();
-
-      for (Attachment attachment : listAttachments) {
-        list.add(new org.helm.chemtoolkit.Attachment(attachment.getAlternateId(), attachment.getLabel(), attachment.getCapGroupName(), attachment.getCapGroupSMILES()));
-      }
       try {
-        return Chemistry.getInstance().getManipulator().getMolecule(input, list);
+        return MoleculeTemplateCache.getInstance().getMolecule(input, monomer.getAttachmentList());
       } catch (IOException | CTKException e) {
         throw new BuilderMoleculeException("Molecule can't be built for the given monomer");
       }
@@ -479,7 +598,9 @@ public final class BuilderMolecule {
    * @throws IOException if smiles can not be read
    */
   public static AbstractMolecule getMolecule(String smiles) throws IOException, CTKException, ChemistryException {
-    return Chemistry.getInstance().getManipulator().getMolecule(smiles, null);
+    try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+      return lease.getManipulator().getMolecule(smiles, null);
+    }
   }
 
   private static String getInput(Monomer monomer) {
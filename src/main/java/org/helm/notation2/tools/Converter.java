@@ -67,15 +67,17 @@ public final class Converter {
 		/*convert SMILES*/
 		String smiles =  m.getCanSMILES();
 		LOG.debug("originalSMILES: " + smiles);
-		String convertedSMILES = Chemistry.getInstance().getManipulator().convertExtendedSmiles(smiles);
-		m.setCanSMILES(convertedSMILES);
-		
-		
-		/*convert Attachments*/
-		for(Attachment a : m.getAttachmentList()){
-			smiles = a.getCapGroupSMILES();
-			convertedSMILES =  Chemistry.getInstance().getManipulator().convertExtendedSmiles(smiles);
-			a.setCapGroupSMILES(convertedSMILES);
+		try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+			String convertedSMILES = lease.getManipulator().convertExtendedSmiles(smiles);
+			m.setCanSMILES(convertedSMILES);
+			
+			
+			/*convert Attachments*/
+			for(Attachment a : m.getAttachmentList()){
+				smiles = a.getCapGroupSMILES();
+				convertedSMILES =  lease.getManipulator().convertExtendedSmiles(smiles);
+				a.setCapGroupSMILES(convertedSMILES);
+			}
 		}
 		
 		/*merge Attachments into Smiles*/
@@ -128,10 +130,12 @@ public final class Converter {
 	
 	/*convert default Attachments*/
 	Map<String, Attachment> attachments = MonomerFactory.getInstance().getAttachmentDB();
-	for(Map.Entry<String, Attachment> e: attachments.entrySet()){
-		
-		String smiles = Chemistry.getInstance().getManipulator().convertExtendedSmiles(e.getValue().getCapGroupSMILES());
-		e.getValue().setCapGroupSMILES(smiles);
+	try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+		for(Map.Entry<String, Attachment> e: attachments.entrySet()){
+			
+			String smiles = lease.getManipulator().convertExtendedSmiles(e.getValue().getCapGroupSMILES());
+			e.getValue().setCapGroupSMILES(smiles);
+		}
 	}
 	
 	
@@ -26,10 +26,8 @@ package org.helm.notation2.tools;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.helm.chemtoolkit.CTKException;
 import org.helm.notation2.Monomer;
@@ -76,6 +74,8 @@ public final class FastaFormat {
 
 	private static Map<String, String> nucleotides = null;
 
+	private static volatile SymbolTrie nucleotideTrie;
+
 	private static Map<String, String> transformNucleotides = null;
 
 	private static Map<String, Monomer> nucleotidesNaturalAnalog = null;
@@ -374,25 +374,24 @@ public final class FastaFormat {
 		Map<String, Map<String, String>> templates = NucleotideFactory.getInstance().getNucleotideTemplates();
 		Map<String, String> nucleotides = null;
 		nucleotides = templates.get(NotationConstant.NOTATION_SOURCE);
-		Set<String> keySet = nucleotides.keySet();
+		SymbolTrie trie = nucleotideTrie;
+		if (trie == null || !trie.isBuiltFrom(nucleotides)) {
+			trie = new SymbolTrie(nucleotides);
+			nucleotideTrie = trie;
+		}
 
-		// walk the sequence
+		// walk the sequence, taking the longest matching nucleotide symbol
 		List<Nucleotide> l = new ArrayList<Nucleotide>();
 		int pos = 0;
 		while (pos < sequence.length()) {
-			boolean found = false;
-			for (Iterator i = keySet.iterator(); i.hasNext();) {
-				String symbol = (String) i.next();
-				if (sequence.startsWith(symbol, pos)) {
-					found = true;
-					String notation = nucleotides.get(symbol);
-					Nucleotide nuc = new Nucleotide(symbol, notation);
-					l.add(nuc);
-					pos = pos + symbol.length();
-					break;
-				}
-			}
-			if (!found) {
+			int length = trie.match(sequence, pos);
+			if (length > 0) {
+				String symbol = sequence.substring(pos, pos + length);
+				String notation = nucleotides.get(symbol);
+				Nucleotide nuc = new Nucleotide(symbol, notation);
+				l.add(nuc);
+				pos = pos + length;
+			} else {
 				throw new NotationException(
 						"Sequence contains unknown nucleotide starting at " + sequence.substring(pos));
 			}
@@ -407,7 +406,7 @@ public final class FastaFormat {
 	 * @param sequence
 	 * @return cleaned sequence
 	 */
-	private static String cleanup(String sequence) {
+	static String cleanup(String sequence) {
 		String result = sequence.replaceAll("\\s", ""); // remove all white
 		// space
 		if (result.equals(result.toLowerCase())) {
@@ -429,23 +428,33 @@ public final class FastaFormat {
 	 */
 	public static String generateFastaFromPeptidePolymer(List<PolymerNotation> polymers)
 			throws FastaFormatException, ChemistryException {
-		initMapAminoAcid();
 		StringBuilder fasta = new StringBuilder();
+		try {
+			writeFastaFromPeptidePolymer(polymers, fasta);
+		} catch (IOException e) {
+			throw new FastaFormatException(e.getMessage());
+		}
+		return fasta.toString();
+	}
+
+	private static void writeFastaFromPeptidePolymer(List<PolymerNotation> polymers, Appendable fasta)
+			throws FastaFormatException, ChemistryException, IOException {
+		initMapAminoAcid();
 		for (PolymerNotation polymer : polymers) {
 			String header = polymer.getPolymerID().getId();
 			if (polymer.getAnnotation() != null) {
 				header = polymer.getAnnotation();
 			}
-			fasta.append(">" + header + "\n");
+			String sequence;
 			try {
-				fasta.append(generateFastaFromPeptide(
-						MethodsMonomerUtils.getListOfHandledMonomers(polymer.getListMonomers())) + "\n");
+				sequence = generateFastaFromPeptide(
+						MethodsMonomerUtils.getListOfHandledMonomers(polymer.getListMonomers()));
 			} catch (HELM2HandledException e) {
 				e.printStackTrace();
 				throw new FastaFormatException(e.getMessage());
 			}
+			fasta.append(">").append(header).append("\n").append(sequence).append("\n");
 		}
-		return fasta.toString();
 	}
 
 	/**
@@ -477,23 +486,31 @@ public final class FastaFormat {
 	public static String generateFastaFromRNAPolymer(List<PolymerNotation> polymers)
 			throws FastaFormatException, ChemistryException {
 		StringBuilder fasta = new StringBuilder();
+		try {
+			writeFastaFromRNAPolymer(polymers, fasta);
+		} catch (IOException e) {
+			throw new FastaFormatException(e.getMessage());
+		}
+		return fasta.toString();
+	}
+
+	private static void writeFastaFromRNAPolymer(List<PolymerNotation> polymers, Appendable fasta)
+			throws FastaFormatException, ChemistryException, IOException {
 		for (PolymerNotation polymer : polymers) {
 			String header = polymer.getPolymerID().getId();
 			if (polymer.getAnnotation() != null) {
 				header = polymer.getAnnotation();
 			}
-
-			fasta.append(">" + header + "\n");
+			String sequence;
 			try {
-				fasta.append(
-						generateFastaFromRNA(MethodsMonomerUtils.getListOfHandledMonomers(polymer.getListMonomers()))
-								+ "\n");
+				sequence = generateFastaFromRNA(
+						MethodsMonomerUtils.getListOfHandledMonomers(polymer.getListMonomers()));
 			} catch (HELM2HandledException e) {
 				e.printStackTrace();
 				throw new FastaFormatException(e.getMessage());
 			}
+			fasta.append(">").append(header).append("\n").append(sequence).append("\n");
 		}
-		return fasta.toString();
 	}
 
 	/**
@@ -527,9 +544,36 @@ public final class FastaFormat {
 	 *             if the Chemistry Engine can not be initialized
 	 */
 	public static String generateFasta(HELM2Notation helm2Notation2) throws FastaFormatException, ChemistryException {
+		StringBuilder fasta = new StringBuilder();
+		try {
+			writeFasta(helm2Notation2, fasta);
+		} catch (IOException e) {
+			throw new FastaFormatException(e.getMessage());
+		}
+		return fasta.toString();
+
+	}
+
+	/**
+	 * intern method to write the fasta of all rna and peptides of the
+	 * HELM2Notation polymer by polymer to the given output, the peptides are
+	 * written first; on failure the output may be partial
+	 *
+	 * @param helm2Notation2
+	 *            HELM2Notation
+	 * @param fasta
+	 *            output
+	 * @throws FastaFormatException
+	 *             if the HELM2Notation can not be transformed to FASTA
+	 * @throws ChemistryException
+	 *             if the Chemistry Engine can not be initialized
+	 * @throws IOException
+	 *             if the output can not be written
+	 */
+	private static void writeFasta(HELM2Notation helm2Notation2, Appendable fasta)
+			throws FastaFormatException, ChemistryException, IOException {
 		List<PolymerNotation> polymersPeptides = new ArrayList<PolymerNotation>();
 		List<PolymerNotation> polymerNucleotides = new ArrayList<PolymerNotation>();
-		StringBuilder fasta = new StringBuilder();
 		for (PolymerNotation polymer : helm2Notation2.getListOfPolymers()) {
 			if (polymer.getPolymerID() instanceof RNAEntity) {
 				polymerNucleotides.add(polymer);
@@ -539,11 +583,8 @@ public final class FastaFormat {
 			}
 		}
 
-		fasta.append(generateFastaFromPeptidePolymer(polymersPeptides));
-		fasta.append(generateFastaFromRNAPolymer(polymerNucleotides));
-
-		return fasta.toString();
-
+		writeFastaFromPeptidePolymer(polymersPeptides, fasta);
+		writeFastaFromRNAPolymer(polymerNucleotides, fasta);
 	}
 
 	/**
@@ -0,0 +1,364 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2.tools;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.helm.notation2.exception.ChemistryException;
+import org.helm.notation2.exception.FastaFormatException;
+import org.helm.notation2.exception.NucleotideLoadingException;
+import org.helm.notation2.parser.exceptionparser.NotationException;
+import org.helm.notation2.parser.notation.HELM2Notation;
+import org.helm.notation2.parser.notation.polymer.PolymerEntity;
+import org.helm.notation2.parser.notation.polymer.PolymerNotation;
+
+/**
+ * FastaReader, reads a FASTA file record by record and converts every record
+ * into a peptide or RNA polymer, so only the records in work are held in
+ * memory. The polymers get the same elements, ids and annotations as the
+ * polymers of {@link FastaFormat#generatePeptidePolymersFromFASTAFormatHELM1}
+ * and {@link FastaFormat#generateRNAPolymersFromFastaFormatHELM1}: the n-th
+ * record becomes PEPTIDEn or RNAn, annotated with its header.
+ */
+public final class FastaReader implements Closeable {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private final BufferedReader reader;
+
+  private final String polymerType;
+
+  /* header of the next record, read ahead with the end of the previous one */
+  private String pendingHeader;
+
+  private boolean finished;
+
+  private int counter;
+
+  private FastaReader(Reader reader, String polymerType) {
+    this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    this.polymerType = polymerType;
+  }
+
+  /**
+   * method to read peptides from the given reader
+   *
+   * @param reader FASTA input
+   * @return FastaReader
+   */
+  public static FastaReader forPeptides(Reader reader) {
+    return new FastaReader(reader, "PEPTIDE");
+  }
+
+  /**
+   * method to read peptides from the given file
+   *
+   * @param path FASTA file
+   * @return FastaReader
+   * @throws IOException if the file can not be opened
+   */
+  public static FastaReader forPeptides(Path path) throws IOException {
+    return forPeptides(Files.newBufferedReader(path, UTF8));
+  }
+
+  /**
+   * method to read RNA from the given reader
+   *
+   * @param reader FASTA input
+   * @return FastaReader
+   */
+  public static FastaReader forRNA(Reader reader) {
+    return new FastaReader(reader, "RNA");
+  }
+
+  /**
+   * method to read RNA from the given file
+   *
+   * @param path FASTA file
+   * @return FastaReader
+   * @throws IOException if the file can not be opened
+   */
+  public static FastaReader forRNA(Path path) throws IOException {
+    return forRNA(Files.newBufferedReader(path, UTF8));
+  }
+
+  /**
+   * method to read the next record without converting it, lines before the
+   * first header belong to the first record
+   *
+   * @return next record or null if the input is exhausted
+   * @throws IOException if the input can not be read
+   */
+  public synchronized Record nextRecord() throws IOException {
+    if (finished) {
+      return null;
+    }
+    String header = pendingHeader;
+    boolean content = header != null;
+    StringBuilder sequence = new StringBuilder();
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.startsWith(">")) {
+        if (header == null) {
+          header = line.substring(1);
+          content = true;
+          continue;
+        }
+        pendingHeader = line.substring(1);
+        return new Record(++counter, header, sequence.toString());
+      }
+      String cleaned = FastaFormat.cleanup(line);
+      if (!cleaned.isEmpty()) {
+        sequence.append(cleaned);
+        content = true;
+      }
+    }
+    finished = true;
+    pendingHeader = null;
+    if (!content) {
+      return null;
+    }
+    return new Record(++counter, header == null ? "" : header, sequence.toString());
+  }
+
+  /**
+   * method to read and convert the next record
+   *
+   * @return polymer of the next record or null if the input is exhausted
+   * @throws IOException if the input can not be read
+   * @throws FastaFormatException if the record is not valid
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public PolymerNotation next() throws IOException, FastaFormatException, ChemistryException {
+    Record record = nextRecord();
+    if (record == null) {
+      return null;
+    }
+    return convert(record);
+  }
+
+  /**
+   * method to read and convert up to the given number of records into one
+   * HELM2Notation
+   *
+   * @param maximumPolymers maximum number of polymers
+   * @return HELM2Notation or null if the input is exhausted
+   * @throws IOException if the input can not be read
+   * @throws FastaFormatException if a record is not valid
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public HELM2Notation nextNotation(int maximumPolymers) throws IOException, FastaFormatException,
+      ChemistryException {
+    if (maximumPolymers < 1) {
+      throw new IllegalArgumentException("Maximum number of polymers has to be positive");
+    }
+    HELM2Notation helm2notation = null;
+    PolymerNotation polymer;
+    while ((helm2notation == null || helm2notation.getListOfPolymers().size() < maximumPolymers)
+        && (polymer = next()) != null) {
+      if (helm2notation == null) {
+        helm2notation = new HELM2Notation();
+      }
+      helm2notation.addPolymer(polymer);
+    }
+    return helm2notation;
+  }
+
+  /**
+   * method to convert all remaining records with the given number of threads,
+   * the polymers are handed over in the order of the records; reading waits
+   * while twice as many records as threads are in work
+   *
+   * @param handler receiver of the polymers
+   * @param threads number of threads
+   * @return number of converted records
+   * @throws IOException if the input can not be read or the handler fails
+   * @throws FastaFormatException if a record is not valid
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public int convertAll(PolymerHandler handler, int threads) throws IOException, FastaFormatException,
+      ChemistryException {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Number of threads has to be positive");
+    }
+    /* the first record is converted here, so the libraries are loaded before the workers start */
+    PolymerNotation first = next();
+    if (first == null) {
+      return 0;
+    }
+    handler.handle(first);
+    int converted = 1;
+    if (threads == 1) {
+      PolymerNotation polymer;
+      while ((polymer = next()) != null) {
+        handler.handle(polymer);
+        converted++;
+      }
+      return converted;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      Deque<Future<PolymerNotation>> window = new ArrayDeque<Future<PolymerNotation>>();
+      Record record;
+      while ((record = nextRecord()) != null) {
+        final Record current = record;
+        window.add(executor.submit(new Callable<PolymerNotation>() {
+          @Override
+          public PolymerNotation call() throws Exception {
+            return convert(current);
+          }
+        }));
+        if (window.size() >= 2 * threads) {
+          handler.handle(take(window.poll()));
+          converted++;
+        }
+      }
+      while (!window.isEmpty()) {
+        handler.handle(take(window.poll()));
+        converted++;
+      }
+      return converted;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static PolymerNotation take(Future<PolymerNotation> future) throws IOException, FastaFormatException,
+      ChemistryException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof FastaFormatException) {
+        throw (FastaFormatException) e.getCause();
+      }
+      if (e.getCause() instanceof ChemistryException) {
+        throw (ChemistryException) e.getCause();
+      }
+      throw new FastaFormatException("Record can not be converted " + e.getCause().getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Reading of the FASTA records was interrupted", e);
+    }
+  }
+
+  /**
+   * method to convert the given record into a polymer
+   *
+   * @param record record
+   * @return polymer
+   * @throws FastaFormatException if the record is not valid
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public PolymerNotation convert(Record record) throws FastaFormatException, ChemistryException {
+    try {
+      PolymerEntity entity = new PolymerNotation(polymerType + record.getIndex()).getPolymerID();
+      if (polymerType.equals("RNA")) {
+        String annotation = record.getHeader();
+        if (!(FastaFormat.isNormalDirection(record.getSequence()))) {
+          annotation += " 3'-5'";
+        }
+        return new PolymerNotation(entity, FastaFormat.generateElementsforRNA(record.getSequence(), entity),
+            annotation);
+      }
+      return new PolymerNotation(entity, FastaFormat.generateElementsOfPeptide(record.getSequence(), entity),
+          record.getHeader());
+    } catch (NotationException | NucleotideLoadingException e) {
+      throw new FastaFormatException("Record " + record.getIndex() + " can not be converted " + e.getMessage());
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  /**
+   * Record, header and cleaned sequence of one FASTA record
+   */
+  public static final class Record {
+
+    private final int index;
+
+    private final String header;
+
+    private final String sequence;
+
+    Record(int index, String header, String sequence) {
+      this.index = index;
+      this.header = header;
+      this.sequence = sequence;
+    }
+
+    /**
+     * @return position of the record in the input, starting with 1
+     */
+    public int getIndex() {
+      return index;
+    }
+
+    /**
+     * @return header without the leading &gt;
+     */
+    public String getHeader() {
+      return header;
+    }
+
+    /**
+     * @return sequence
+     */
+    public String getSequence() {
+      return sequence;
+    }
+  }
+
+  /**
+   * PolymerHandler, receives the converted polymers of {@link #convertAll}
+   */
+  public interface PolymerHandler {
+
+    /**
+     * method to receive the next polymer
+     *
+     * @param polymer polymer
+     * @throws IOException if the polymer can not be processed
+     */
+    void handle(PolymerNotation polymer) throws IOException;
+  }
+}
@@ -0,0 +1,182 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2.tools;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.helm.notation2.exception.ChemistryException;
+import org.helm.notation2.exception.FastaFormatException;
+import org.helm.notation2.parser.notation.HELM2Notation;
+
+/**
+ * FastaWriter, writes the FASTA of HELM2Notations to an output as soon as
+ * they are converted, so only the notations in work are held in memory. Each
+ * notation gives the same records as {@link FastaFormat#generateFasta}.
+ */
+public final class FastaWriter implements Closeable, Flushable {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private final Appendable out;
+
+  /**
+   * Constructs a writer to the given output
+   *
+   * @param out output
+   */
+  public FastaWriter(Appendable out) {
+    this.out = out;
+  }
+
+  /**
+   * Constructs a writer to the given stream, the FASTA is encoded as UTF-8
+   *
+   * @param out output stream
+   */
+  public FastaWriter(OutputStream out) {
+    this(new BufferedWriter(new OutputStreamWriter(out, UTF8)));
+  }
+
+  /**
+   * method to write the FASTA of the given notation, the FASTA is written
+   * completely or not at all
+   *
+   * @param helm2notation HELM2Notation
+   * @throws FastaFormatException if the notation can not be transformed to
+   *           FASTA
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   * @throws IOException if the output can not be written
+   */
+  public synchronized void write(HELM2Notation helm2notation) throws FastaFormatException, ChemistryException,
+      IOException {
+    out.append(FastaFormat.generateFasta(helm2notation));
+  }
+
+  /**
+   * method to write the FASTA of all given notations with the given number of
+   * threads, the FASTA is written in the order of the notations and the
+   * FASTA of a notation is written completely or not at all; the notations
+   * are taken from the iterator while at most twice as many notations as
+   * threads are in work
+   *
+   * @param notations HELM2Notations
+   * @param threads number of threads
+   * @return number of written notations
+   * @throws FastaFormatException if a notation can not be transformed to
+   *           FASTA, the notations before are written
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   * @throws IOException if the output can not be written
+   */
+  public synchronized int writeAll(Iterator<HELM2Notation> notations, int threads) throws FastaFormatException,
+      ChemistryException, IOException {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Number of threads has to be positive");
+    }
+    if (!notations.hasNext()) {
+      return 0;
+    }
+    /* the first notation is converted here, so the libraries are loaded before the workers start */
+    out.append(FastaFormat.generateFasta(notations.next()));
+    int written = 1;
+    if (threads == 1) {
+      while (notations.hasNext()) {
+        out.append(FastaFormat.generateFasta(notations.next()));
+        written++;
+      }
+      return written;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      Deque<Future<String>> window = new ArrayDeque<Future<String>>();
+      while (notations.hasNext()) {
+        final HELM2Notation helm2notation = notations.next();
+        window.add(executor.submit(new Callable<String>() {
+          @Override
+          public String call() throws Exception {
+            return FastaFormat.generateFasta(helm2notation);
+          }
+        }));
+        if (window.size() >= 2 * threads) {
+          out.append(take(window.poll()));
+          written++;
+        }
+      }
+      while (!window.isEmpty()) {
+        out.append(take(window.poll()));
+        written++;
+      }
+      return written;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static String take(Future<String> future) throws FastaFormatException, ChemistryException, IOException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof FastaFormatException) {
+        throw (FastaFormatException) e.getCause();
+      }
+      if (e.getCause() instanceof ChemistryException) {
+        throw (ChemistryException) e.getCause();
+      }
+      throw new FastaFormatException("Notation can not be transformed to FASTA " + e.getCause().getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Writing of the FASTA was interrupted", e);
+    }
+  }
+
+  @Override
+  public synchronized void flush() throws IOException {
+    if (out instanceof Flushable) {
+      ((Flushable) out).flush();
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (out instanceof Closeable) {
+      ((Closeable) out).close();
+    } else {
+      flush();
+    }
+  }
+}
@@ -23,16 +23,13 @@
  */
 package org.helm.notation2.tools;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.TreeMap;
 
-import org.helm.chemtoolkit.AbstractChemistryManipulator;
 import org.helm.chemtoolkit.CTKException;
 import org.helm.notation2.Chemistry;
 import org.helm.notation2.Monomer;
@@ -193,7 +190,7 @@ public final class HELM1Utils {
       String secondSection = setCanonicalHELMSecondSection(convertsortedIdstoIds, helm2notation.getListOfConnections());
       LOG.info("Second Section of canonical HELM was generated");
       return firstSection + "$" + secondSection + "$" + "" + "$" + "" + "$V2.0";
-    } catch (ClassNotFoundException | IOException | HELM1ConverterException | ValidationException | org.helm.notation2.parser.exceptionparser.NotationException e) {
+    } catch (HELM1ConverterException | ValidationException | org.helm.notation2.parser.exceptionparser.NotationException e) {
       e.printStackTrace();
       LOG.error("Canonical HELM 1 can not be generated due to HELM2 features");
       throw new HELM1FormatException("Canonical HELM 1 can not be generated due to HELM2 features " + e.getMessage() + e.getCause());
@@ -201,27 +198,25 @@ public final class HELM1Utils {
   }
 
   /**
-   * method to convert the first section into canonical first section
+   * method to convert the first section into canonical first section, the
+   * polymers are ordered by their label (the elements with SMILES for ad hoc
+   * monomers), polymers with the same label keep their order
    *
    * @param helm2notation HELM2Notation
    * @return an Object containing in the first place a Map of converted ids and
    *         in the second place the firstSection
-   * @throws IOException
    * @throws HELM1ConverterException if there were HELM2 features in the
    *           HELMNotation
    * @throws HELM1FormatException if the adHocMonomers can not be found
-   * @throws ClassNotFoundException
    * @throws ValidationException if a smiles as monomer is not valid
    * @throws ChemistryException if the Chemistry Engine can not be initialized
    * @throws org.helm.notation2.parser.exceptionparser.NotationException
    */
-  private static Object[] setCanonicalHELMFirstSection(HELM2Notation helm2notation) throws HELM1ConverterException, HELM1FormatException, ClassNotFoundException, IOException, ValidationException,
+  private static Object[] setCanonicalHELMFirstSection(HELM2Notation helm2notation) throws HELM1ConverterException, HELM1FormatException, ValidationException,
       ChemistryException, org.helm.notation2.parser.exceptionparser.NotationException {
-    Map<String, String> idLabelMap = new HashMap<String, String>();
-    Map<String, List<String>> labelIdMap = new TreeMap<String, List<String>>();
+    Map<String, List<PolymerNotation>> labelPolymerMap = new TreeMap<String, List<PolymerNotation>>();
 
     for (PolymerNotation polymer : helm2notation.getListOfPolymers()) {
-      String id = polymer.getPolymerID().getId();
       String elementsToHELM = polymer.getPolymerElements().toHELM();
       Map<String, String> adHocList = findAdHocMonomers(elementsToHELM, polymer.getPolymerID().getType());
       Map<String, String> convert = convertAdHocMonomersIntoSMILES(adHocList);
@@ -231,62 +226,46 @@ public final class HELM1Utils {
 
       elementsToHELM = elementsToHELM.replace("[", "");
       elementsToHELM = elementsToHELM.replace("]", "");
-      idLabelMap.put(id, elementsToHELM);
-      if (labelIdMap.containsKey(elementsToHELM)) {
-        List<String> l = labelIdMap.get(elementsToHELM);
-        l.add(id);
-      } else {
-        List<String> l = new ArrayList<String>();
-        l.add(id);
-        labelIdMap.put(elementsToHELM, l);
+      List<PolymerNotation> l = labelPolymerMap.get(elementsToHELM);
+      if (l == null) {
+        l = new ArrayList<PolymerNotation>();
+        labelPolymerMap.put(elementsToHELM, l);
       }
+      l.add(polymer);
     }
 
-    Set<String> sortedLabelSet = labelIdMap.keySet();
-    List<List<String[]>> lol = new ArrayList<List<String[]>>();
-    for (String key : sortedLabelSet) {
-      List<String> value = labelIdMap.get(key);
-      List<String[]> al = new ArrayList<String[]>();
-      al.add(value.toArray(new String[0]));
-      PermutationAndExpansion.expand(lol, al);
-    }
-
-    List<List<String>> nodeIdPermutations = PermutationAndExpansion.linearize(lol);
-    List<String> notationList = new ArrayList<String>();
+    /* the sorted labels give the order of the polymers directly */
+    StringBuilder notation = new StringBuilder();
     Map<String, String> convertsortedIdstoIds = new HashMap<String, String>();
-    for (List<String> sortedIdList : nodeIdPermutations) {
-
-      String notation = "";
-      int countCHEM = 0;
-      int countPEPTIDE = 0;
-      int countRNA = 0;
-      for (String id : sortedIdList) {
-
+    int countCHEM = 0;
+    int countPEPTIDE = 0;
+    int countRNA = 0;
+    for (List<PolymerNotation> polymers : labelPolymerMap.values()) {
+      for (PolymerNotation polymer : polymers) {
+        String type = polymer.getPolymerID().getType();
         int count = 0;
-        if (helm2notation.getPolymerNotation(id).getPolymerID().getType().equals("PEPTIDE")) {
+        if (type.equals("PEPTIDE")) {
           countPEPTIDE += 1;
           count = countPEPTIDE;
         }
-        if (helm2notation.getPolymerNotation(id).getPolymerID().getType().equals("CHEM")) {
+        if (type.equals("CHEM")) {
           countCHEM += 1;
           count = countCHEM;
         }
-        if (helm2notation.getPolymerNotation(id).getPolymerID().getType().equals("RNA")) {
+        if (type.equals("RNA")) {
           countRNA += 1;
           count = countRNA;
         }
 
-        notation = notation + helm2notation.getPolymerNotation(id).getPolymerID().getType() + count + "{" + helm2notation.getPolymerNotation(id).toHELM() + "}|";
-        convertsortedIdstoIds.put(helm2notation.getPolymerNotation(id).getPolymerID().getId(), helm2notation.getPolymerNotation(id).getPolymerID().getType() + count);
-
+        if (notation.length() > 0) {
+          notation.append("|");
+        }
+        notation.append(type + count + "{" + polymer.toHELM() + "}");
+        convertsortedIdstoIds.put(polymer.getPolymerID().getId(), type + count);
       }
-
-      notation = notation.substring(0, notation.length() - 1);
-      notationList.add(notation);
     }
 
-    Collections.sort(notationList);
-    return new Object[] {convertsortedIdstoIds, notationList.get(0)};
+    return new Object[] {convertsortedIdstoIds, notation.toString()};
   }
 
   /**
@@ -390,7 +369,11 @@ public final class HELM1Utils {
               listMatches.put(element, "[" + monomer.getCanSMILES() + "]");
             }
           } catch (NullPointerException e) {
-            if (!(Chemistry.getInstance().getManipulator().validateSMILES(element.substring(1, element.length() - 1)))) {
+            boolean validSmiles;
+            try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+              validSmiles = lease.getManipulator().validateSMILES(element.substring(1, element.length() - 1));
+            }
+            if (!validSmiles) {
               e.printStackTrace();
               throw new ValidationException("SMILES as Monomer is not valid :" + element);
             }
@@ -417,15 +400,14 @@ public final class HELM1Utils {
    */
   private static Map<String, String> convertAdHocMonomersIntoSMILES(Map<String, String> monomersList) throws HELM1FormatException, ChemistryException {
     Map<String, String> convert = new HashMap<String, String>();
-    try {
+    try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
       for (Map.Entry<String, String> element : monomersList.entrySet()) {
 
         Monomer m;
         m = MonomerFactory.getInstance().getMonomerStore().getMonomer(element.getValue().toString(), element.getKey().toString());
 
         String smiles = m.getCanSMILES();
-        AbstractChemistryManipulator manipulator = Chemistry.getInstance().getManipulator();
-        String canSmiles = manipulator.canonicalize(smiles);
+        String canSmiles = lease.getManipulator().canonicalize(smiles);
         convert.put(element.getKey().toString(), canSmiles);
       }
       return convert;
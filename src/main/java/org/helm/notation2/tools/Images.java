@@ -24,6 +24,7 @@
 package org.helm.notation2.tools;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 import org.helm.chemtoolkit.AbstractMolecule;
 import org.helm.chemtoolkit.CTKException;
@@ -47,12 +48,17 @@ public final class Images {
   /**
    *
    */
-  private static final int PICTURE_HEIGHT = 1000;
+  static final int PICTURE_HEIGHT = 1000;
 
   /**
    *
    */
-  private static final int PICTURE_WIDTH = 1000;
+  static final int PICTURE_WIDTH = 1000;
+
+  /**
+   * light grey background
+   */
+  static final int PICTURE_BACKGROUND = 0xD3D3D3;
 
   /** The Logger for this class */
   private static final Logger LOG = LoggerFactory.getLogger(Images.class);
@@ -65,7 +71,9 @@ public final class Images {
   }
 
   /**
-   * generates an image of the atom/bond representation of monomer
+   * generates an image of the atom/bond representation of monomer, the image
+   * is served from the {@link MonomerImageRenderer} cache if it was rendered
+   * before
    *
    * @param monomer Input Monomer
    * @param rgroupsInformation information if the rgroups should be should or
@@ -76,6 +84,26 @@ public final class Images {
    * @throws ChemistryException if the Chemistry Engine can not be initialized
    */
   public static byte[] generateImageofMonomer(Monomer monomer, boolean rgroupsInformation) throws BuilderMoleculeException, CTKException, ChemistryException {
+    return MonomerImageRenderer.getInstance().render(monomer, rgroupsInformation);
+  }
+
+  /**
+   * renders an image of the atom/bond representation of monomer with the
+   * given dimensions, the image is not cached
+   *
+   * @param monomer Input Monomer
+   * @param rgroupsInformation information if the rgroups should be should or
+   *          not
+   * @param width width of the image
+   * @param height height of the image
+   * @param background rgb value of the background color
+   * @return an image of the monomer in byte[]
+   * @throws CTKException general ChemToolKit exception passed to HELMToolKit
+   * @throws BuilderMoleculeException if the molecule can't be built
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public static byte[] generateImageofMonomer(Monomer monomer, boolean rgroupsInformation, int width, int height, int background) throws BuilderMoleculeException, CTKException,
+      ChemistryException {
     LOG.info("Image generation process of monomer starts");
     /* First build one molecule */
     AbstractMolecule molecule;
@@ -86,10 +114,12 @@ public final class Images {
       molecule = BuilderMolecule.mergeRgroups(BuilderMolecule.getMoleculeForMonomer(monomer));
       LOG.info("Molecule was built and unused rgroups were merged into it");
     }
-    String molFile;
-    molFile = Chemistry.getInstance().getManipulator().convertMolecule(molecule, AbstractChemistryManipulator.StType.MOLFILE);
-    LOG.info("Generate molfile for the built molecule");
-    return Chemistry.getInstance().getManipulator().renderMol(molFile, OutputType.PNG, PICTURE_WIDTH, PICTURE_HEIGHT, (int) Long.parseLong("D3D3D3", 16));
+    try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+      String molFile;
+      molFile = lease.getManipulator().convertMolecule(molecule, AbstractChemistryManipulator.StType.MOLFILE);
+      LOG.info("Generate molfile for the built molecule");
+      return lease.getManipulator().renderMol(molFile, OutputType.PNG, width, height, background);
+    }
   }
 
   /**
@@ -104,13 +134,29 @@ public final class Images {
    */
   public static byte[] generateImageHELMMolecule(HELM2Notation helm2notation) throws BuilderMoleculeException, CTKException, IOException, ChemistryException {
     LOG.info("Image generation process of HELM molecule starts");
-    /* get SMILES representation for the whole molecule */
-    String smiles = SMILES.getSMILESForAll(helm2notation);
-    LOG.info("Get for the whole HELMNotation the smiles representation");
-    AbstractMolecule molecule = Chemistry.getInstance().getManipulator().getMolecule(smiles, null);
-    LOG.info("Molecule was created using the smiles generation");
-    String molFile = Chemistry.getInstance().getManipulator().convertMolecule(molecule, AbstractChemistryManipulator.StType.MOLFILE);
-    LOG.info("Generate molfile for the built molecule(s)");
-    return Chemistry.getInstance().getManipulator().renderMol(molFile, OutputType.PNG, PICTURE_WIDTH, PICTURE_HEIGHT, (int) Long.parseLong("D3D3D3", 16));
+    /* build one molecule with coordinates for the whole HELMNotation */
+    AbstractMolecule molecule = BuilderMolecule.buildMoleculeForAll(helm2notation);
+    LOG.info("Molecule was built for the whole HELMNotation");
+    try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+      String molFile = lease.getManipulator().convertMolecule(molecule, AbstractChemistryManipulator.StType.MOLFILE);
+      LOG.info("Generate molfile for the built molecule(s)");
+      return lease.getManipulator().renderMol(molFile, OutputType.PNG, PICTURE_WIDTH, PICTURE_HEIGHT, (int) Long.parseLong("D3D3D3", 16));
+    }
+  }
+
+  /**
+   * method to write an image of the HELM molecule to the given stream, the
+   * stream is not closed
+   *
+   * @param helm2notation input HELMNotation
+   * @param out output stream
+   * @throws BuilderMoleculeException if the HELM molecule can't be built
+   * @throws CTKException general ChemToolKit exception passed to HELMToolKit
+   * @throws IOException if the image can not be written
+   * @throws ChemistryException if the Chemistry Engine can not initialized
+   */
+  public static void writeImageHELMMolecule(HELM2Notation helm2notation, OutputStream out) throws BuilderMoleculeException, CTKException, IOException, ChemistryException {
+    out.write(generateImageHELMMolecule(helm2notation));
+    out.flush();
   }
 }
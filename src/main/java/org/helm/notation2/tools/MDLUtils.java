@@ -23,7 +23,12 @@
  */
 package org.helm.notation2.tools;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
 import org.helm.chemtoolkit.AbstractChemistryManipulator;
+import org.helm.chemtoolkit.AbstractMolecule;
 import org.helm.chemtoolkit.CTKException;
 import org.helm.notation2.Chemistry;
 import org.helm.notation2.exception.BuilderMoleculeException;
@@ -61,10 +66,34 @@ public final class MDLUtils {
    * @throws ChemistryException if the Chemistry Engine can not be initialized
    */
   public static String generateMDL(final HELM2Notation helm2notation) throws BuilderMoleculeException, CTKException, NotationException, ChemistryException {
-    LOG.debug("Generate smiles representation for the whole HELM molecule");
-    String smiles = SMILES.getSMILESForAll(helm2notation);
-    LOG.debug("Convert smiles to mol");
-    return Chemistry.getInstance().getManipulator().convert(smiles, AbstractChemistryManipulator.StType.SMILES);
+    StringWriter writer = new StringWriter();
+    try {
+      writeMDL(helm2notation, writer);
+    } catch (IOException e) {
+      throw new CTKException("MDL can not be generated", e);
+    }
+    return writer.toString();
+  }
+
+  /**
+   * method to write the MDL for a HELM molecule to the given writer, the
+   * writer is not closed
+   *
+   * @param helm2notation input HELM2Notation
+   * @param writer output writer
+   * @throws BuilderMoleculeException if the helm molecule can not be built
+   * @throws CTKException general ChemToolKit exception passed to HELMToolKit
+   * @throws IOException if the MDL can not be written
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public static void writeMDL(final HELM2Notation helm2notation, final Writer writer) throws BuilderMoleculeException, CTKException, IOException, ChemistryException {
+    LOG.debug("Build the whole HELM molecule");
+    AbstractMolecule molecule = BuilderMolecule.buildMoleculeForAll(helm2notation);
+    LOG.debug("Convert molecule to mol");
+    try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+      writer.write(lease.getManipulator().convertMolecule(molecule, AbstractChemistryManipulator.StType.MOLFILE));
+    }
+    writer.flush();
   }
 
 }
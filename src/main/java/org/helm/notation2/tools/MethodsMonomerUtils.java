@@ -31,7 +31,6 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.helm.chemtoolkit.AbstractChemistryManipulator;
 import org.helm.chemtoolkit.CTKException;
 import org.helm.notation2.Attachment;
 import org.helm.notation2.Chemistry;
@@ -217,35 +216,40 @@ public final class MethodsMonomerUtils {
           return monomer;
 
         } else {
-          /* This has to be done */
-          monomer = monomerFactory.getSmilesMonomerDB().get(id);
-          if (monomer == null) {
-            /* Rgroups information are not given -> only smiles information */
-            AbstractChemistryManipulator manipulator = Chemistry.getInstance().getManipulator();
-            if (manipulator.validateSMILES(id)) {
-              if (type.equals(Monomer.CHEMICAL_POLYMER_TYPE)) {
-                monomer = generateTemporaryMonomer(id, type, "X");
-
-              } else if (type.equals(Monomer.PEPTIDE_POLYMER_TYPE)) {
-                monomer = generateTemporaryMonomer(id, type, "X");
-              } else if (type.equals(Monomer.NUCLIEC_ACID_POLYMER_TYPE)) {
-                monomer = generateTemporaryMonomer(id, type, info);
+          /* ad hoc monomers are registered one after the other */
+          synchronized (MethodsMonomerUtils.class) {
+            /* This has to be done */
+            monomer = monomerFactory.getSmilesMonomerDB().get(id);
+            if (monomer == null) {
+              /* Rgroups information are not given -> only smiles information */
+              boolean validSmiles;
+              try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+                validSmiles = lease.getManipulator().validateSMILES(id);
+              }
+              if (validSmiles) {
+                if (type.equals(Monomer.CHEMICAL_POLYMER_TYPE)) {
+                  monomer = generateTemporaryMonomer(id, type, "X");
+
+                } else if (type.equals(Monomer.PEPTIDE_POLYMER_TYPE)) {
+                  monomer = generateTemporaryMonomer(id, type, "X");
+                } else if (type.equals(Monomer.NUCLIEC_ACID_POLYMER_TYPE)) {
+                  monomer = generateTemporaryMonomer(id, type, info);
+                }
+              } else {
+              	if(!id.equals("?")){
+                throw new MonomerException("Defined Monomer is not in the database and also not valid SMILES " + id);
+              	}
+              	else{
+              		return new Monomer(type,"Undefined",id, id);
+              	}
               }
-            } else {
-            	if(!id.equals("?")){
-              throw new MonomerException("Defined Monomer is not in the database and also not valid SMILES " + id);
-            	}
-            	else{
-            		return new Monomer(type,"Undefined",id, id);
-            	}
-            }
 
-            /* Add new monomer to the database */
-            MonomerFactory.getInstance().getMonomerStore().addNewMonomer(monomer);
-            MonomerFactory.getInstance().getSmilesMonomerDB().put(monomer.getCanSMILES(), monomer);
-            // save monomer db to local file after successful update //
-            MonomerFactory.getInstance().saveMonomerCache();
-            LOG.info("Monomer was added to the database");
+              /* Add new monomer to the database */
+              MonomerFactory.getInstance().getMonomerStore().addNewMonomer(monomer);
+              MonomerFactory.getInstance().getMonomerStore().addSmilesAlias(monomer.getCanSMILES(), monomer);
+              // new monomers are temporary and not part of the saved monomer db //
+              LOG.info("Monomer was added to the database");
+            }
           }
         }
       }
@@ -300,7 +304,10 @@ public final class MethodsMonomerUtils {
   }
 
   public static Monomer generateTemporaryMonomer(String id, String polymerType, String naturalAnalog) throws NotationException, MonomerLoadingException, ChemistryException {
-    String uniqueSmiles = Chemistry.getInstance().getManipulator().convertExtendedSmiles(id);
+    String uniqueSmiles;
+    try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+      uniqueSmiles = lease.getManipulator().convertExtendedSmiles(id);
+    }
     
     String alternateId = generateNextAdHocMonomerID(polymerType);
     Map<String, Attachment> ids = MonomerFactory.getInstance().getAttachmentDB();
@@ -58,6 +58,44 @@ public class MolfileEncoder {
     }
   }
 
+  /**
+   * method to convert the given gzipped Base64 molfile into its compressed
+   * bytes without decompressing it
+   *
+   * @param encodedString gzipped Base64 molfile
+   * @return gzipped bytes, null if the input is null
+   * @throws EncoderException if the input is not in gzipped Base64 format
+   */
+  public static byte[] toCompressedBytes(String encodedString) throws EncoderException {
+    if (null == encodedString) {
+      return null;
+    }
+    byte[] bytes;
+    try {
+      bytes = Base64.decode(encodedString);
+    } catch (RuntimeException e) {
+      throw new EncoderException("Molfile could not be decoded. " + encodedString);
+    }
+    if (bytes == null || bytes.length < 2 || (bytes[0] & 0xff) != 0x1f || (bytes[1] & 0xff) != 0x8b) {
+      throw new EncoderException("Molfile is not gzipped. " + encodedString);
+    }
+    return bytes;
+  }
+
+  /**
+   * method to decompress the given gzipped molfile bytes
+   *
+   * @param compressedBytes gzipped molfile
+   * @return molfile, null if the input is null
+   * @throws EncoderException if the bytes can not be decompressed
+   */
+  public static String decode(byte[] compressedBytes) throws EncoderException {
+    if (null == compressedBytes) {
+      return null;
+    }
+    return decompress(compressedBytes);
+  }
+
   /**
    * method to compress the given molfile in a gezipped Base64 string
    *
@@ -93,8 +131,15 @@ public class MolfileEncoder {
    */
   private static String decompress(String str) throws EncoderException {
     /* First base64 decode the string */
-    String result = null;
     byte[] bytes = Base64.decode(str);
+    try {
+      return decompress(bytes);
+    } catch (EncoderException e) {
+      throw new EncoderException("Molfile could not be decompressed. " + str);
+    }
+  }
+
+  private static String decompress(byte[] bytes) throws EncoderException {
     GZIPInputStream zi = null;
     try {
       zi = new GZIPInputStream(new ByteArrayInputStream(bytes));
@@ -113,7 +158,7 @@ public class MolfileEncoder {
       return molfile;
 
     } catch (IOException e) {
-      throw new EncoderException("Molfile could not be decompressed. " + str);
+      throw new EncoderException("Molfile could not be decompressed.");
     } finally {
       IOUtils.closeQuietly(zi);
     }
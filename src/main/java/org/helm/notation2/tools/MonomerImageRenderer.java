@@ -0,0 +1,341 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.helm.chemtoolkit.CTKException;
+import org.helm.notation2.BoundedCache;
+import org.helm.notation2.Monomer;
+import org.helm.notation2.MonomerStore;
+import org.helm.notation2.exception.BuilderMoleculeException;
+import org.helm.notation2.exception.ChemistryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MonomerImageRenderer, renders monomer images and keeps the rendered PNGs in
+ * a cache bounded by their size in bytes. The images are keyed by monomer id,
+ * digest of the structure, rgroup flag, dimensions and background, so a
+ * changed monomer is rendered again. Optionally the images are also stored in
+ * a local directory, which keeps the cache warm across restarts.
+ */
+public final class MonomerImageRenderer {
+
+  /** The Logger for this class */
+  private static final Logger LOG = LoggerFactory.getLogger(MonomerImageRenderer.class);
+
+  public static final long DEFAULT_MAXIMUM_BYTES = 64L * 1024 * 1024;
+
+  private static final char KEY_SEPARATOR = '\u0001';
+
+  private static final String IMAGE_FILE_EXTENSION = ".png";
+
+  private static MonomerImageRenderer _instance = new MonomerImageRenderer();
+
+  private final BoundedCache<byte[]> images;
+
+  private int width = Images.PICTURE_WIDTH;
+
+  private int height = Images.PICTURE_HEIGHT;
+
+  private int background = Images.PICTURE_BACKGROUND;
+
+  private int renderThreads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Default constructor.
+   */
+  private MonomerImageRenderer() {
+    images = new BoundedCache<byte[]>(DEFAULT_MAXIMUM_BYTES, IMAGE_FILE_EXTENSION, true) {
+      @Override
+      protected long weigh(String key, byte[] image) {
+        return image.length;
+      }
+
+      @Override
+      protected byte[] read(File file, String key) throws IOException {
+        return Files.readAllBytes(file.toPath());
+      }
+
+      @Override
+      protected void write(File file, String key, byte[] image) throws IOException {
+        Files.write(file.toPath(), image);
+      }
+    };
+  }
+
+  /**
+   * method to get the singleton instance
+   *
+   * @return MonomerImageRenderer
+   */
+  public static MonomerImageRenderer getInstance() {
+    return _instance;
+  }
+
+  /**
+   * method to get the image of a monomer with the configured dimensions and
+   * background
+   *
+   * @param monomer Input Monomer
+   * @param rgroupsInformation information if the rgroups should be shown or
+   *          not
+   * @return an image of the monomer in byte[]
+   * @throws BuilderMoleculeException if the molecule can't be built
+   * @throws CTKException general ChemToolKit exception passed to HELMToolKit
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public byte[] render(Monomer monomer, boolean rgroupsInformation) throws BuilderMoleculeException, CTKException, ChemistryException {
+    int currentWidth;
+    int currentHeight;
+    int currentBackground;
+    synchronized (this) {
+      currentWidth = width;
+      currentHeight = height;
+      currentBackground = background;
+    }
+    return render(monomer, rgroupsInformation, currentWidth, currentHeight, currentBackground);
+  }
+
+  /**
+   * method to get the image of a monomer with the given dimensions and
+   * background
+   *
+   * @param monomer Input Monomer
+   * @param rgroupsInformation information if the rgroups should be shown or
+   *          not
+   * @param width width of the image
+   * @param height height of the image
+   * @param background rgb value of the background color
+   * @return an image of the monomer in byte[]
+   * @throws BuilderMoleculeException if the molecule can't be built
+   * @throws CTKException general ChemToolKit exception passed to HELMToolKit
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public byte[] render(Monomer monomer, boolean rgroupsInformation, int width, int height, int background) throws BuilderMoleculeException, CTKException, ChemistryException {
+    String key = generateKey(monomer, rgroupsInformation, width, height, background);
+    byte[] image = images.get(key);
+    if (image == null) {
+      image = Images.generateImageofMonomer(monomer, rgroupsInformation, width, height, background);
+      images.put(key, image);
+    }
+    return Arrays.copyOf(image, image.length);
+  }
+
+  /**
+   * method to render the images of all monomers of the given store in
+   * parallel with the configured dimensions and background; monomers which
+   * can not be rendered are skipped
+   *
+   * @param monomerStore monomers to render
+   * @param rgroupsInformation information if the rgroups should be shown or
+   *          not
+   * @return number of rendered images
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public int preRender(MonomerStore monomerStore, final boolean rgroupsInformation) throws ChemistryException {
+    int threads;
+    synchronized (this) {
+      threads = renderThreads;
+    }
+    List<Monomer> monomers = monomerStore.getAllMonomersList();
+    if (monomers.isEmpty()) {
+      return 0;
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, monomers.size()));
+    try {
+      List<Future<byte[]>> futures = new ArrayList<Future<byte[]>>();
+      for (final Monomer monomer : monomers) {
+        futures.add(executor.submit(new Callable<byte[]>() {
+          @Override
+          public byte[] call() throws Exception {
+            return render(monomer, rgroupsInformation);
+          }
+        }));
+      }
+
+      int rendered = 0;
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          futures.get(i).get();
+          rendered++;
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof ChemistryException) {
+            throw (ChemistryException) e.getCause();
+          }
+          LOG.warn("Image of monomer " + monomers.get(i).getAlternateId() + " can not be rendered: " + e.getCause().getMessage());
+        }
+      }
+      return rendered;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ChemistryException("Rendering of the monomer images was interrupted");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * method to remove all images from memory, images of the disk store are
+   * kept
+   */
+  public void clear() {
+    images.clear();
+  }
+
+  /**
+   * method to set the maximum number of bytes of the images kept in memory, a
+   * value of 0 disables the memory cache
+   *
+   * @param maximumBytes maximum number of bytes
+   */
+  public void setMaximumBytes(long maximumBytes) {
+    if (maximumBytes < 0) {
+      throw new IllegalArgumentException("Maximum size of the image cache can not be negative");
+    }
+    images.setMaximumWeight(maximumBytes);
+  }
+
+  public long getMaximumBytes() {
+    return images.getMaximumWeight();
+  }
+
+  /**
+   * method to set the dimensions and background of images rendered without
+   * explicit dimensions
+   *
+   * @param width width of the image
+   * @param height height of the image
+   * @param background rgb value of the background color
+   */
+  public synchronized void setImageFormat(int width, int height, int background) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("Image dimensions have to be positive");
+    }
+    this.width = width;
+    this.height = height;
+    this.background = background;
+  }
+
+  public synchronized int getWidth() {
+    return width;
+  }
+
+  public synchronized int getHeight() {
+    return height;
+  }
+
+  public synchronized int getBackground() {
+    return background;
+  }
+
+  /**
+   * method to set the number of threads used by {@link #preRender}
+   *
+   * @param renderThreads number of threads
+   */
+  public synchronized void setRenderThreads(int renderThreads) {
+    if (renderThreads < 1) {
+      throw new IllegalArgumentException("Number of render threads has to be at least 1");
+    }
+    this.renderThreads = renderThreads;
+  }
+
+  public synchronized int getRenderThreads() {
+    return renderThreads;
+  }
+
+  /**
+   * method to set the directory the rendered images are stored in, null
+   * disables the disk store
+   *
+   * @param directory directory of the disk store
+   */
+  public void setDiskStore(File directory) {
+    images.setDiskStore(directory);
+  }
+
+  public File getDiskStore() {
+    return images.getDiskStore();
+  }
+
+  public int size() {
+    return images.size();
+  }
+
+  public long getBytes() {
+    return images.getWeight();
+  }
+
+  public long getHitCount() {
+    return images.getHitCount();
+  }
+
+  /**
+   * method to get the number of hits which were served by the disk store,
+   * they are included in the hit count
+   *
+   * @return number of disk store hits
+   */
+  public long getDiskHitCount() {
+    return images.getDiskHitCount();
+  }
+
+  public long getMissCount() {
+    return images.getMissCount();
+  }
+
+  public long getEvictionCount() {
+    return images.getEvictionCount();
+  }
+
+  /**
+   * method to reset the hit, miss and eviction counters
+   */
+  public void resetStatistics() {
+    images.resetStatistics();
+  }
+
+  private static String generateKey(Monomer monomer, boolean rgroupsInformation, int width, int height, int background) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(monomer.getPolymerType()).append(KEY_SEPARATOR);
+    sb.append(monomer.getAlternateId()).append(KEY_SEPARATOR);
+    sb.append(monomer.getStructureDigest()).append(KEY_SEPARATOR);
+    sb.append(rgroupsInformation).append(KEY_SEPARATOR);
+    sb.append(width).append('x').append(height).append(KEY_SEPARATOR);
+    sb.append(Integer.toHexString(background));
+    return sb.toString();
+  }
+}
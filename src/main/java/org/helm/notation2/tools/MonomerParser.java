@@ -183,7 +183,11 @@ public class MonomerParser {
     String smiles = attachment.getCapGroupSMILES();
     if (null != smiles) {
 
-      if (!Chemistry.getInstance().getManipulator().validateSMILES(smiles)) {
+      boolean validSmiles;
+      try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+        validSmiles = lease.getManipulator().validateSMILES(smiles);
+      }
+      if (!validSmiles) {
         throw new MonomerException(
             "Attachment cap group SMILES is invalid");
       }
@@ -216,13 +220,12 @@ public class MonomerParser {
     m.setCanSMILES(monomer.getChildText(MONOMER_SMILES_ELEMENT, ns));
     String encodedMolfile = monomer.getChildText(MONOMER_MOL_FILE_ELEMENT, ns);
 
-    String molfile = null;
+    /* the molfile is only decoded when it is needed */
     try {
-      molfile = MolfileEncoder.decode(encodedMolfile);
+      m.setEncodedMolfile(encodedMolfile);
     } catch (EncoderException ex) {
       throw new MonomerException("Invalid monomer molfile");
     }
-    m.setMolfile(molfile);
     m.setMonomerType(monomer.getChildText(MONOMER_TYPE_ELEMENT, ns));
     m.setPolymerType(monomer.getChildText(POLYMER_TYPE_ELEMENT, ns));
     m.setNaturalAnalog(monomer.getChildText(NATURAL_ANALOG_ELEMENT, ns));
@@ -426,11 +429,10 @@ public class MonomerParser {
         throw new MonomerException("Monomer has no monomerID defined");
       }
       String smiles = monomer.getCanSMILES();
-      String molfile = monomer.getMolfile();
       List<Attachment> attachments = monomer.getAttachmentList();
 
       if (!polymerType.equals(Monomer.CHEMICAL_POLYMER_TYPE)) {
-        if (null == smiles || null == molfile || null == attachments
+        if (null == smiles || !monomer.hasMolfile() || null == attachments
             || attachments.size() == 0) {
           throw new MonomerException(
               "Monomers for specific polymer type must have structure info");
@@ -440,7 +442,10 @@ public class MonomerParser {
       String errorNote = alternateId + " (" + polymerType + ")";
       if (null != smiles && smiles.length() > 0) {
 
-        boolean validSmiles = Chemistry.getInstance().getManipulator().validateSMILES(smiles);
+        boolean validSmiles;
+        try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+          validSmiles = lease.getManipulator().validateSMILES(smiles);
+        }
         if (!validSmiles) {
           throw new MonomerException("Monomer SMILES must be valid: "
               + errorNote);
@@ -511,7 +516,10 @@ public class MonomerParser {
       // (single), 2 (double), 3 (triple), coordinate, conjugated and
       // query bond types.
       if (null != smiles && smiles.length() > 0) {
-        AbstractMolecule molecule = Chemistry.getInstance().getManipulator().getMolecule(smiles, null);
+        AbstractMolecule molecule;
+        try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+          molecule = lease.getManipulator().getMolecule(smiles, null);
+        }
         List<String> attachmentLabels = getAttachmentLabels(smiles);
         for (int i = 0; i < attachmentLabels.size(); i++) {
           String rgroupId = attachmentLabels.get(i).substring(1);
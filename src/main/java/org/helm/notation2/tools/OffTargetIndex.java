@@ -0,0 +1,634 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.helm.notation2.exception.ChemistryException;
+import org.helm.notation2.exception.HELM2HandledException;
+import org.helm.notation2.exception.RNAUtilsException;
+import org.helm.notation2.parser.notation.HELM2Notation;
+import org.helm.notation2.parser.notation.polymer.PolymerNotation;
+import org.helm.notation2.parser.notation.polymer.RNAEntity;
+
+/**
+ * OffTargetIndex, seed index over the natural analogue sequences of a set of
+ * transcripts to screen siRNA and antisense guides for off-target sites. Every
+ * k-mer of the transcripts is stored as packed seed code together with its
+ * position; a query looks up all k-mers of the target site of the guide (the
+ * reverse complement of the guide) and verifies the candidate sites without
+ * gaps. Hits with up to the given number of mismatches are reported; the
+ * search is exhaustive as long as the guide is at least (mismatches + 1) *
+ * seed length long. The index can be saved to a file and opened again through
+ * a memory-mapped {@link FileChannel}, an index is immutable and can be
+ * queried from several threads.
+ */
+public final class OffTargetIndex {
+
+  /** "OFTX" */
+  private static final int MAGIC = 0x4f465458;
+
+  public static final int VERSION = 1;
+
+  /** maximum seed length, seed codes are packed into an int */
+  public static final int MAXIMUM_SEED_LENGTH = 15;
+
+  private static final byte UNKNOWN = 4;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private final int seedLength;
+
+  private final String[] transcriptIds;
+
+  /* start of each transcript in the concatenated sequence, plus the end */
+  private final int[] transcriptStarts;
+
+  /* concatenated sequence of all transcripts as base codes */
+  private final ByteBuffer sequence;
+
+  /* sorted seed codes and their positions in the concatenated sequence */
+  private final IntBuffer seedCodes;
+
+  private final IntBuffer seedPositions;
+
+  private OffTargetIndex(int seedLength, String[] transcriptIds, int[] transcriptStarts, ByteBuffer sequence,
+      IntBuffer seedCodes, IntBuffer seedPositions) {
+    this.seedLength = seedLength;
+    this.transcriptIds = transcriptIds;
+    this.transcriptStarts = transcriptStarts;
+    this.sequence = sequence;
+    this.seedCodes = seedCodes;
+    this.seedPositions = seedPositions;
+  }
+
+  /**
+   * method to build the index over the given transcript sequences, T is
+   * treated as U, any other character than A, C, G and U can not be part of
+   * a hit
+   *
+   * @param transcripts transcript sequences by their id
+   * @param seedLength length of the seeds
+   * @return index
+   */
+  public static OffTargetIndex build(Map<String, String> transcripts, int seedLength) {
+    return build(new ArrayList<String>(transcripts.keySet()), new ArrayList<String>(transcripts.values()), seedLength);
+  }
+
+  /**
+   * intern method to build the index over the given transcript sequences,
+   * transcripts sharing an id are all indexed and told apart by their index
+   *
+   * @param transcriptIds ids of the transcripts
+   * @param transcripts transcript sequences, in the order of the ids
+   * @param seedLength length of the seeds
+   * @return index
+   */
+  private static OffTargetIndex build(List<String> transcriptIds, List<String> transcripts, int seedLength) {
+    if (seedLength < 1 || seedLength > MAXIMUM_SEED_LENGTH) {
+      throw new IllegalArgumentException("Seed length has to be between 1 and " + MAXIMUM_SEED_LENGTH);
+    }
+    String[] ids = transcriptIds.toArray(new String[transcriptIds.size()]);
+    int[] starts = new int[transcripts.size() + 1];
+    long total = 0;
+    for (int i = 0; i < transcripts.size(); i++) {
+      starts[i] = (int) total;
+      total += transcripts.get(i).length();
+      if (total > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Transcripts are too long to be indexed");
+      }
+    }
+    starts[transcripts.size()] = (int) total;
+
+    byte[] bases = new byte[(int) total];
+    for (int i = 0; i < transcripts.size(); i++) {
+      String transcript = transcripts.get(i);
+      for (int j = 0; j < transcript.length(); j++) {
+        bases[starts[i] + j] = encode(transcript.charAt(j));
+      }
+    }
+
+    /* collect the seeds as code << 32 | position, sorting groups them by code */
+    long[] seeds = new long[(int) total];
+    int count = 0;
+    int mask = (1 << (2 * seedLength)) - 1;
+    for (int t = 0; t < ids.length; t++) {
+      int code = 0;
+      int valid = 0;
+      for (int p = starts[t]; p < starts[t + 1]; p++) {
+        if (bases[p] == UNKNOWN) {
+          valid = 0;
+          code = 0;
+          continue;
+        }
+        code = ((code << 2) | bases[p]) & mask;
+        if (++valid >= seedLength) {
+          seeds[count++] = ((long) code << 32) | (p - seedLength + 1);
+        }
+      }
+    }
+    Arrays.sort(seeds, 0, count);
+    int[] codes = new int[count];
+    int[] positions = new int[count];
+    for (int s = 0; s < count; s++) {
+      codes[s] = (int) (seeds[s] >>> 32);
+      positions[s] = (int) seeds[s];
+    }
+    return new OffTargetIndex(seedLength, ids, starts, ByteBuffer.wrap(bases), IntBuffer.wrap(codes),
+        IntBuffer.wrap(positions));
+  }
+
+  /**
+   * method to build the index over the natural analogue sequences of all RNA
+   * polymers of the given notation, a polymer is identified by its annotation
+   * or if it has none by its id; polymers sharing an annotation are all
+   * indexed
+   *
+   * @param helm2notation HELM2Notation
+   * @param seedLength length of the seeds
+   * @return index
+   * @throws RNAUtilsException if the natural analogue sequence can not be
+   *           built
+   * @throws HELM2HandledException if a polymer contains HELM2 features
+   * @throws ChemistryException if the Chemistry Engine can not be initialized
+   */
+  public static OffTargetIndex build(HELM2Notation helm2notation, int seedLength)
+      throws RNAUtilsException, HELM2HandledException, ChemistryException {
+    List<String> ids = new ArrayList<String>();
+    List<String> transcripts = new ArrayList<String>();
+    for (PolymerNotation polymer : helm2notation.getListOfPolymers()) {
+      if (polymer.getPolymerID() instanceof RNAEntity) {
+        ids.add(polymer.isAnnotationHere() ? polymer.getAnnotation() : polymer.getPolymerID().getId());
+        transcripts.add(RNAUtils.getNaturalAnalogSequence(polymer));
+      }
+    }
+    return build(ids, transcripts, seedLength);
+  }
+
+  /**
+   * method to build the index over the sequences of the given FASTA input,
+   * the sequences are read directly without converting them into HELM; a
+   * sequence is identified by the first word of its header, sequences sharing
+   * this word are all indexed
+   *
+   * @param fasta FASTA input
+   * @param seedLength length of the seeds
+   * @return index
+   */
+  public static OffTargetIndex buildFromFasta(String fasta, int seedLength) {
+    try {
+      return buildFromFasta(new StringReader(fasta), seedLength);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * method to build the index over the sequences of the given FASTA input,
+   * the records are read with {@link FastaReader} without converting them
+   * into HELM; a sequence is identified by the first word of its header,
+   * sequences sharing this word are all indexed
+   *
+   * @param fasta FASTA input, it is closed afterwards
+   * @param seedLength length of the seeds
+   * @return index
+   * @throws IOException if the input can not be read
+   */
+  public static OffTargetIndex buildFromFasta(Reader fasta, int seedLength) throws IOException {
+    List<String> ids = new ArrayList<String>();
+    List<String> transcripts = new ArrayList<String>();
+    try (FastaReader reader = FastaReader.forRNA(fasta)) {
+      FastaReader.Record record;
+      while ((record = reader.nextRecord()) != null) {
+        String header = record.getHeader().trim();
+        int space = header.indexOf(' ');
+        ids.add(space < 0 ? header : header.substring(0, space));
+        transcripts.add(record.getSequence());
+      }
+    }
+    return build(ids, transcripts, seedLength);
+  }
+
+  /**
+   * method to open an index saved with {@link #save(File)}, the seeds and the
+   * sequences are memory-mapped
+   *
+   * @param file index file
+   * @return index
+   * @throws IOException if the file can not be read or is no index
+   */
+  public static OffTargetIndex open(File file) throws IOException {
+    ByteBuffer in;
+    FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    try {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      in = buffer;
+    } finally {
+      channel.close();
+    }
+
+    try {
+      if (in.getInt() != MAGIC) {
+        throw new IOException("File is no off-target index");
+      }
+      int version = in.getInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported off-target index version " + version);
+      }
+      int seedLength = in.getInt();
+      int numberOfTranscripts = in.getInt();
+      String[] ids = new String[numberOfTranscripts];
+      for (int i = 0; i < numberOfTranscripts; i++) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        ids[i] = new String(bytes, UTF8);
+      }
+      int[] starts = new int[numberOfTranscripts + 1];
+      for (int i = 0; i < starts.length; i++) {
+        starts[i] = in.getInt();
+      }
+      int count = in.getInt();
+      IntBuffer codes = slice(in, 4 * count).asIntBuffer();
+      IntBuffer positions = slice(in, 4 * count).asIntBuffer();
+      ByteBuffer bases = slice(in, starts[numberOfTranscripts]);
+      return new OffTargetIndex(seedLength, ids, starts, bases, codes, positions);
+    } catch (RuntimeException e) {
+      throw new IOException("File is no off-target index", e);
+    }
+  }
+
+  private static ByteBuffer slice(ByteBuffer in, int length) {
+    ByteBuffer slice = in.slice();
+    slice.limit(length);
+    in.position(in.position() + length);
+    return slice;
+  }
+
+  /**
+   * method to save the index to the given file; the index is written to a
+   * temporary file first, which replaces the given file once it is complete
+   *
+   * @param file index file
+   * @throws IOException if the file can not be written
+   */
+  public void save(File file) throws IOException {
+    File temp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+    try {
+      write(temp);
+      try {
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp.toPath());
+    }
+  }
+
+  private void write(File file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(seedLength);
+      out.writeInt(transcriptIds.length);
+      for (String id : transcriptIds) {
+        byte[] bytes = id.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+      for (int start : transcriptStarts) {
+        out.writeInt(start);
+      }
+      int count = seedCodes.limit();
+      out.writeInt(count);
+      for (int i = 0; i < count; i++) {
+        out.writeInt(seedCodes.get(i));
+      }
+      for (int i = 0; i < count; i++) {
+        out.writeInt(seedPositions.get(i));
+      }
+      for (int i = 0; i < sequence.limit(); i++) {
+        out.write(sequence.get(i));
+      }
+    }
+  }
+
+  /**
+   * method to get the length of the seeds
+   *
+   * @return seed length
+   */
+  public int getSeedLength() {
+    return seedLength;
+  }
+
+  /**
+   * method to get the number of indexed transcripts
+   *
+   * @return number of transcripts
+   */
+  public int getNumberOfTranscripts() {
+    return transcriptIds.length;
+  }
+
+  /**
+   * method to get the number of indexed seeds
+   *
+   * @return number of seeds
+   */
+  public int getNumberOfSeeds() {
+    return seedCodes.limit();
+  }
+
+  /**
+   * method to find all sites of the transcripts which are complementary to
+   * the given guide with at most the given number of mismatches, the hits are
+   * sorted by the number of mismatches, the transcript and the position
+   *
+   * @param guide guide sequence, 5'-3'
+   * @param maxMismatches maximum number of mismatches
+   * @return hits
+   */
+  public List<Hit> query(String guide, int maxMismatches) {
+    if (maxMismatches < 0) {
+      throw new IllegalArgumentException("Maximum number of mismatches can not be negative");
+    }
+    int length = guide.length();
+    byte[] site = new byte[length];
+    for (int i = 0; i < length; i++) {
+      byte code = encode(guide.charAt(length - 1 - i));
+      site[i] = code == UNKNOWN ? UNKNOWN : (byte) (3 - code);
+    }
+
+    List<Hit> hits = new ArrayList<Hit>();
+    if (length < seedLength) {
+      return hits;
+    }
+    Set<Integer> candidates = new HashSet<Integer>();
+    int mask = (1 << (2 * seedLength)) - 1;
+    int code = 0;
+    int valid = 0;
+    for (int i = 0; i < length; i++) {
+      if (site[i] == UNKNOWN) {
+        valid = 0;
+        code = 0;
+        continue;
+      }
+      code = ((code << 2) | site[i]) & mask;
+      if (++valid < seedLength) {
+        continue;
+      }
+      int offset = i - seedLength + 1;
+      for (int s = firstSeed(code); s < seedCodes.limit() && seedCodes.get(s) == code; s++) {
+        int start = seedPositions.get(s) - offset;
+        if (candidates.add(start)) {
+          Hit hit = verify(site, start, maxMismatches);
+          if (hit != null) {
+            hits.add(hit);
+          }
+        }
+      }
+    }
+    Collections.sort(hits, HIT_ORDER);
+    return hits;
+  }
+
+  /**
+   * method to query several guides in parallel
+   *
+   * @param guides guide sequences, 5'-3'
+   * @param maxMismatches maximum number of mismatches
+   * @param threads number of threads
+   * @return hits of each guide, in the order of the guides
+   */
+  public List<List<Hit>> query(List<String> guides, final int maxMismatches, int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Number of threads has to be positive");
+    }
+    List<List<Hit>> result = new ArrayList<List<Hit>>();
+    if (guides.isEmpty()) {
+      return result;
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, guides.size()));
+    try {
+      List<Future<List<Hit>>> futures = new ArrayList<Future<List<Hit>>>();
+      for (final String guide : guides) {
+        futures.add(executor.submit(new Callable<List<Hit>>() {
+          @Override
+          public List<Hit> call() {
+            return query(guide, maxMismatches);
+          }
+        }));
+      }
+      for (Future<List<Hit>> future : futures) {
+        result.add(future.get());
+      }
+      return result;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Off-target query was interrupted", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Hit verify(byte[] site, int start, int maxMismatches) {
+    if (start < 0 || start + site.length > sequence.limit()) {
+      return null;
+    }
+    int transcript = transcriptOf(start);
+    if (start + site.length > transcriptStarts[transcript + 1]) {
+      return null;
+    }
+    int mismatches = 0;
+    for (int i = 0; i < site.length; i++) {
+      byte base = sequence.get(start + i);
+      if (base == UNKNOWN || base != site[i]) {
+        if (++mismatches > maxMismatches) {
+          return null;
+        }
+      }
+    }
+    return new Hit(transcriptIds[transcript], transcript, start - transcriptStarts[transcript], site.length,
+        mismatches);
+  }
+
+  private int transcriptOf(int position) {
+    int index = Arrays.binarySearch(transcriptStarts, position);
+    if (index < 0) {
+      return -index - 2;
+    }
+    /* skip empty transcripts starting at the same position */
+    while (transcriptStarts[index + 1] == position) {
+      index++;
+    }
+    return index;
+  }
+
+  private int firstSeed(int code) {
+    int low = 0;
+    int high = seedCodes.limit();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (seedCodes.get(mid) < code) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static byte encode(char base) {
+    switch (base) {
+      case 'A':
+      case 'a':
+        return 0;
+      case 'C':
+      case 'c':
+        return 1;
+      case 'G':
+      case 'g':
+        return 2;
+      case 'U':
+      case 'u':
+      case 'T':
+      case 't':
+        return 3;
+      default:
+        return UNKNOWN;
+    }
+  }
+
+  private static final Comparator<Hit> HIT_ORDER = new Comparator<Hit>() {
+    @Override
+    public int compare(Hit a, Hit b) {
+      if (a.mismatches != b.mismatches) {
+        return a.mismatches < b.mismatches ? -1 : 1;
+      }
+      if (a.transcript != b.transcript) {
+        return a.transcript < b.transcript ? -1 : 1;
+      }
+      return a.position < b.position ? -1 : (a.position == b.position ? 0 : 1);
+    }
+  };
+
+  /**
+   * Hit, site of a transcript which is complementary to a guide
+   */
+  public static final class Hit {
+
+    private final String transcriptId;
+
+    private final int transcript;
+
+    private final int position;
+
+    private final int length;
+
+    private final int mismatches;
+
+    Hit(String transcriptId, int transcript, int position, int length, int mismatches) {
+      this.transcriptId = transcriptId;
+      this.transcript = transcript;
+      this.position = position;
+      this.length = length;
+      this.mismatches = mismatches;
+    }
+
+    /**
+     * @return id of the transcript
+     */
+    public String getTranscriptId() {
+      return transcriptId;
+    }
+
+    /**
+     * @return index of the transcript in the order of indexing, it tells
+     *         apart transcripts sharing an id
+     */
+    public int getTranscriptIndex() {
+      return transcript;
+    }
+
+    /**
+     * @return start of the site in the transcript, 0-based
+     */
+    public int getPosition() {
+      return position;
+    }
+
+    /**
+     * @return length of the site
+     */
+    public int getLength() {
+      return length;
+    }
+
+    /**
+     * @return number of mismatches
+     */
+    public int getMismatches() {
+      return mismatches;
+    }
+
+    @Override
+    public String toString() {
+      return transcriptId + ":" + position + "-" + (position + length) + " (" + mismatches + " mismatches)";
+    }
+  }
+}
@@ -174,7 +174,10 @@ public class RNAUtils {
 
 	/**
 	 * This method returns the largest matched fragment between two sequences,
-	 * replace T with U before match
+	 * replace T with U before match; the fragment is taken from the shorter
+	 * sequence, of several fragments with the same length the leftmost one in
+	 * the shorter sequence is returned. The search runs in time linear to the
+	 * length of both sequences.
 	 *
 	 * @param seq1
 	 *            single letter, all upper case nucleotide sequence
@@ -187,13 +190,8 @@ public class RNAUtils {
 	 *             if the notation is not valid
 	 */
 	public static String getMaxMatchFragment(String seq1, String seq2, int minLength) throws NotationException {
-		if (null == seq1 || null == seq2) {
-			throw new NotationException("Both sequences must not be null ");
-		}
-
-		if (!seq1.equals(seq1.toUpperCase()) || !seq2.equals(seq2.toUpperCase())) {
-			throw new NotationException("Both sequences must be natural nucleotide sequence in upper case ");
-		}
+		checkMatchSequence(seq1);
+		checkMatchSequence(seq2);
 
 		String longSeq, shortSeq;
 
@@ -208,21 +206,81 @@ public class RNAUtils {
 		longSeq = longSeq.replaceAll("T", "U");
 		shortSeq = shortSeq.replaceAll("T", "U");
 
-		int min = MINUMUM_MATCH_FRAGMENT_LENGTH;
-		if (minLength > min) {
-			min = minLength;
-		}
+		SuffixAutomaton.Match match = new SuffixAutomaton(shortSeq).longestCommonSubstring(longSeq);
+		return getMatchFragment(shortSeq, match.textStart, match.length, minLength);
+	}
 
-		for (int len = shortSeq.length(); len > min; len--) {
-			for (int i = 0; i <= shortSeq.length() - len; i++) {
-				String tmp = shortSeq.substring(i, i + len);
+	/**
+	 * method to get the largest matched fragment between one guide sequence and
+	 * each of the given target sequences, the guide is indexed once for all
+	 * targets
+	 *
+	 * @param guide
+	 *            single letter, all upper case nucleotide sequence
+	 * @param targets
+	 *            single letter, all upper case nucleotide sequences
+	 * @return for each target in the same order the largest match fragment as
+	 *         returned by {@link #getMaxMatchFragment(String, String)}
+	 * @throws NotationException
+	 *             if the notation is not valid
+	 */
+	public static List<String> getMaxMatchFragments(String guide, List<String> targets) throws NotationException {
+		return getMaxMatchFragments(guide, targets, MINUMUM_MATCH_FRAGMENT_LENGTH);
+	}
 
-				if (longSeq.contains(tmp)) {
-					return tmp;
-				}
+	/**
+	 * method to get the largest matched fragment between one guide sequence and
+	 * each of the given target sequences, the guide is indexed once for all
+	 * targets
+	 *
+	 * @param guide
+	 *            single letter, all upper case nucleotide sequence
+	 * @param targets
+	 *            single letter, all upper case nucleotide sequences
+	 * @param minLength
+	 *            - minimum fragment length
+	 * @return for each target in the same order the largest match fragment as
+	 *         returned by {@link #getMaxMatchFragment(String, String, int)}
+	 * @throws NotationException
+	 *             if the notation is not valid
+	 */
+	public static List<String> getMaxMatchFragments(String guide, List<String> targets, int minLength)
+			throws NotationException {
+		checkMatchSequence(guide);
+		String guideSeq = guide.replaceAll("T", "U");
+		SuffixAutomaton automaton = new SuffixAutomaton(guideSeq);
+
+		List<String> fragments = new ArrayList<String>(targets.size());
+		for (String target : targets) {
+			checkMatchSequence(target);
+			String targetSeq = target.replaceAll("T", "U");
+			SuffixAutomaton.Match match = automaton.longestCommonSubstring(targetSeq);
+			if (guide.length() > target.length()) {
+				fragments.add(getMatchFragment(targetSeq, match.sequenceStart, match.length, minLength));
+			} else {
+				fragments.add(getMatchFragment(guideSeq, match.textStart, match.length, minLength));
 			}
 		}
+		return fragments;
+	}
 
+	private static void checkMatchSequence(String seq) throws NotationException {
+		if (null == seq) {
+			throw new NotationException("Both sequences must not be null ");
+		}
+		if (!seq.equals(seq.toUpperCase())) {
+			throw new NotationException("Both sequences must be natural nucleotide sequence in upper case ");
+		}
+	}
+
+	private static String getMatchFragment(String seq, int start, int length, int minLength) {
+		int min = MINUMUM_MATCH_FRAGMENT_LENGTH;
+		if (minLength > min) {
+			min = minLength;
+		}
+		if (length > min) {
+			return seq.substring(start, start + length);
+		}
 		return "";
 	}
 
@@ -32,6 +32,7 @@ import org.helm.chemtoolkit.CTKException;
 import org.helm.chemtoolkit.CTKSmilesException;
 import org.helm.notation2.Attachment;
 import org.helm.notation2.Chemistry;
+import org.helm.notation2.MoleculeResultCache;
 import org.helm.notation2.Monomer;
 import org.helm.notation2.MonomerFactory;
 import org.helm.notation2.exception.BuilderMoleculeException;
@@ -79,10 +80,12 @@ public final class SMILES {
 		/* get for every molecule the smiles */
 		LOG.debug("Built single molecule(s)");
 		StringBuffer sb = new StringBuffer();
-		for (AbstractMolecule molecule : molecules) {
-			molecule = BuilderMolecule.mergeRgroups(molecule);
-			sb.append(Chemistry.getInstance().getManipulator().convertMolecule(molecule,
-					AbstractChemistryManipulator.StType.SMILES) + ".");
+		try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+			for (AbstractMolecule molecule : molecules) {
+				molecule = BuilderMolecule.mergeRgroups(molecule);
+				sb.append(lease.getManipulator().convertMolecule(molecule, AbstractChemistryManipulator.StType.SMILES)
+						+ ".");
+			}
 		}
 		sb.setLength(sb.length() - 1);
 		LOG.debug("SMILES-All :" + sb.toString());
@@ -90,7 +93,8 @@ public final class SMILES {
 	}
 
 	/**
-	 * method to generate canonical smiles for the whole HELMNotation
+	 * method to generate canonical smiles for the whole HELMNotation, the result
+	 * is cached in the {@link MoleculeResultCache}
 	 *
 	 * @param helm2notation
 	 *            input HELMNotation
@@ -108,18 +112,27 @@ public final class SMILES {
 	 */
 	public static String getCanonicalSMILESForAll(HELM2Notation helm2notation)
 			throws BuilderMoleculeException, CTKSmilesException, CTKException, NotationException, ChemistryException {
+		String key = MoleculeResultCache.generateKey(helm2notation);
+		String cached = MoleculeResultCache.getInstance().getCanonicalSMILES(key);
+		if (cached != null) {
+			return cached;
+		}
 		LOG.debug("Build single molecule(s)");
 		List<AbstractMolecule> molecules = BuilderMolecule.buildMoleculefromPolymers(helm2notation.getListOfPolymers(),
 				helm2notation.getListOfConnections());
 		LOG.debug("Built single molecule(s)");
 		/* get for every molecule the canonical smiles */
 		StringBuffer sb = new StringBuffer();
-		for (AbstractMolecule molecule : molecules) {
-			molecule = BuilderMolecule.mergeRgroups(molecule);
-			sb.append(Chemistry.getInstance().getManipulator().canonicalize(Chemistry.getInstance().getManipulator()
-					.convertMolecule(molecule, AbstractChemistryManipulator.StType.SMILES)) + ".");
+		try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+			for (AbstractMolecule molecule : molecules) {
+				molecule = BuilderMolecule.mergeRgroups(molecule);
+				sb.append(lease.getManipulator().canonicalize(
+						lease.getManipulator().convertMolecule(molecule, AbstractChemistryManipulator.StType.SMILES))
+						+ ".");
+			}
 		}
 		sb.setLength(sb.length() - 1);
+		MoleculeResultCache.getInstance().putCanonicalSMILES(key, sb.toString());
 		return sb.toString();
 	}
 
@@ -171,7 +184,8 @@ public final class SMILES {
 	}
 
 	/**
-	 * method to generate canonical smiles for one single PolymerNotation
+	 * method to generate canonical smiles for one single PolymerNotation, the
+	 * result is cached in the {@link MoleculeResultCache}
 	 *
 	 * @param polymer
 	 *            PolymerNotation
@@ -192,11 +206,20 @@ public final class SMILES {
 	 */
 	public static String getCanonicalSMILESForPolymer(PolymerNotation polymer) throws BuilderMoleculeException,
 			HELM2HandledException, CTKSmilesException, CTKException, NotationException, ChemistryException {
-		AbstractMolecule molecule = BuilderMolecule.buildMoleculefromSinglePolymer(polymer).getMolecule();
-		molecule = BuilderMolecule.mergeRgroups(molecule);
+		String key = MoleculeResultCache.generateKey(polymer);
+		String cached = MoleculeResultCache.getInstance().getCanonicalSMILES(key);
+		if (cached != null) {
+			return cached;
+		}
+		try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+			AbstractMolecule molecule = BuilderMolecule.buildMoleculefromSinglePolymer(polymer).getMolecule();
+			molecule = BuilderMolecule.mergeRgroups(molecule);
 
-		return Chemistry.getInstance().getManipulator().canonicalize(Chemistry.getInstance().getManipulator()
-				.convertMolecule(molecule, AbstractChemistryManipulator.StType.SMILES));
+			String result = lease.getManipulator().canonicalize(
+					lease.getManipulator().convertMolecule(molecule, AbstractChemistryManipulator.StType.SMILES));
+			MoleculeResultCache.getInstance().putCanonicalSMILES(key, result);
+			return result;
+		}
 	}
 
 	/**
@@ -221,11 +244,12 @@ public final class SMILES {
 	 */
 	public static String getSMILESforPolymer(PolymerNotation polymer) throws BuilderMoleculeException,
 			HELM2HandledException, CTKSmilesException, CTKException, NotationException, ChemistryException {
-		AbstractMolecule molecule = BuilderMolecule.buildMoleculefromSinglePolymer(polymer).getMolecule();
-		molecule = BuilderMolecule.mergeRgroups(molecule);
+		try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+			AbstractMolecule molecule = BuilderMolecule.buildMoleculefromSinglePolymer(polymer).getMolecule();
+			molecule = BuilderMolecule.mergeRgroups(molecule);
 
-		return Chemistry.getInstance().getManipulator().convertMolecule(molecule,
-				AbstractChemistryManipulator.StType.SMILES);
+			return lease.getManipulator().convertMolecule(molecule, AbstractChemistryManipulator.StType.SMILES);
+		}
 	}
 
 	/**
@@ -244,7 +268,10 @@ public final class SMILES {
 	public static String convertMolToSMILESWithAtomMapping(String molfile, List<Attachment> attachments)
 			throws CTKException, ChemistryException {
 
-		String smiles = Chemistry.getInstance().getManipulator().convertMolIntoSmilesWithAtomMapping(molfile);
+		String smiles;
+		try (Chemistry.ManipulatorLease lease = Chemistry.getInstance().borrowManipulator()) {
+			smiles = lease.getManipulator().convertMolIntoSmilesWithAtomMapping(molfile);
+		}
 
 		for (Attachment attachment : attachments) {
 			int r = Integer.valueOf(attachment.getLabel().replaceAll("\\D+", ""));
@@ -0,0 +1,175 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2.tools;
+
+import java.util.Arrays;
+
+/**
+ * SuffixAutomaton, automaton over all substrings of a text to find the longest
+ * common substring of the text and another sequence in time linear to the
+ * length of both. Every state stores the end of the first occurrence of its
+ * substrings in the text, so ties can be resolved by the leftmost position in
+ * either sequence.
+ */
+final class SuffixAutomaton {
+
+  private final char[] alphabet;
+
+  private final int[] next;
+
+  private final int[] link;
+
+  private final int[] length;
+
+  private final int[] firstEnd;
+
+  /**
+   * Constructs the automaton over the given text
+   *
+   * @param text text
+   */
+  SuffixAutomaton(String text) {
+    alphabet = distinctCharacters(text);
+    int sigma = alphabet.length;
+    int maxStates = Math.max(2, 2 * text.length());
+    next = new int[maxStates * sigma];
+    Arrays.fill(next, -1);
+    link = new int[maxStates];
+    length = new int[maxStates];
+    firstEnd = new int[maxStates];
+
+    link[0] = -1;
+    int size = 1;
+    int last = 0;
+    for (int i = 0; i < text.length(); i++) {
+      int c = indexOf(text.charAt(i));
+      int current = size++;
+      length[current] = length[last] + 1;
+      firstEnd[current] = i;
+      int p = last;
+      while (p != -1 && next[p * sigma + c] == -1) {
+        next[p * sigma + c] = current;
+        p = link[p];
+      }
+      if (p == -1) {
+        link[current] = 0;
+      } else {
+        int q = next[p * sigma + c];
+        if (length[p] + 1 == length[q]) {
+          link[current] = q;
+        } else {
+          int clone = size++;
+          length[clone] = length[p] + 1;
+          System.arraycopy(next, q * sigma, next, clone * sigma, sigma);
+          link[clone] = link[q];
+          firstEnd[clone] = firstEnd[q];
+          while (p != -1 && next[p * sigma + c] == q) {
+            next[p * sigma + c] = clone;
+            p = link[p];
+          }
+          link[q] = clone;
+          link[current] = clone;
+        }
+      }
+      last = current;
+    }
+  }
+
+  /**
+   * method to find the longest common substring of the text and the given
+   * sequence
+   *
+   * @param sequence sequence to scan
+   * @return longest common substring with its leftmost start in the sequence
+   *         and its leftmost start in the text
+   */
+  Match longestCommonSubstring(String sequence) {
+    int sigma = alphabet.length;
+    Match match = new Match();
+    int state = 0;
+    int matched = 0;
+    for (int j = 0; j < sequence.length(); j++) {
+      int c = indexOf(sequence.charAt(j));
+      if (c < 0) {
+        state = 0;
+        matched = 0;
+        continue;
+      }
+      while (state != 0 && next[state * sigma + c] == -1) {
+        state = link[state];
+        matched = length[state];
+      }
+      if (next[state * sigma + c] != -1) {
+        state = next[state * sigma + c];
+        matched++;
+      } else {
+        state = 0;
+        matched = 0;
+      }
+
+      if (matched > 0 && matched >= match.length) {
+        int textStart = firstEnd[state] - matched + 1;
+        if (matched > match.length) {
+          match.length = matched;
+          match.sequenceStart = j - matched + 1;
+          match.textStart = textStart;
+        } else if (textStart < match.textStart) {
+          match.textStart = textStart;
+        }
+      }
+    }
+    return match;
+  }
+
+  private int indexOf(char c) {
+    int index = Arrays.binarySearch(alphabet, c);
+    return index >= 0 ? index : -1;
+  }
+
+  private static char[] distinctCharacters(String text) {
+    char[] chars = text.toCharArray();
+    Arrays.sort(chars);
+    int count = 0;
+    for (int i = 0; i < chars.length; i++) {
+      if (i == 0 || chars[i] != chars[i - 1]) {
+        chars[count++] = chars[i];
+      }
+    }
+    return Arrays.copyOf(chars, count);
+  }
+
+  /**
+   * Match, longest common substring of the text and a scanned sequence
+   */
+  static final class Match {
+    /** length of the common substring, 0 if there is none */
+    int length;
+
+    /** leftmost start of the common substring in the scanned sequence */
+    int sequenceStart;
+
+    /** leftmost start of a longest common substring in the text */
+    int textStart;
+  }
+}
@@ -0,0 +1,102 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2.tools;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SymbolTrie, prefix tree over the keys of a symbol map (monomer IDs or
+ * nucleotide symbols) to tokenize a sequence by longest match in time linear
+ * to the sequence length. Matching is case sensitive.
+ */
+public final class SymbolTrie {
+
+  private final Map<String, ?> source;
+
+  private final Node root = new Node();
+
+  /**
+   * Constructs the trie over the keys of the given map
+   *
+   * @param symbols map whose keys are the symbols
+   */
+  public SymbolTrie(Map<String, ?> symbols) {
+    this.source = symbols;
+    for (String symbol : symbols.keySet()) {
+      if (symbol.length() == 0) {
+        continue;
+      }
+      Node node = root;
+      for (int i = 0; i < symbol.length(); i++) {
+        Character c = symbol.charAt(i);
+        Node child = node.children.get(c);
+        if (child == null) {
+          child = new Node();
+          node.children.put(c, child);
+        }
+        node = child;
+      }
+      node.terminal = true;
+    }
+  }
+
+  /**
+   * method to check whether the trie was built from the given map instance
+   *
+   * @param symbols symbol map
+   * @return true if the trie was built from exactly this map, false otherwise
+   */
+  public boolean isBuiltFrom(Map<String, ?> symbols) {
+    return source == symbols;
+  }
+
+  /**
+   * method to find the longest symbol starting at the given position
+   *
+   * @param sequence sequence
+   * @param start start position
+   * @return length of the longest matching symbol, 0 if no symbol matches
+   */
+  public int match(String sequence, int start) {
+    Node node = root;
+    int longest = 0;
+    for (int i = start; i < sequence.length(); i++) {
+      node = node.children.get(sequence.charAt(i));
+      if (node == null) {
+        break;
+      }
+      if (node.terminal) {
+        longest = i - start + 1;
+      }
+    }
+    return longest;
+  }
+
+  private static final class Node {
+    private final Map<Character, Node> children = new HashMap<Character, Node>(4);
+
+    private boolean terminal;
+  }
+}
@@ -26,11 +26,17 @@ package org.helm.notation2.tools;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 import org.helm.chemtoolkit.CTKException;
+import org.helm.notation2.BoundedCache;
 import org.helm.notation2.Chemistry;
 import org.helm.notation2.InterConnections;
 import org.helm.notation2.Monomer;
@@ -73,6 +79,21 @@ public final class Validation {
 
 	private static final Logger LOG = LoggerFactory.getLogger(Validation.class);
 
+	/** maximum number of SMILES verdicts kept */
+	private static final int MAXIMUM_SMILES_VERDICTS = 10000;
+
+	/* verdicts of the chemistry engine by engine and SMILES */
+	private static final BoundedCache<Boolean> SMILES_VERDICTS = new BoundedCache<Boolean>(MAXIMUM_SMILES_VERDICTS, null, false) {
+		@Override
+		protected long weigh(String key, Boolean value) {
+			return 1;
+		}
+	};
+
+	private static final AtomicLong smilesValidations = new AtomicLong();
+
+	private static final Pattern SPECIFIC_CONNECTION = Pattern.compile("\\d+:R\\d-\\d+:R\\d|\\d+:pair-\\d+:pair");
+
 	/**
 	 * Default constructor.
 	 */
@@ -132,7 +153,8 @@ public final class Validation {
 	}
 
 	/**
-	 * method to validate a list of MonomerNotation objects
+	 * method to validate a list of MonomerNotation objects, the verdict of
+	 * each distinct unit is computed only once per call
 	 *
 	 * @param mon
 	 *            List of MonomerNotation objects
@@ -146,8 +168,16 @@ public final class Validation {
 	 */
 	protected static boolean validateMonomers(List<MonomerNotation> mon) throws ChemistryException,
 			MonomerLoadingException, org.helm.notation2.parser.exceptionparser.NotationException {
+		Map<String, Boolean> verdicts = new HashMap<String, Boolean>();
 		for (MonomerNotation monomerNotation : mon) {
-			if (!(isMonomerValid(monomerNotation.getUnit(), monomerNotation.getType()))) {
+			/* the polymer type contains no separator */
+			String key = monomerNotation.getType() + "|" + monomerNotation.getUnit();
+			Boolean valid = verdicts.get(key);
+			if (valid == null) {
+				valid = isMonomerValid(monomerNotation.getUnit(), monomerNotation.getType());
+				verdicts.put(key, valid);
+			}
+			if (!valid) {
 				return false;
 			}
 		}
@@ -174,6 +204,8 @@ public final class Validation {
 
 			/* Hash-Map to save only specific InterConnections */
 			InterConnections interconnection = new InterConnections();
+			/* positions of the monomers by polymer id, built on first use */
+			Map<String, Map<String, List<Integer>>> positions = new HashMap<String, Map<String, List<Integer>>>();
 			boolean specific = true;
 			/* check for each single connection */
 			for (ConnectionNotation connection : listConnections) {
@@ -223,35 +255,34 @@ public final class Validation {
 
 				} /* Unspecific Interaction */ else {
 					List<Integer> listMonomerOccurencesOne = getOccurencesOfMonomerNotation(sourceUnit,
-							connection.getSourceId(), helm2notation);
+							connection.getSourceId(), helm2notation, positions);
 					List<Integer> listMonomerOccurencesTwo = getOccurencesOfMonomerNotation(targetUnit,
-							connection.getTargetId(), helm2notation);
-					/* ? - section has to be included */
-					if (listMonomerOccurencesOne.isEmpty()) {
-						for (Integer occurenceTwo : listMonomerOccurencesTwo) {
-							List<Monomer> listMonomersTwo = getAllMonomers(target.getMonomerNotation(occurenceTwo),
-									occurenceTwo);
-							checkSingleAttachment(listMonomersTwo, connection.getrGroupTarget(), helm2notation,
-									connection, interconnection, connection.getTargetId().getId());
-						}
-					}
+							connection.getTargetId(), helm2notation, positions);
+					/*
+					 * every occurence is checked once, unspecific connections
+					 * are not saved, so every pair of occurences is checked
+					 * against the same attachment points and it is enough to
+					 * check each pair of distinct monomers once
+					 */
+					Set<Monomer> monomersOne = Collections.newSetFromMap(new IdentityHashMap<Monomer, Boolean>());
 					for (Integer occurenceOne : listMonomerOccurencesOne) {
-						/* get Monomers */
 						List<Monomer> listMonomersOne = getAllMonomers(source.getMonomerNotation(occurenceOne),
 								occurenceOne);
 						checkSingleAttachment(listMonomersOne, connection.getrGroupSource(), helm2notation, connection,
 								interconnection, connection.getSourceId().getId());
-						/* check single attachment */
-						for (Integer occurenceTwo : listMonomerOccurencesTwo) {
-							List<Monomer> listMonomersTwo = getAllMonomers(target.getMonomerNotation(occurenceTwo),
-									occurenceTwo);
-							checkSingleAttachment(listMonomersTwo, connection.getrGroupTarget(), helm2notation,
-									connection, interconnection, connection.getTargetId().getId());
-							checkAttachment(listMonomersOne, listMonomersTwo, connection, helm2notation,
-									interconnection, false);
-
-						}
+						monomersOne.addAll(listMonomersOne);
 					}
+					/* ? - section has to be included */
+					Set<Monomer> monomersTwo = Collections.newSetFromMap(new IdentityHashMap<Monomer, Boolean>());
+					for (Integer occurenceTwo : listMonomerOccurencesTwo) {
+						List<Monomer> listMonomersTwo = getAllMonomers(target.getMonomerNotation(occurenceTwo),
+								occurenceTwo);
+						checkSingleAttachment(listMonomersTwo, connection.getrGroupTarget(), helm2notation,
+								connection, interconnection, connection.getTargetId().getId());
+						monomersTwo.addAll(listMonomersTwo);
+					}
+					checkAttachment(new ArrayList<Monomer>(monomersOne), new ArrayList<Monomer>(monomersTwo),
+							connection, helm2notation, interconnection, false);
 				}
 			}
 
@@ -275,7 +306,7 @@ public final class Validation {
 		String connection = connectionNotation.getSourceUnit() + ":" + connectionNotation.getrGroupSource() + "-"
 				+ connectionNotation.getTargetUnit() + ":" + connectionNotation.getrGroupTarget();
 		/* check for specific interaction */
-		if (connection.matches("\\d+:R\\d-\\d+:R\\d|\\d+:pair-\\d+:pair")) {
+		if (SPECIFIC_CONNECTION.matcher(connection).matches()) {
 			return true;
 		}
 		return false;
@@ -290,13 +321,15 @@ public final class Validation {
 	 *            HELMEntity of the sourceUnit
 	 * @param helm2notation
 	 *            HELM2Notation object
+	 * @param positions
+	 *            positions of the monomers by polymer id
 	 * @return occurences of the MonomerNotation
 	 * @throws org.helm.notation2.parser.exceptionparser.NotationException
 	 * @throws AttachmentException
 	 *             if attachment is not valid
 	 */
 	private static List<Integer> getOccurencesOfMonomerNotation(String sourceUnit, HELMEntity e,
-			HELM2Notation helm2notation)
+			HELM2Notation helm2notation, Map<String, Map<String, List<Integer>>> positions)
 					throws org.helm.notation2.parser.exceptionparser.NotationException, AttachmentException {
 		List<Integer> occurences = new ArrayList<Integer>();
 
@@ -314,7 +347,7 @@ public final class Validation {
 					return occurences;
 				}
 
-				occurences.addAll(findElementInPolymer(sourceUnit, polymerNotation));
+				occurences.addAll(findElementInPolymer(sourceUnit, polymerNotation, positions));
 				/* the specified monomer does not exist in the polymer */
 				if (occurences.isEmpty()) {
 					throw new AttachmentException("Monomer is not there");
@@ -334,7 +367,7 @@ public final class Validation {
 						occurences.add(i);
 					} catch (NumberFormatException ex1) {
 						// have to be found in polymer
-						List<Integer> foundMonomers = findElementInPolymer(e1, polymerNotation);
+						List<Integer> foundMonomers = findElementInPolymer(e1, polymerNotation, positions);
 						if (foundMonomers.size() > 0) {
 							elements.put(e1, "1");
 							occurences.addAll(foundMonomers);
@@ -351,28 +384,53 @@ public final class Validation {
 		}
 	}
 
-	private static List<Integer> findElementInPolymer(String e1, PolymerNotation polymerNotation) {
-		List occurences = new ArrayList<Integer>();
+	private static List<Integer> findElementInPolymer(String e1, PolymerNotation polymerNotation,
+			Map<String, Map<String, List<Integer>>> positions) {
+		Map<String, List<Integer>> index = positions.get(polymerNotation.getPolymerID().getId());
+		if (index == null) {
+			index = indexPolymer(polymerNotation);
+			positions.put(polymerNotation.getPolymerID().getId(), index);
+		}
+		List<Integer> occurences = index.get(e1);
+		if (occurences == null) {
+			return Collections.emptyList();
+		}
+		return occurences;
+	}
+
+	/**
+	 * method to collect the positions of all monomers of the given polymer
+	 *
+	 * @param polymerNotation
+	 *            PolymerNotation
+	 * @return positions by monomer
+	 */
+	private static Map<String, List<Integer>> indexPolymer(PolymerNotation polymerNotation) {
+		Map<String, List<Integer>> index = new HashMap<String, List<Integer>>();
 		int j = 0;
-		for (int i = 0; i < polymerNotation.getPolymerElements().getListOfElements().size(); i++) {
-			MonomerNotation el = polymerNotation.getPolymerElements().getListOfElements().get(i);
+		List<MonomerNotation> elements = polymerNotation.getPolymerElements().getListOfElements();
+		for (int i = 0; i < elements.size(); i++) {
+			MonomerNotation el = elements.get(i);
 			if (el instanceof MonomerNotationUnitRNA) {
 				for (MonomerNotationUnit unit : ((MonomerNotationUnitRNA) el).getContents()) {
 					j += 1;
-					if (unit.getUnit().equals(e1)) {
-						occurences.add(j);
-					}
-
+					addPosition(index, unit.getUnit(), j);
 				}
 			} else {
 				j += 1;
-				if (polymerNotation.getPolymerElements().getListOfElements().get(i).getUnit().equals(e1)) {
-					occurences.add(i + 1);
-				}
+				addPosition(index, el.getUnit(), i + 1);
 			}
 		}
+		return index;
+	}
 
-		return occurences;
+	private static void addPosition(Map<String, List<Integer>> index, String unit, int position) {
+		List<Integer> occurences = index.get(unit);
+		if (occurences == null) {
+			occurences = new ArrayList<Integer>();
+			index.put(unit, occurences);
+		}
+		occurences.add(position);
 	}
 
 	/**
@@ -455,30 +513,30 @@ public final class Validation {
 	 */
 	private static boolean isMonomerValid(String str, String type) throws ChemistryException, MonomerLoadingException,
 			org.helm.notation2.parser.exceptionparser.NotationException {
-		LOG.info("Is Monomer valid: " + str);
+		LOG.debug("Is Monomer valid: {}", str);
 		MonomerFactory monomerFactory = null;
 		monomerFactory = MonomerFactory.getInstance();
 
 		/* Search in Database */
 		MonomerStore monomerStore = monomerFactory.getMonomerStore();
 		if (monomerStore.hasMonomer(type, str)) {
-			LOG.info("Monomer is located in the database: " + str);
+			LOG.debug("Monomer is located in the database: {}", str);
 			return true;
 		} else if (str.charAt(0) == '[' && str.charAt(str.length() - 1) == ']'
 				&& monomerStore.hasMonomer(type, str.substring(1, str.length() - 1))) {
-			LOG.info("Monomer is located in the database: " + str);
+			LOG.debug("Monomer is located in the database: {}", str);
 			return true;
 		} /* polymer type is Blob: accept all */ else if (type.equals("BLOB")) {
-			LOG.info("Blob's Monomer Type: " + str);
+			LOG.debug("Blob's Monomer Type: {}", str);
 			return true;
 		} /* new unknown monomer for peptide */ else if (type.equals("PEPTIDE") && str.equals("X")) {
-			LOG.info("Unknown monomer type for peptide: " + str);
+			LOG.debug("Unknown monomer type for peptide: {}", str);
 			return true;
 		} /* new unknown monomer for peptide */ else if (type.equals("RNA") && str.equals("N")) {
-			LOG.info("Unknown monomer type for rna: " + str);
+			LOG.debug("Unknown monomer type for rna: {}", str);
 			return true;
 		} /* new unknown types */ else if (str.equals("?") || str.equals("_")) {
-			LOG.info("Unknown types: " + str);
+			LOG.debug("Unknown types: {}", str);
 			return true;
 		} /* nucleotide */ else if (type.equals("RNA")) {
 			List<String> elements = NucleotideParser.getMonomerIDListFromNucleotide(str);
@@ -488,26 +546,68 @@ public final class Validation {
 					if (element.startsWith("[") && element.endsWith("]")) {
 						element = element.substring(1, element.length() - 1);
 					}
-					if (!Chemistry.getInstance().getManipulator().validateSMILES(element)) {
+					if (!isSMILESValid(element)) {
 						return false;
 					}
 				}
 			}
-			LOG.info("Nucleotide type for RNA: " + str);
+			LOG.debug("Nucleotide type for RNA: {}", str);
 			return true;
 
 		}
 
-		LOG.info("SMILES Check");
+		LOG.debug("SMILES Check");
 		/* SMILES Check */
 		if (str.charAt(0) == '[' && str.charAt(str.length() - 1) == ']') {
 			str = str.substring(1, str.length() - 1);
 		}
 
-		return Chemistry.getInstance().getManipulator().validateSMILES(str);
+		return isSMILESValid(str);
 
 	}
 
+	/**
+	 * method to check the given smiles with a pooled manipulator, verdicts of
+	 * the chemistry engine are kept for later checks
+	 *
+	 * @param smiles
+	 *            smiles
+	 * @return true if the smiles is valid, false otherwise
+	 * @throws ChemistryException
+	 *             if the Chemistry Engine can not be initialized
+	 */
+	private static boolean isSMILESValid(String smiles) throws ChemistryException {
+		Chemistry chemistry = Chemistry.getInstance();
+		String key = chemistry.getChemistry() + "|" + smiles;
+		Boolean verdict = SMILES_VERDICTS.get(key);
+		if (verdict != null) {
+			return verdict;
+		}
+		boolean valid;
+		try (Chemistry.ManipulatorLease lease = chemistry.borrowManipulator()) {
+			valid = lease.getManipulator().validateSMILES(smiles);
+		}
+		smilesValidations.incrementAndGet();
+		SMILES_VERDICTS.put(key, valid);
+		return valid;
+	}
+
+	/**
+	 * method to remove all kept SMILES verdicts
+	 */
+	public static void clearSMILESVerdicts() {
+		SMILES_VERDICTS.clear();
+	}
+
+	/**
+	 * method to get the number of SMILES checked by the chemistry engine
+	 *
+	 * @return number of SMILES validations
+	 */
+	static long getSMILESValidationCount() {
+		return smilesValidations.get();
+	}
+
 	/**
 	 * method to check for one connection if the two polymer ids exist
 	 *
@@ -701,72 +801,68 @@ public final class Validation {
 		if (listMonomersOne.size() > 1 || listMonomersTwo.size() > 1) {
 			specific = false;
 		}
-		for (Monomer monomerOne : listMonomersOne) {
-			for (Monomer monomerTwo : listMonomersTwo) {
-				/* Rna-Basepair-hydrogen bonds */
-				if (monomerOne.getPolymerType().equals("RNA") && monomerTwo.getPolymerType().equals("RNA")
-						&& not.getrGroupSource().equals("pair") && not.getrGroupTarget().equals("pair")) {
-					LOG.info("RNA strand connection");
-
-					if (!(monomerOne.getMonomerType().equals("Branch")
-							| monomerTwo.getMonomerType().equals("Branch"))) {
-						LOG.info("RNA strand connection is not valid");
-						throw new AttachmentException("RNA strand connection is not valid");
-					}
-
-					/*
-					 * is the attachment point already occupied by another
-					 * monomer?
-					 */
-					String detailsource = not.getSourceUnit() + "$" + not.getrGroupSource();
-					String detailtarget = not.getTargetUnit() + "$" + not.getrGroupTarget();
-
-					/*
-					 * Is the attachment point already occupied by another
-					 * monomer
-					 */
-					/* Intra connections */
-					if (helm2notation.getSimplePolymer(not.getSourceId().getId()).getMapIntraConnection()
-							.containsKey(detailsource)) {
-						LOG.info("Attachment point is already occupied");
-						throw new AttachmentException("Attachment point is already occupied");
-					}
-					if (helm2notation.getSimplePolymer(not.getTargetId().getId()).getMapIntraConnection()
-							.containsKey(detailtarget)) {
-						LOG.info("Attachment point is already occupied");
-						throw new AttachmentException("Attachment point is already occupied");
+		if (listMonomersOne.isEmpty() || listMonomersTwo.isEmpty()) {
+			return;
+		}
+		/* the attachment points only depend on the connection, not on the monomers */
+		String detailsource = not.getSourceUnit() + "$" + not.getrGroupSource();
+		String detailtarget = not.getTargetUnit() + "$" + not.getrGroupTarget();
+
+		/* Rna-Basepair-hydrogen bonds */
+		if (not.getrGroupSource().equals("pair") && not.getrGroupTarget().equals("pair")) {
+			boolean strandConnection = false;
+			for (Monomer monomerOne : listMonomersOne) {
+				for (Monomer monomerTwo : listMonomersTwo) {
+					if (monomerOne.getPolymerType().equals("RNA") && monomerTwo.getPolymerType().equals("RNA")) {
+						LOG.info("RNA strand connection");
+						if (!(monomerOne.getMonomerType().equals("Branch")
+								| monomerTwo.getMonomerType().equals("Branch"))) {
+							LOG.info("RNA strand connection is not valid");
+							throw new AttachmentException("RNA strand connection is not valid");
+						}
+						strandConnection = true;
 					}
 				}
+			}
 
-				String detailsource = not.getSourceUnit() + "$" + not.getrGroupSource();
-				String detailtarget = not.getTargetUnit() + "$" + not.getrGroupTarget();
-
-				/* Inter connections */
-				detailsource = not.getSourceId().getId() + "$" + detailsource;
-
-				detailtarget = not.getTargetId().getId() + "$" + detailtarget;
-
-				/* check */
-				if (interconnection.hasKey(detailsource)) {
+			/*
+			 * Is the attachment point already occupied by another monomer
+			 */
+			/* Intra connections */
+			if (strandConnection) {
+				if (helm2notation.getSimplePolymer(not.getSourceId().getId()).getMapIntraConnection()
+						.containsKey(detailsource)) {
 					LOG.info("Attachment point is already occupied");
 					throw new AttachmentException("Attachment point is already occupied");
 				}
-
-				if (interconnection.hasKey(detailtarget)) {
+				if (helm2notation.getSimplePolymer(not.getTargetId().getId()).getMapIntraConnection()
+						.containsKey(detailtarget)) {
 					LOG.info("Attachment point is already occupied");
 					throw new AttachmentException("Attachment point is already occupied");
 				}
-				/* Inter connections */
-				detailsource = not.getSourceId().getId() + "$" + not.getSourceUnit() + "$" + not.getrGroupSource();
-				detailtarget = not.getTargetId().getId() + "$" + not.getTargetUnit() + "$" + not.getrGroupTarget();
-
-				if (specific) {
-					/* save only specific interactions */
-					interconnection.addConnection(detailsource, "");
-					interconnection.addConnection(detailtarget, "");
-				}
 			}
 		}
+
+		/* Inter connections */
+		detailsource = not.getSourceId().getId() + "$" + detailsource;
+		detailtarget = not.getTargetId().getId() + "$" + detailtarget;
+
+		/* check */
+		if (interconnection.hasKey(detailsource)) {
+			LOG.info("Attachment point is already occupied");
+			throw new AttachmentException("Attachment point is already occupied");
+		}
+
+		if (interconnection.hasKey(detailtarget)) {
+			LOG.info("Attachment point is already occupied");
+			throw new AttachmentException("Attachment point is already occupied");
+		}
+
+		if (specific) {
+			/* save only specific interactions */
+			interconnection.addConnection(detailsource, "");
+			interconnection.addConnection(detailtarget, "");
+		}
 	}
 
 	/**
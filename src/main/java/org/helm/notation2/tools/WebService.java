@@ -25,9 +25,21 @@ package org.helm.notation2.tools;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.helm.chemtoolkit.CTKException;
 import org.helm.notation2.Attachment;
@@ -73,6 +85,12 @@ public class WebService {
 	/** The Logger for this class */
 	private static final Logger LOG = LoggerFactory.getLogger(WebService.class);
 
+	private int batchThreads = Runtime.getRuntime().availableProcessors();
+
+	private ExecutorService batchExecutor;
+
+	private ThreadPoolExecutor defaultBatchExecutor;
+
 	/**
 	 * method to get the XHELMRootElement of a document as a string
 	 *
@@ -112,9 +130,8 @@ public class WebService {
 			throws MonomerLoadingException, IOException, MonomerException, ChemistryException {
 		for (Monomer monomer : monomerStore.getAllMonomersList()) {
 			MonomerFactory.getInstance().getMonomerStore().addNewMonomer(monomer);
-			// save monomer db to local file after successful update //
-			MonomerFactory.getInstance().saveMonomerCache();
 		}
+		// new monomers are temporary and not part of the saved monomer db //
 	}
 
 	/**
@@ -664,4 +681,406 @@ public class WebService {
 		return SMILES.convertMolToSMILESWithAtomMapping(molfile, attachments);
 	}
 
+	/**
+	 * method to set the number of threads used for batch calls; only used if
+	 * no executor is set
+	 *
+	 * @param batchThreads
+	 *            number of threads
+	 */
+	public synchronized void setBatchThreads(int batchThreads) {
+		if (batchThreads < 1) {
+			throw new IllegalArgumentException("At least one thread is required for batch calls");
+		}
+		this.batchThreads = batchThreads;
+		if (defaultBatchExecutor != null) {
+			defaultBatchExecutor.setMaximumPoolSize(Math.max(batchThreads, defaultBatchExecutor.getCorePoolSize()));
+			defaultBatchExecutor.setCorePoolSize(batchThreads);
+			defaultBatchExecutor.setMaximumPoolSize(batchThreads);
+		}
+	}
+
+	public synchronized int getBatchThreads() {
+		return batchThreads;
+	}
+
+	/**
+	 * method to get the executor for batch calls, if no executor is set, one
+	 * thread pool with {@link #getBatchThreads()} threads is shared by all
+	 * batch calls of this WebService; its idle threads terminate
+	 *
+	 * @return executor for batch calls
+	 */
+	private synchronized ExecutorService getBatchExecutor() {
+		if (batchExecutor != null) {
+			return batchExecutor;
+		}
+		if (defaultBatchExecutor == null) {
+			defaultBatchExecutor = new ThreadPoolExecutor(batchThreads, batchThreads, 60L, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						private final AtomicInteger count = new AtomicInteger();
+
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "helm-batch-" + count.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			defaultBatchExecutor.allowCoreThreadTimeOut(true);
+		}
+		return defaultBatchExecutor;
+	}
+
+	/**
+	 * method to set the executor used for batch calls, the executor is not
+	 * shut down by the WebService; if no executor is set, a thread pool with
+	 * {@link #getBatchThreads()} threads is shared by all batch calls
+	 *
+	 * @param batchExecutor
+	 *            executor for batch calls, can be null
+	 */
+	public synchronized void setBatchExecutor(ExecutorService batchExecutor) {
+		this.batchExecutor = batchExecutor;
+	}
+
+	/**
+	 * method to validate the HELM inputs, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the validation result, true if the HELM input is valid or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<Boolean>> validateHELM(Iterator<String> notations) {
+		return processBatch(notations, new NotationTask<Boolean>() {
+			@Override
+			public Boolean call(String notation) throws Exception {
+				validateHELM(notation);
+				return Boolean.TRUE;
+			}
+		});
+	}
+
+	/**
+	 * method to validate the HELM inputs, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the validation result, true if the HELM input is valid or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<Boolean>> validateHELM(List<String> notations) {
+		return validateHELM(notations.iterator());
+	}
+
+	/**
+	 * method to convert the HELM inputs into canonical HELM, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the canonical HELM or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<String>> convertStandardHELMToCanonicalHELM(Iterator<String> notations) {
+		return processBatch(notations, new NotationTask<String>() {
+			@Override
+			public String call(String notation) throws Exception {
+				return convertStandardHELMToCanonicalHELM(notation);
+			}
+		});
+	}
+
+	/**
+	 * method to convert the HELM inputs into canonical HELM, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the canonical HELM or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<String>> convertStandardHELMToCanonicalHELM(List<String> notations) {
+		return convertStandardHELMToCanonicalHELM(notations.iterator());
+	}
+
+	/**
+	 * method to calculate the extinction coefficient of the non-ambiguous HELM inputs, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the extinction coefficient or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<Float>> calculateExtinctionCoefficient(Iterator<String> notations) {
+		return processBatch(notations, new NotationTask<Float>() {
+			@Override
+			public Float call(String notation) throws Exception {
+				return calculateExtinctionCoefficient(notation);
+			}
+		});
+	}
+
+	/**
+	 * method to calculate the extinction coefficient of the non-ambiguous HELM inputs, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the extinction coefficient or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<Float>> calculateExtinctionCoefficient(List<String> notations) {
+		return calculateExtinctionCoefficient(notations.iterator());
+	}
+
+	/**
+	 * method to generate FASTA-Formats for the HELM inputs, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the FASTA containing all rna and peptide sequences or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<String>> generateFasta(Iterator<String> notations) {
+		return processBatch(notations, new NotationTask<String>() {
+			@Override
+			public String call(String notation) throws Exception {
+				return generateFasta(notation);
+			}
+		});
+	}
+
+	/**
+	 * method to generate FASTA-Formats for the HELM inputs, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the FASTA containing all rna and peptide sequences or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<String>> generateFasta(List<String> notations) {
+		return generateFasta(notations.iterator());
+	}
+
+	/**
+	 * method to calculate the molecular weight of the non-ambiguous HELM inputs, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the molecular weight or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<Double>> calculateMolecularWeight(Iterator<String> notations) {
+		return processBatch(notations, new NotationTask<Double>() {
+			@Override
+			public Double call(String notation) throws Exception {
+				return calculateMolecularWeight(notation);
+			}
+		});
+	}
+
+	/**
+	 * method to calculate the molecular weight of the non-ambiguous HELM inputs, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the molecular weight or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<Double>> calculateMolecularWeight(List<String> notations) {
+		return calculateMolecularWeight(notations.iterator());
+	}
+
+	/**
+	 * method to calculate the molecular formula of the non-ambiguous HELM inputs, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the molecular formula or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<String>> getMolecularFormula(Iterator<String> notations) {
+		return processBatch(notations, new NotationTask<String>() {
+			@Override
+			public String call(String notation) throws Exception {
+				return getMolecularFormula(notation);
+			}
+		});
+	}
+
+	/**
+	 * method to calculate the molecular formula of the non-ambiguous HELM inputs, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the molecular formula or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<String>> getMolecularFormula(List<String> notations) {
+		return getMolecularFormula(notations.iterator());
+	}
+
+	/**
+	 * method to calculate the molecular properties of the non-ambiguous HELM inputs, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the molecule properties: molecular formula, molecular weight, exact mass, extinction coefficient or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<List<String>>> getMolecularProperties(Iterator<String> notations) {
+		return processBatch(notations, new NotationTask<List<String>>() {
+			@Override
+			public List<String> call(String notation) throws Exception {
+				return getMolecularProperties(notation);
+			}
+		});
+	}
+
+	/**
+	 * method to calculate the molecular properties of the non-ambiguous HELM inputs, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the molecule properties: molecular formula, molecular weight, exact mass, extinction coefficient or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<List<String>>> getMolecularProperties(List<String> notations) {
+		return getMolecularProperties(notations.iterator());
+	}
+
+	/**
+	 * method to generate canonical smiles for the HELM inputs, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the canonical smiles or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<String>> generateCanSMILESForHELM2(Iterator<String> notations) {
+		return processBatch(notations, new NotationTask<String>() {
+			@Override
+			public String call(String notation) throws Exception {
+				return generateCanSMILESForHELM2(notation);
+			}
+		});
+	}
+
+	/**
+	 * method to generate canonical smiles for the HELM inputs, the inputs are processed in parallel
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @return for each input in the same order the canonical smiles or the
+	 *         exception thrown for this input
+	 */
+	public List<BatchResult<String>> generateCanSMILESForHELM2(List<String> notations) {
+		return generateCanSMILESForHELM2(notations.iterator());
+	}
+
+	/**
+	 * method to process all given notations with the given task; the inputs
+	 * are read lazily and at most twice the number of batch threads are in
+	 * flight at a time; xHELM inputs change the MonomerFactory and are
+	 * therefore processed sequentially after all other inputs
+	 *
+	 * @param notations
+	 *            HELM inputs
+	 * @param task
+	 *            task for a single input
+	 * @return results in the order of the inputs
+	 */
+	private <T> List<BatchResult<T>> processBatch(Iterator<String> notations, final NotationTask<T> task) {
+		LOG.info("Batch of HELM inputs is starting");
+		ExecutorService executor = getBatchExecutor();
+		int window = 2 * getBatchThreads();
+
+		List<BatchResult<T>> results = new ArrayList<BatchResult<T>>();
+		List<Integer> xhelmPositions = new ArrayList<Integer>();
+		List<String> xhelmInputs = new ArrayList<String>();
+		/* LinkedList permits the null placeholders and null inputs */
+		Deque<Future<BatchResult<T>>> pending = new LinkedList<Future<BatchResult<T>>>();
+		Deque<String> pendingInputs = new LinkedList<String>();
+		try {
+			while (notations.hasNext()) {
+				final String notation = notations.next();
+				if (notation == null || notation.contains("<Xhelm>")) {
+					xhelmPositions.add(results.size() + pending.size());
+					xhelmInputs.add(notation);
+					/* placeholder in the order of the inputs */
+					pending.add(null);
+					pendingInputs.add(notation);
+				} else {
+					if (pending.size() >= window) {
+						completeHead(pending, pendingInputs, results);
+					}
+					pending.add(executor.submit(new Callable<BatchResult<T>>() {
+						@Override
+						public BatchResult<T> call() {
+							return execute(task, notation);
+						}
+					}));
+					pendingInputs.add(notation);
+				}
+			}
+			while (!pending.isEmpty()) {
+				completeHead(pending, pendingInputs, results);
+			}
+		} finally {
+			for (Future<BatchResult<T>> future : pending) {
+				if (future != null) {
+					future.cancel(true);
+				}
+			}
+		}
+
+		/* xHELM inputs */
+		for (int i = 0; i < xhelmPositions.size(); i++) {
+			results.set(xhelmPositions.get(i), execute(task, xhelmInputs.get(i)));
+		}
+		LOG.info("Batch of " + results.size() + " HELM inputs is finished");
+		return results;
+	}
+
+	/**
+	 * method to wait for the oldest pending input of a batch call and to add
+	 * its result, pending xHELM inputs get a placeholder
+	 */
+	private static <T> void completeHead(Deque<Future<BatchResult<T>>> pending, Deque<String> pendingInputs,
+			List<BatchResult<T>> results) {
+		Future<BatchResult<T>> future = pending.poll();
+		String input = pendingInputs.poll();
+		if (future == null) {
+			results.add(null);
+			return;
+		}
+		try {
+			results.add(future.get());
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			results.add(BatchResult.<T> failure(input, (cause instanceof Exception) ? (Exception) cause : e));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			results.add(BatchResult.<T> failure(input, e));
+		}
+	}
+
+	private static <T> BatchResult<T> execute(NotationTask<T> task, String notation) {
+		try {
+			if (notation == null) {
+				throw new ValidationException("HELM input is null");
+			}
+			return BatchResult.success(notation, task.call(notation));
+		} catch (Exception e) {
+			LOG.error("Batch input failed: " + e.getMessage());
+			return BatchResult.failure(notation, e);
+		}
+	}
+
+	/**
+	 * Task for a single input of a batch call
+	 */
+	private interface NotationTask<T> {
+		T call(String notation) throws Exception;
+	}
+
 }
@@ -45,7 +45,6 @@ import org.helm.notation2.AttachmentLoader;
 import org.helm.notation2.Monomer;
 import org.helm.notation2.exception.EncoderException;
 import org.helm.notation2.exception.MonomerLoadingException;
-import org.helm.notation2.tools.MolfileEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -243,7 +242,7 @@ public class MonomerWSLoader {
 				case "molfile":
 					parser.nextToken();
 					try {
-						currentMonomer.setMolfile(MolfileEncoder.decode(parser.getText()));
+						currentMonomer.setEncodedMolfile(parser.getText());
 					} catch (EncoderException e) {
 						LOG.info("Monomer file was not in the Base64-Format");
 						currentMonomer.setMolfile(parser.getText());
@@ -0,0 +1,131 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BoundedCacheTest {
+
+  private static BoundedCache<String> createCache(long maximumWeight, boolean writeThrough) {
+    return new BoundedCache<String>(maximumWeight, ".txt", writeThrough) {
+      @Override
+      protected long weigh(String key, String value) {
+        return value.length();
+      }
+
+      @Override
+      protected String read(File file, String key) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+      }
+
+      @Override
+      protected void write(File file, String key, String value) throws IOException {
+        Files.write(file.toPath(), value.getBytes(StandardCharsets.UTF_8));
+      }
+    };
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntryIsEvicted() {
+    BoundedCache<String> cache = createCache(4, false);
+    cache.put("a", "aa");
+    cache.put("b", "bb");
+    Assert.assertEquals(cache.get("a"), "aa");
+    cache.put("c", "cc");
+    Assert.assertNull(cache.get("b"));
+    Assert.assertEquals(cache.get("a"), "aa");
+    Assert.assertEquals(cache.getWeight(), 4);
+    Assert.assertEquals(cache.getEvictionCount(), 1);
+    Assert.assertEquals(cache.getHitCount(), 2);
+    Assert.assertEquals(cache.getMissCount(), 1);
+
+    cache.put("d", "ddddd");
+    Assert.assertEquals(cache.size(), 2);
+    Assert.assertNull(cache.get("d"));
+
+    cache.remove("a");
+    Assert.assertNull(cache.get("a"));
+    Assert.assertEquals(cache.getWeight(), 2);
+  }
+
+  @Test
+  public void testEvictedEntriesAreSpilled() throws Exception {
+    File directory = Files.createTempDirectory("helm-bounded-cache").toFile();
+    try {
+      BoundedCache<String> cache = createCache(2, false);
+      cache.setDiskStore(directory);
+      cache.put("a", "aa");
+      Assert.assertEquals(directory.listFiles().length, 0);
+      cache.put("b", "bb");
+      Assert.assertEquals(directory.listFiles().length, 1);
+      Assert.assertEquals(cache.get("a"), "aa");
+      Assert.assertEquals(cache.getDiskHitCount(), 1);
+      cache.clearDiskStore();
+      Assert.assertEquals(directory.listFiles().length, 0);
+    } finally {
+      for (File file : directory.listFiles()) {
+        file.delete();
+      }
+      directory.delete();
+    }
+  }
+
+  @Test
+  public void testWriteThroughKeepsEntriesAfterClear() throws Exception {
+    File directory = Files.createTempDirectory("helm-bounded-cache").toFile();
+    try {
+      BoundedCache<String> cache = createCache(10, true);
+      cache.setDiskStore(directory);
+      cache.put("a", "aa");
+      Assert.assertEquals(directory.listFiles().length, 1);
+      cache.clear();
+      Assert.assertEquals(cache.get("a"), "aa");
+      Assert.assertEquals(cache.getDiskHitCount(), 1);
+      Assert.assertEquals(cache.size(), 1);
+    } finally {
+      for (File file : directory.listFiles()) {
+        file.delete();
+      }
+      directory.delete();
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testDiskStoreNeedsFileExtension() throws Exception {
+    BoundedCache<String> cache = new BoundedCache<String>(10, null, false) {
+      @Override
+      protected long weigh(String key, String value) {
+        return 1;
+      }
+    };
+    cache.setDiskStore(new File(System.getProperty("java.io.tmpdir")));
+  }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.helm.chemtoolkit.AbstractChemistryManipulator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ChemistryTest {
+
+  @Test
+  public void testBorrowManipulatorIsReentrant() throws Exception {
+    Chemistry chemistry = Chemistry.getInstance();
+    try (Chemistry.ManipulatorLease outer = chemistry.borrowManipulator()) {
+      Assert.assertSame(chemistry.getManipulator(), outer.getManipulator());
+      try (Chemistry.ManipulatorLease inner = chemistry.borrowManipulator()) {
+        Assert.assertSame(inner.getManipulator(), outer.getManipulator());
+      }
+      Assert.assertSame(chemistry.getManipulator(), outer.getManipulator());
+    }
+  }
+
+  @Test
+  public void testPoolIsBounded() throws Exception {
+    final Chemistry chemistry = Chemistry.getInstance();
+    int size = Chemistry.getManipulatorPoolSize();
+    Chemistry.setManipulatorPoolSize(1);
+    try {
+      final Chemistry.ManipulatorLease lease = chemistry.borrowManipulator();
+      final AtomicReference<AbstractChemistryManipulator> borrowed = new AtomicReference<AbstractChemistryManipulator>();
+      Thread other = new Thread() {
+        @Override
+        public void run() {
+          try (Chemistry.ManipulatorLease otherLease = chemistry.borrowManipulator()) {
+            borrowed.set(otherLease.getManipulator());
+          } catch (Exception e) {
+            throw new IllegalStateException(e);
+          }
+        }
+      };
+      other.start();
+      /* wait until the other thread is blocked by the exhausted pool */
+      while (other.getState() != Thread.State.WAITING && other.isAlive()) {
+        Thread.yield();
+      }
+      Assert.assertTrue(other.isAlive());
+      AbstractChemistryManipulator manipulator = lease.getManipulator();
+      long waited = Chemistry.getManipulatorWaitTimeNanos();
+      chemistry.returnManipulator(lease);
+      other.join();
+      Assert.assertSame(borrowed.get(), manipulator);
+      Assert.assertTrue(Chemistry.getManipulatorWaitTimeNanos() > waited);
+    } finally {
+      Chemistry.setManipulatorPoolSize(size);
+    }
+  }
+
+}
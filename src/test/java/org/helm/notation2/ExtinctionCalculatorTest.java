@@ -28,6 +28,8 @@ import static org.testng.AssertJUnit.assertEquals;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.helm.chemtoolkit.AbstractChemistryManipulator;
 import org.helm.notation2.calculation.ExtinctionCoefficient;
@@ -73,6 +75,25 @@ public class ExtinctionCalculatorTest {
 				.setScale(2, BigDecimal.ROUND_DOWN).floatValue(), f);
 	}
 
+	@Test
+	public void testCalculationOfSeveralNotations()
+			throws ParserException, JDOMException, ExtinctionCoefficientException, ChemistryException {
+		List<HELM2Notation> notations = new ArrayList<HELM2Notation>();
+		notations.add(HELM2NotationUtils.readNotation("RNA1{P.R(A)P.R([5meC])P.R(G)P.[mR](A)}$$$$V2.0"));
+		notations.add(HELM2NotationUtils.readNotation("RNA1{R(U)P.R(T)P.R(C)P.R(C)P.R(A)}$$$$V2.0"));
+		notations.add(HELM2NotationUtils.readNotation("PEPTIDE1{W.Y.C.A.C}$$$$V2.0"));
+		notations.add(HELM2NotationUtils.readNotation("CHEM1{[MCC]}|RNA1{R(U)}|BLOB1{*}$$$$V2.0"));
+		ExtinctionCoefficient calculator = ExtinctionCoefficient.getInstance();
+		float[] result = calculator.calculate(notations, ExtinctionCoefficient.PEPTIDE_UNIT_TYPE);
+		Assert.assertEquals(result.length, notations.size());
+		for (int i = 0; i < notations.size(); i++) {
+			Assert.assertEquals(result[i], calculator.calculate(notations.get(i), ExtinctionCoefficient.PEPTIDE_UNIT_TYPE));
+		}
+		Assert.assertEquals(result[2], 7115.0f);
+		Assert.assertEquals(BigDecimal.valueOf(calculator.calculate(notations)[0]).setScale(2, BigDecimal.ROUND_DOWN)
+				.floatValue(), 46.20f);
+	}
+
 	@Test(expectedExceptions = ExtinctionCoefficientException.class)
 	public void testCalculationRepeatingRNA()
 			throws ParserException, JDOMException, ExtinctionCoefficientException, ChemistryException {
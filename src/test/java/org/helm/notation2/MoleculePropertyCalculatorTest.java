@@ -25,12 +25,15 @@ package org.helm.notation2;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.EnumSet;
 
 import org.helm.chemtoolkit.CTKException;
+import org.helm.notation2.calculation.AdditivePropertyCalculator;
 import org.helm.notation2.calculation.MoleculePropertyCalculator;
 import org.helm.notation2.exception.AnalogSequenceException;
 import org.helm.notation2.exception.BuilderMoleculeException;
 import org.helm.notation2.exception.ChemistryException;
+import org.helm.notation2.exception.ExtinctionCoefficientException;
 import org.helm.notation2.exception.FastaFormatException;
 import org.helm.notation2.exception.MonomerException;
 import org.helm.notation2.exception.MonomerLoadingException;
@@ -132,6 +135,62 @@ public class MoleculePropertyCalculatorTest {
     Assert.assertEquals(MoleculePropertyCalculator.getMolecularFormular(HELM2NotationUtils.readNotation(newNotation)), "C51H87N15O14S2");
 
   }
+
+  @Test
+  public void testMoleculePropertiesSubset() throws ParserException, JDOMException, BuilderMoleculeException, CTKException, ExtinctionCoefficientException, ChemistryException {
+    HELM2Notation helm2notation = HELM2NotationUtils.readNotation("PEPTIDE1{A.G.G.G.C.C.K.K.K.K}|CHEM1{[MCC]}$PEPTIDE1,CHEM1,10:R3-1:R1$$$");
+    MoleculeProperty all = MoleculePropertyCalculator.getMoleculeProperties(helm2notation);
+    MoleculeProperty subset =
+        MoleculePropertyCalculator.getMoleculeProperties(helm2notation, EnumSet.of(MoleculePropertyCalculator.Property.MOLECULAR_FORMULA, MoleculePropertyCalculator.Property.EXACT_MASS));
+    Assert.assertEquals(subset.getMolecularFormula(), "C51H87N15O14S2");
+    Assert.assertEquals(subset.getMolecularFormula(), all.getMolecularFormula());
+    Assert.assertEquals(subset.getExactMass(), all.getExactMass(), 1e-6);
+    Assert.assertEquals(all.getMolecularWeight(), MoleculePropertyCalculator.getMolecularWeight(helm2notation), 1e-6);
+    Assert.assertEquals(subset.getMolecularWeight(), 0.0);
+  }
+
+  @Test
+  public void testAdditiveCalculation() throws ParserException, JDOMException, BuilderMoleculeException, CTKException, ExtinctionCoefficientException, ChemistryException {
+    String[] notations =
+        {"PEPTIDE1{A.G.G.G.C.C.K.K.K.K}|CHEM1{[MCC]}$PEPTIDE1,CHEM1,10:R3-1:R1$$$", "CHEM1{[MCC]}|CHEM2{[PEG2]}|CHEM3{[EG]}|CHEM4{[MCC]}$CHEM3,CHEM4,1:R1-1:R1|CHEM2,CHEM1,1:R1-1:R1|CHEM2,CHEM3,1:R2-1:R2$$$",
+            "RNA1{R(G)P.R(A)P.R(G)P.R(G)}|RNA2{R(C)P.R(C)P.R(U)P.R(C)}$$RNA1,RNA2,5:pair-8:pair|RNA1,RNA2,11:pair-2:pair$$", "PEPTIDE1{C.A.A.A.A.C}$PEPTIDE1,PEPTIDE1,1:R3-6:R3$$$",
+            "PEPTIDE1{[dA].G.[meA]}|PEPTIDE2{C.C}$PEPTIDE1,PEPTIDE2,3:R2-1:R1$$$", "PEPTIDE1{G.[C[C@H](N[*])C([*])=O |$;;;_R1;;_R2;$|].G}$$$$"};
+    for (String notation : notations) {
+      HELM2Notation helm2notation = HELM2NotationUtils.readNotation(notation);
+      MoleculeProperty built = MoleculePropertyCalculator.getMoleculeProperties(helm2notation);
+      MoleculePropertyCalculator.setAdditiveCalculation(true);
+      try {
+        MoleculeProperty additive = MoleculePropertyCalculator.getMoleculeProperties(helm2notation);
+        Assert.assertEquals(additive.getMolecularFormula(), built.getMolecularFormula(), notation);
+        Assert.assertEquals(additive.getMolecularWeight(), built.getMolecularWeight(), 1e-6, notation);
+        Assert.assertEquals(additive.getExactMass(), built.getExactMass(), 1e-6, notation);
+        Assert.assertEquals(additive.getExtinctionCoefficient(), built.getExtinctionCoefficient(), 1e-6, notation);
+      } finally {
+        MoleculePropertyCalculator.setAdditiveCalculation(false);
+      }
+    }
+    for (int i = 0; i < notations.length - 1; i++) {
+      Assert.assertNotNull(AdditivePropertyCalculator.calculate(HELM2NotationUtils.readNotation(notations[i]), EnumSet.allOf(MoleculePropertyCalculator.Property.class)), notations[i]);
+    }
+    Assert.assertNull(AdditivePropertyCalculator.calculate(HELM2NotationUtils.readNotation(notations[5]), EnumSet.allOf(MoleculePropertyCalculator.Property.class)));
+  }
+
+  @Test
+  public void testAdditiveResultsAreCachedApart() throws ParserException, JDOMException, BuilderMoleculeException, CTKException, ExtinctionCoefficientException, ChemistryException {
+    HELM2Notation helm2notation = HELM2NotationUtils.readNotation("PEPTIDE1{A.G.C}$$$$");
+    MoleculeResultCache.getInstance().clear();
+    MoleculePropertyCalculator.getMoleculeProperties(helm2notation);
+    Assert.assertEquals(MoleculeResultCache.getInstance().size(), 1);
+    MoleculePropertyCalculator.setAdditiveCalculation(true);
+    try {
+      MoleculePropertyCalculator.getMoleculeProperties(helm2notation);
+      Assert.assertEquals(MoleculeResultCache.getInstance().size(), 2);
+    } finally {
+      MoleculePropertyCalculator.setAdditiveCalculation(false);
+    }
+    MoleculePropertyCalculator.getMoleculeProperties(helm2notation);
+    Assert.assertEquals(MoleculeResultCache.getInstance().size(), 2);
+  }
   
   
   
@@ -0,0 +1,116 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.helm.notation2.calculation.MoleculePropertyCalculator;
+import org.helm.notation2.parser.notation.HELM2Notation;
+import org.helm.notation2.tools.HELM2NotationUtils;
+import org.helm.notation2.tools.SMILES;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MoleculeResultCacheTest {
+
+  @Test
+  public void testCanonicalSMILESIsCached() throws Exception {
+    MoleculeResultCache cache = MoleculeResultCache.getInstance();
+    cache.clear();
+    cache.resetStatistics();
+    HELM2Notation helm2notation = HELM2NotationUtils.readNotation("PEPTIDE1{A.G.C}$$$$");
+    String smiles = SMILES.getCanonicalSMILESForAll(helm2notation);
+    Assert.assertEquals(cache.getHitCount(), 0);
+
+    HELM2Notation annotated = HELM2NotationUtils.readNotation("PEPTIDE1{A.G.C}\"note\"$$$$");
+    Assert.assertEquals(MoleculeResultCache.generateKey(annotated), MoleculeResultCache.generateKey(helm2notation));
+    Assert.assertEquals(SMILES.getCanonicalSMILESForAll(annotated), smiles);
+    Assert.assertEquals(cache.getHitCount(), 1);
+    Assert.assertEquals(cache.getHitRate(), 0.5, 1e-9);
+  }
+
+  @Test
+  public void testPropertiesAreCachedAndFiltered() throws Exception {
+    MoleculeResultCache cache = MoleculeResultCache.getInstance();
+    cache.clear();
+    HELM2Notation helm2notation = HELM2NotationUtils.readNotation("PEPTIDE1{L.P}$$$$");
+    double weight = MoleculePropertyCalculator.getMolecularWeight(helm2notation);
+    cache.resetStatistics();
+    Assert.assertEquals(MoleculePropertyCalculator.getMolecularFormular(helm2notation), "C11H20N2O3");
+    Assert.assertEquals(MoleculePropertyCalculator.getMolecularWeight(helm2notation), weight, 1e-9);
+    Assert.assertEquals(cache.getHitCount(), 2);
+    Assert.assertEquals(cache.getMissCount(), 0);
+  }
+
+  @Test
+  public void testEvictedEntriesAreSpilledToDisk() throws Exception {
+    MoleculeResultCache cache = MoleculeResultCache.getInstance();
+    File directory = Files.createTempDirectory("helm-result-cache").toFile();
+    long maximumWeight = cache.getMaximumWeight();
+    try {
+      cache.clear();
+      cache.setDiskStore(directory);
+      cache.setMaximumWeight(1);
+      cache.putCanonicalSMILES("first", "C");
+      Assert.assertEquals(cache.size(), 0);
+      Assert.assertEquals(cache.getEvictionCount() > 0, true);
+      cache.resetStatistics();
+      cache.setMaximumWeight(maximumWeight);
+      Assert.assertEquals(cache.getCanonicalSMILES("first"), "C");
+      Assert.assertEquals(cache.getDiskHitCount(), 1);
+      cache.clear();
+      Assert.assertNull(cache.getCanonicalSMILES("first"));
+    } finally {
+      cache.setMaximumWeight(maximumWeight);
+      cache.setDiskStore(null);
+      cache.clear();
+      directory.delete();
+    }
+  }
+
+  @Test
+  public void testDiskStoreDropsEntriesOfEarlierRuns() throws Exception {
+    MoleculeResultCache cache = MoleculeResultCache.getInstance();
+    File directory = Files.createTempDirectory("helm-result-cache").toFile();
+    long maximumWeight = cache.getMaximumWeight();
+    try {
+      cache.clear();
+      cache.setDiskStore(directory);
+      cache.setMaximumWeight(1);
+      cache.putCanonicalSMILES("stale", "C");
+      Assert.assertEquals(directory.listFiles().length, 1);
+      cache.setMaximumWeight(maximumWeight);
+      cache.setDiskStore(directory);
+      Assert.assertEquals(directory.listFiles().length, 0);
+      Assert.assertNull(cache.getCanonicalSMILES("stale"));
+    } finally {
+      cache.setMaximumWeight(maximumWeight);
+      cache.setDiskStore(null);
+      cache.clear();
+      directory.delete();
+    }
+  }
+
+}
@@ -0,0 +1,111 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.commons.io.IOUtils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MonomerFactoryTest {
+
+  @Test
+  public void testRequestedSaveIsWrittenOnFlush() throws Exception {
+    MonomerFactory factory = MonomerFactory.getInstance();
+    File directory = Files.createTempDirectory("helm-monomer-cache").toFile();
+    MonomerFactory.setPersistenceDirectory(directory);
+    try {
+      factory.requestMonomerCacheSave();
+      factory.requestMonomerCacheSave();
+      factory.flushMonomerCache();
+
+      Assert.assertTrue(MonomerFactory.getPersistenceFile(MonomerFactory.MONOMER_CACHE_FILE_NAME).isFile());
+      Assert.assertTrue(MonomerFactory.getPersistenceFile(MonomerFactory.MONOMER_SNAPSHOT_FILE_NAME).isFile());
+      Assert.assertTrue(MonomerFactory.getPersistenceFile(MonomerFactory.MONOMER_DB_FILE_NAME).isFile());
+    } finally {
+      MonomerFactory.setPersistenceDirectory(new File(MonomerFactory.NOTATION_DIRECTORY));
+      deleteDirectory(directory);
+    }
+  }
+
+  @Test
+  public void testFlushWithoutRequestDoesNotWrite() throws Exception {
+    MonomerFactory factory = MonomerFactory.getInstance();
+    File directory = Files.createTempDirectory("helm-monomer-cache").toFile();
+    MonomerFactory.setPersistenceDirectory(directory);
+    try {
+      /* writes a save requested before, the directory is emptied afterwards */
+      factory.flushMonomerCache();
+      for (File file : directory.listFiles()) {
+        file.delete();
+      }
+
+      factory.flushMonomerCache();
+
+      Assert.assertEquals(directory.listFiles().length, 0);
+    } finally {
+      MonomerFactory.setPersistenceDirectory(new File(MonomerFactory.NOTATION_DIRECTORY));
+      deleteDirectory(directory);
+    }
+  }
+
+  @Test
+  public void testNucleotideTemplatesFollowPersistenceDirectory() throws Exception {
+    File directory = Files.createTempDirectory("helm-monomer-cache").toFile();
+    MonomerFactory.setPersistenceDirectory(directory);
+    try {
+      NucleotideFactory.getInstance().saveNucleotideTemplates();
+
+      Assert.assertTrue(MonomerFactory.getPersistenceFile(NucleotideFactory.LOCAL_NUCLEOTIDE_TEMPLATE_FILE_NAME).isFile());
+      Assert.assertTrue(MonomerFactory.getPersistenceFile(NucleotideFactory.LOCAL_NUCLEOTIDE_SNAPSHOT_FILE_NAME).isFile());
+    } finally {
+      MonomerFactory.setPersistenceDirectory(new File(MonomerFactory.NOTATION_DIRECTORY));
+      deleteDirectory(directory);
+    }
+  }
+
+  private static void deleteDirectory(File directory) {
+    for (File file : directory.listFiles()) {
+      file.delete();
+    }
+    directory.delete();
+  }
+
+  @Test
+  public void testBuildMonomerCacheFromXMLRecordsTimings() throws Exception {
+    MonomerFactory factory = MonomerFactory.getInstance();
+    String xml = IOUtils.toString(MonomerFactory.class.getResourceAsStream(MonomerFactory.MONOMER_DB_XML_RESOURCE));
+
+    MonomerCache cache = factory.buildMonomerCacheFromXML(xml);
+
+    Assert.assertEquals(cache.getMonomerDB().get("PEPTIDE").size(), factory.getMonomerDB(false).get("PEPTIDE").size());
+    Assert.assertEquals(new ArrayList<String>(MonomerFactory.getLoadTimings().keySet()),
+        Arrays.asList(MonomerFactory.LOAD_PHASE_PARSE, MonomerFactory.LOAD_PHASE_DECODE, MonomerFactory.LOAD_PHASE_INDEX, MonomerFactory.LOAD_PHASE_VALIDATE));
+  }
+}
@@ -0,0 +1,85 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MonomerLibrarySnapshotTest {
+
+  @Test
+  public void testMonomerCacheRoundTrip() throws Exception {
+    MonomerFactory factory = MonomerFactory.getInstance();
+    MonomerCache cache = new MonomerCache();
+    cache.setMonomerDB(factory.getMonomerDB(false));
+    cache.setAttachmentDB(factory.getAttachmentDB());
+    cache.setSmilesMonomerDB(factory.getSmilesMonomerDB(false));
+
+    File file = write(MonomerLibrarySnapshot.encodeMonomerCache(cache));
+    MonomerCache read = MonomerLibrarySnapshot.readMonomerCache(file);
+
+    Assert.assertEquals(read.getAttachmentDB().size(), cache.getAttachmentDB().size());
+    Assert.assertEquals(read.getSmilesMonomerDB().size(), cache.getSmilesMonomerDB().size());
+    Assert.assertEquals(read.getMonomerDB().keySet(), cache.getMonomerDB().keySet());
+    for (String polymerType : cache.getMonomerDB().keySet()) {
+      Assert.assertEquals(read.getMonomerDB().get(polymerType).size(), cache.getMonomerDB().get(polymerType).size());
+    }
+
+    Monomer expected = cache.getMonomerDB().get("RNA").get("R");
+    Monomer actual = read.getMonomerDB().get("rna").get("r");
+    Assert.assertEquals(actual.getCanSMILES(), expected.getCanSMILES());
+    Assert.assertEquals(actual.getMolfile(), expected.getMolfile());
+    Assert.assertEquals(actual.getMonomerType(), expected.getMonomerType());
+    Assert.assertEquals(actual.getAttachmentListString(), expected.getAttachmentListString());
+    Assert.assertSame(read.getSmilesMonomerDB().get(actual.getCanSMILES()), actual);
+  }
+
+  @Test
+  public void testNucleotideTemplatesRoundTrip() throws Exception {
+    Map<String, Map<String, String>> templates = NucleotideFactory.getInstance().getNucleotideTemplates();
+
+    File file = write(MonomerLibrarySnapshot.encodeNucleotideTemplates(templates));
+
+    Assert.assertEquals(MonomerLibrarySnapshot.readNucleotideTemplates(file), templates);
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testInvalidSnapshot() throws Exception {
+    MonomerLibrarySnapshot.readMonomerCache(write("no snapshot".getBytes()));
+  }
+
+  private File write(byte[] content) throws IOException {
+    File file = File.createTempFile("snapshot", ".bin");
+    file.deleteOnExit();
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(content);
+    out.close();
+    return file;
+  }
+}
@@ -0,0 +1,84 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2;
+
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MonomerStoreTest {
+
+  @Test
+  public void testAddMonomerPublishesNewSnapshot() throws Exception {
+    MonomerStore store = new MonomerStore();
+    Monomer alanine = MonomerFactory.getInstance().getMonomerStore().getMonomer("PEPTIDE", "A");
+    Monomer glycine = MonomerFactory.getInstance().getMonomerStore().getMonomer("PEPTIDE", "G");
+
+    store.addMonomer(alanine);
+    Map<String, Monomer> before = store.getMonomers("PEPTIDE");
+    Map<String, Monomer> smilesBefore = store.getSmilesMonomerDB();
+
+    store.addMonomer(glycine);
+
+    Assert.assertEquals(before.size(), 1);
+    Assert.assertEquals(smilesBefore.size(), 1);
+    Assert.assertEquals(store.getMonomers("PEPTIDE").size(), 2);
+    Assert.assertEquals(store.getSmilesMonomerDB().size(), 2);
+    Assert.assertTrue(store.hasMonomer("peptide", "g"));
+    Assert.assertFalse(store.hasMonomer("RNA", "A"));
+  }
+
+  @Test(expectedExceptions = UnsupportedOperationException.class)
+  public void testSnapshotIsUnmodifiable() throws Exception {
+    MonomerFactory.getInstance().getSmilesMonomerDB().put("C", null);
+  }
+
+  @Test
+  public void testFactoryAddNewMonomerIsVisibleToStore() throws Exception {
+    MonomerFactory factory = MonomerFactory.getInstance();
+    Monomer monomer = DeepCopy.copy(factory.getMonomerStore().getMonomer("PEPTIDE", "A"));
+    monomer.setAlternateId("SnapshotTestA");
+    Map<String, Map<String, Monomer>> before = factory.getMonomerDB();
+    MonomerCache saved = new MonomerCache();
+    saved.setMonomerDB(before);
+    saved.setSmilesMonomerDB(factory.getSmilesMonomerDB());
+    saved.setAttachmentDB(factory.getAttachmentDB());
+    boolean dbChanged = MonomerFactory.hasDBChanged();
+
+    try {
+      factory.addNewMonomer(monomer);
+
+      Assert.assertNull(before.get("PEPTIDE").get("SnapshotTestA"));
+      Assert.assertSame(factory.getMonomerStore().getMonomer("PEPTIDE", "SnapshotTestA"), monomer);
+      Assert.assertTrue(factory.getMonomerDB().get("PEPTIDE").containsKey("SnapshotTestA"));
+      Assert.assertFalse(factory.getMonomerDB(false).get("PEPTIDE").containsKey("SnapshotTestA"));
+    } finally {
+      /* the snapshots taken before are unchanged, they restore the library */
+      factory.setMonomerCache(saved);
+      MonomerFactory.setDBChanged(dbChanged);
+    }
+    Assert.assertFalse(factory.getMonomerStore().hasMonomer("PEPTIDE", "SnapshotTestA"));
+  }
+}
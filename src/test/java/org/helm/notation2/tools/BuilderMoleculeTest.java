@@ -24,6 +24,8 @@
 package org.helm.notation2.tools;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import org.helm.chemtoolkit.AbstractMolecule;
@@ -31,6 +33,8 @@ import org.helm.chemtoolkit.AttachmentList;
 import org.helm.chemtoolkit.CTKException;
 import org.helm.notation2.Attachment;
 import org.helm.notation2.Chemistry;
+import org.helm.notation2.MoleculeResultCache;
+import org.helm.notation2.MoleculeTemplateCache;
 import org.helm.notation2.Monomer;
 import org.helm.notation2.RgroupStructure;
 import org.helm.notation2.calculation.MoleculePropertyCalculator;
@@ -80,6 +84,15 @@ public class BuilderMoleculeTest {
     Assert.assertEquals(Chemistry.getInstance().getManipulator().getMoleculeInfo(mol).getMolecularFormula(), "C12H15NO4");
   }
 
+  @Test
+  public void testBuildMoleculeFromSinglePolymerPeptideOpenRgroups() throws Exception {
+    HELM2Notation helm2notation = HELM2NotationUtils.readNotation("PEPTIDE1{A.C.D}$$$$");
+    RgroupStructure structure = BuilderMolecule.buildMoleculefromSinglePolymer(helm2notation.getListOfPolymers().get(0));
+    Assert.assertEquals(structure.getRgroupMap().keySet(),
+        new HashSet<String>(Arrays.asList("PEPTIDE1:1:R1", "PEPTIDE1:2:R3", "PEPTIDE1:3:R2", "PEPTIDE1:3:R3")));
+    Assert.assertEquals(structure.getMolecule().getAttachments().size(), 4);
+  }
+
   @Test
   public void testBuildMoleculeTwoChems() throws ParserException, JDOMException, BuilderMoleculeException, NotationException, ChemistryException {
     String notation = "CHEM1{[MCC]}|CHEM2{[Az]}$CHEM2,CHEM1,1:R1-1:R1$$$";
@@ -182,4 +195,35 @@ public class BuilderMoleculeTest {
 	            //result.setRgroupMap(generateRgroupMap("1"+ ":" + "1", molecule));
   }
 
+  @Test
+  public void testBuildMoleculeUsesTemplateCache() throws ParserException, JDOMException, BuilderMoleculeException, CTKException, NotationException, ChemistryException {
+    HELM2Notation helm2notation = HELM2NotationUtils.readNotation("PEPTIDE1{G.G.G.A.G}$$$$");
+    MoleculeTemplateCache.getInstance().clear();
+    MoleculeTemplateCache.getInstance().resetStatistics();
+    MoleculeResultCache.getInstance().clear();
+    String formula = MoleculePropertyCalculator.getMolecularFormular(helm2notation);
+    long misses = MoleculeTemplateCache.getInstance().getMissCount();
+    Assert.assertTrue(MoleculeTemplateCache.getInstance().getHitCount() > 0);
+    MoleculeResultCache.getInstance().clear();
+    Assert.assertEquals(MoleculePropertyCalculator.getMolecularFormular(helm2notation), formula);
+    Assert.assertEquals(MoleculeTemplateCache.getInstance().getMissCount(), misses);
+    Assert.assertEquals(formula, "C11H19N5O6");
+  }
+
+  @Test
+  public void testBuildMoleculeParallelPolymers() throws ParserException, JDOMException, BuilderMoleculeException, CTKException, NotationException, ChemistryException {
+    String notation = "CHEM1{[MCC]}|CHEM2{[PEG2]}|CHEM3{[EG]}|CHEM4{[MCC]}|PEPTIDE1{G.G.A}$CHEM3,CHEM4,1:R1-1:R1|CHEM2,CHEM1,1:R1-1:R1|CHEM2,CHEM3,1:R2-1:R2$$$";
+    HELM2Notation helm2notation = HELM2NotationUtils.readNotation(notation);
+    String formula = MoleculePropertyCalculator.getMolecularFormular(helm2notation);
+    try {
+      BuilderMolecule.setPolymerBuildThreads(4);
+      List<AbstractMolecule> molecules = BuilderMolecule.buildMoleculefromPolymers(helm2notation.getListOfPolymers(), helm2notation.getListOfConnections());
+      Assert.assertEquals(molecules.size(), 2);
+      MoleculeResultCache.getInstance().clear();
+      Assert.assertEquals(MoleculePropertyCalculator.getMolecularFormular(helm2notation), formula);
+    } finally {
+      BuilderMolecule.setPolymerBuildThreads(1);
+    }
+  }
+
 }
@@ -0,0 +1,122 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2.tools;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.helm.notation2.exception.FastaFormatException;
+import org.helm.notation2.parser.notation.HELM2Notation;
+import org.helm.notation2.parser.notation.polymer.PolymerNotation;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class FastaReaderTest {
+
+  private static final String PEPTIDES = ">seq0\nFQTWEEFSRAAEKLYLADPMKVRVVLKYRHVDGNLCIKVTDDLVCLVYRTDQAQDVKKIEKF\n>seq1\nKYRTWEEFTRAAEKLYQADPMK\nVRVVLKYRHCDGNLC\n>seq2\neeyqtweefaraaeklyltdpmk\n>seq3\nMYQVWEEFSRAVEKLYLTDPMKVRVVLKYRHCDGNLCIKVTDNSVCLQYKTDQAQDVK\n>seq4\nEEFSRAVEKLYLTDPMKVRVVLKYRHCDGNLCIKVTDNSVVSYEMRLFGVQKDNFALEHSLL\n";
+
+  private static final String RNA = ">first\nACGUACGU\n>second reversed\n3'-UUGGC-5'\n>third\nAC\nGT\n";
+
+  @Test
+  public void testPeptidesAsWholeFile() throws Exception {
+    HELM2Notation expected = FastaFormat.generatePeptidePolymersFromFASTAFormatHELM1(PEPTIDES);
+    List<PolymerNotation> polymers = new ArrayList<PolymerNotation>();
+    try (FastaReader reader = FastaReader.forPeptides(new StringReader(PEPTIDES))) {
+      PolymerNotation polymer;
+      while ((polymer = reader.next()) != null) {
+        polymers.add(polymer);
+      }
+    }
+    Assert.assertEquals(describe(polymers), describe(expected.getListOfPolymers()));
+  }
+
+  @Test
+  public void testRNAFromFile() throws Exception {
+    HELM2Notation expected = FastaFormat.generateRNAPolymersFromFastaFormatHELM1(RNA);
+    Path file = Files.createTempFile("rna", ".fasta");
+    try {
+      Files.write(file, RNA.replace("\n", "\r\n").getBytes("UTF-8"));
+      try (FastaReader reader = FastaReader.forRNA(file)) {
+        HELM2Notation first = reader.nextNotation(2);
+        HELM2Notation second = reader.nextNotation(2);
+        Assert.assertNull(reader.nextNotation(2));
+        Assert.assertEquals(first.getListOfPolymers().size(), 2);
+        List<PolymerNotation> polymers = new ArrayList<PolymerNotation>(first.getListOfPolymers());
+        polymers.addAll(second.getListOfPolymers());
+        Assert.assertEquals(describe(polymers), describe(expected.getListOfPolymers()));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testParallelConversionKeepsOrder() throws Exception {
+    StringBuilder fasta = new StringBuilder();
+    for (int i = 0; i < 40; i++) {
+      fasta.append(">p" + i + "\n" + "FQTWEEFSRAAEKLYLADPMKVRVVLKYRHVDGNLCIKVTDDLVCLVYRTDQAQDVKKIEKF".substring(i % 7, 10 + i) + "\n");
+    }
+    List<PolymerNotation> sequential = new ArrayList<PolymerNotation>();
+    try (FastaReader reader = FastaReader.forPeptides(new StringReader(fasta.toString()))) {
+      PolymerNotation polymer;
+      while ((polymer = reader.next()) != null) {
+        sequential.add(polymer);
+      }
+    }
+    final List<PolymerNotation> parallel = new ArrayList<PolymerNotation>();
+    try (FastaReader reader = FastaReader.forPeptides(new StringReader(fasta.toString()))) {
+      int converted = reader.convertAll(new FastaReader.PolymerHandler() {
+        @Override
+        public void handle(PolymerNotation polymer) throws IOException {
+          parallel.add(polymer);
+        }
+      }, 4);
+      Assert.assertEquals(converted, 40);
+    }
+    Assert.assertEquals(describe(parallel), describe(sequential));
+  }
+
+  @Test(expectedExceptions = FastaFormatException.class)
+  public void testInvalidRecord() throws Exception {
+    try (FastaReader reader = FastaReader.forRNA(new StringReader(">ok\nACGU\n>bad\nAC?GU\n"))) {
+      reader.convertAll(new FastaReader.PolymerHandler() {
+        @Override
+        public void handle(PolymerNotation polymer) throws IOException {
+        }
+      }, 2);
+    }
+  }
+
+  private static List<String> describe(List<PolymerNotation> polymers) {
+    List<String> result = new ArrayList<String>();
+    for (PolymerNotation polymer : polymers) {
+      result.add(polymer.toHELM2());
+    }
+    return result;
+  }
+}
@@ -0,0 +1,96 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2.tools;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.helm.notation2.exception.FastaFormatException;
+import org.helm.notation2.parser.notation.HELM2Notation;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class FastaWriterTest {
+
+  private static List<HELM2Notation> notations(int count) throws Exception {
+    List<HELM2Notation> notations = new ArrayList<HELM2Notation>();
+    for (int i = 0; i < count; i++) {
+      if (i % 2 == 0) {
+        notations.add(HELM2NotationUtils.readNotation("PEPTIDE1{A.C.D.E.F.G.H.I.K.L.M.N.P.Q.R.S.T.V.W.Y}\"p" + i + "\"|RNA1{R(A)P.R(U)P.R(G)}$$$$V2.0"));
+      } else {
+        notations.add(HELM2NotationUtils.readNotation("RNA1{R(C)P.R(G)P.R(T)P.[dR](A)}|PEPTIDE1{[dY].I.K}$$$$"));
+      }
+    }
+    return notations;
+  }
+
+  @Test
+  public void testParallelOutputIsOrdered() throws Exception {
+    List<HELM2Notation> notations = notations(25);
+    StringBuilder expected = new StringBuilder();
+    for (HELM2Notation helm2notation : notations) {
+      expected.append(FastaFormat.generateFasta(helm2notation));
+    }
+    StringBuilder fasta = new StringBuilder();
+    FastaWriter writer = new FastaWriter(fasta);
+    Assert.assertEquals(writer.writeAll(notations.iterator(), 3), 25);
+    Assert.assertEquals(fasta.toString(), expected.toString());
+  }
+
+  @Test
+  public void testOutputStream() throws Exception {
+    List<HELM2Notation> notations = notations(2);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (FastaWriter writer = new FastaWriter(bytes)) {
+      writer.write(notations.get(0));
+      writer.writeAll(notations.subList(1, 2).iterator(), 1);
+    }
+    Assert.assertEquals(bytes.toString("UTF-8"), FastaFormat.generateFasta(notations.get(0)) + FastaFormat.generateFasta(notations.get(1)));
+  }
+
+  @Test
+  public void testInvalidNotationStopsOutput() throws Exception {
+    List<HELM2Notation> notations = notations(3);
+    notations.add(1, HELM2NotationUtils.readNotation("PEPTIDE1{A'3'.C}$$$$V2.0"));
+    StringBuilder fasta = new StringBuilder();
+    try {
+      new FastaWriter(fasta).writeAll(notations.iterator(), 2);
+      Assert.fail("FASTA of a notation with repeated monomers was written");
+    } catch (FastaFormatException e) {
+      Assert.assertEquals(fasta.toString(), FastaFormat.generateFasta(notations.get(0)));
+    }
+  }
+
+  @Test
+  public void testInvalidPolymerWritesNothing() throws Exception {
+    StringBuilder fasta = new StringBuilder();
+    try {
+      new FastaWriter(fasta).write(HELM2NotationUtils.readNotation("PEPTIDE1{A.C}|PEPTIDE2{A'3'.C}$$$$V2.0"));
+      Assert.fail("FASTA of a notation with repeated monomers was written");
+    } catch (FastaFormatException e) {
+      Assert.assertEquals(fasta.length(), 0);
+    }
+  }
+}
@@ -24,15 +24,19 @@
 package org.helm.notation2.tools;
 
 import java.io.IOException;
+import java.io.StringWriter;
 
+import org.helm.chemtoolkit.AbstractChemistryManipulator;
 import org.helm.chemtoolkit.CTKException;
 import org.helm.notation2.Chemistry;
 import org.helm.notation2.exception.BuilderMoleculeException;
 import org.helm.notation2.exception.ChemistryException;
 import org.helm.notation2.exception.NotationException;
 import org.helm.notation2.exception.ParserException;
+import org.helm.notation2.parser.notation.HELM2Notation;
 import org.helm.notation2.tools.MDLUtils;
 import org.jdom2.JDOMException;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 /**
@@ -58,4 +62,25 @@ public class MDLUtilsTest {
     System.out.println(MDLUtils.generateMDL(HELM2NotationUtils.readNotation(notation)));
   }
 
+  @Test
+  public void TestGenerationMDLWithoutSmilesRoundTrip() throws Exception {
+    String notation = "PEPTIDE1{A.C.K}|CHEM1{[MCC]}$PEPTIDE1,CHEM1,3:R3-1:R1$$$";
+    HELM2Notation helm2notation = HELM2NotationUtils.readNotation(notation);
+    StringWriter writer = new StringWriter();
+    MDLUtils.writeMDL(helm2notation, writer);
+    Assert.assertEquals(writer.toString(), MDLUtils.generateMDL(helm2notation));
+
+    AbstractChemistryManipulator manipulator = Chemistry.getInstance().getManipulator();
+    String fromMolfile = manipulator.canonicalize(manipulator.convert(writer.toString(), AbstractChemistryManipulator.StType.MOLFILE));
+    String fromSmiles = manipulator.canonicalize(SMILES.getSMILESForAll(helm2notation));
+    Assert.assertEquals(fromMolfile, fromSmiles);
+  }
+
+  @Test
+  public void TestGenerationMDLDisconnected() throws Exception {
+    String notation = "PEPTIDE1{A.C.K}|PEPTIDE2{G.G}$$$$";
+    String molfile = MDLUtils.generateMDL(HELM2NotationUtils.readNotation(notation));
+    Assert.assertTrue(molfile.contains("M  END"));
+  }
+
 }
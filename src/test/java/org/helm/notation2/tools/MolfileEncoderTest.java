@@ -21,6 +21,7 @@
  ******************************************************************************/
 package org.helm.notation2.tools;
 
+import org.helm.notation2.Monomer;
 import org.helm.notation2.exception.EncoderException;
 
 import org.testng.Assert;
@@ -70,4 +71,40 @@ public class MolfileEncoderTest {
     System.out.println(MolfileEncoder.decode(molfile));
   }
 
+  @Test
+  public void TestLazyMonomerMolfile() throws EncoderException {
+    String gzippedBase64 =
+        "H4sIAAAAAAAAAKWSuw7CMAxF93yFJVhrOc57poipBXVgZ2RhYOD7SYIg6UOiCCtS1Hudo1snAqC73B/XGwBZNuSlZsstfEoIAAdgo1+tUiEEODMRifRlUHsfe6FRSNpz0gijS7CDMWJ5ZYpFJiVfFG3JL1Lkd0qQrmRRf2RJf9xoZG/qLP0vlJjFJQojs6qzHNdTHFrFZS6hogyb1ZRyRxptGM1lNYXz/GV9C1HVb2Paq+ZqlEz2pqqd9+r8BMdqBzAcTpmQjuQ9DVgmZ9+3QmxjiSe9Zxcz4AIAAA==";
+
+    Monomer monomer = new Monomer();
+    Assert.assertFalse(monomer.hasMolfile());
+    monomer.setEncodedMolfile(gzippedBase64);
+    Assert.assertTrue(monomer.hasMolfile());
+    Assert.assertEquals(monomer.getMolfile(), MolfileEncoder.decode(gzippedBase64));
+
+    monomer.setMolfile("molfile");
+    Assert.assertEquals(monomer.getMolfile(), "molfile");
+  }
+
+  @Test
+  public void TestResetDecodedMolfile() throws EncoderException {
+    Monomer monomer = new Monomer();
+    monomer.setEncodedMolfile(MolfileEncoder.encode("MOLFILE-A\n"));
+    Assert.assertEquals(monomer.getMolfile(), "MOLFILE-A\n");
+
+    monomer.setEncodedMolfile(MolfileEncoder.encode("MOLFILE-B\n"));
+    Assert.assertEquals(monomer.getMolfile(), "MOLFILE-B\n");
+
+    monomer.setMolfile("MOLFILE-C");
+    Assert.assertEquals(monomer.getMolfile(), "MOLFILE-C");
+
+    monomer.setEncodedMolfile(MolfileEncoder.encode("MOLFILE-A\n"));
+    Assert.assertEquals(monomer.getMolfile(), "MOLFILE-A\n");
+  }
+
+  @Test(expectedExceptions = EncoderException.class)
+  public void TestInvalidEncodedMolfile() throws EncoderException {
+    new Monomer().setEncodedMolfile("bm8gbW9sZmlsZQ==");
+  }
+
 }
@@ -0,0 +1,90 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2.tools;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.helm.notation2.Monomer;
+import org.helm.notation2.MonomerFactory;
+import org.helm.notation2.MonomerStore;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MonomerImageRendererTest {
+
+  @Test
+  public void testImageIsCached() throws Exception {
+    MonomerImageRenderer renderer = MonomerImageRenderer.getInstance();
+    renderer.clear();
+    renderer.resetStatistics();
+    Monomer monomer = MonomerFactory.getInstance().getMonomerStore().getMonomer("RNA", "P");
+    byte[] first = Images.generateImageofMonomer(monomer, false);
+    byte[] second = Images.generateImageofMonomer(monomer, false);
+    Assert.assertEquals(second, first);
+    Assert.assertEquals(renderer.getMissCount(), 1);
+    Assert.assertEquals(renderer.getHitCount(), 1);
+
+    renderer.render(monomer, false, 200, 200, Images.PICTURE_BACKGROUND);
+    Assert.assertEquals(renderer.getMissCount(), 2);
+  }
+
+  @Test
+  public void testDiskStoreKeepsImages() throws Exception {
+    MonomerImageRenderer renderer = MonomerImageRenderer.getInstance();
+    File directory = Files.createTempDirectory("helm-images").toFile();
+    try {
+      renderer.setDiskStore(directory);
+      Monomer monomer = MonomerFactory.getInstance().getMonomerStore().getMonomer("PEPTIDE", "A");
+      byte[] image = renderer.render(monomer, true, 300, 300, 0xFFFFFF);
+      renderer.clear();
+      renderer.resetStatistics();
+      Assert.assertEquals(renderer.render(monomer, true, 300, 300, 0xFFFFFF), image);
+      Assert.assertEquals(renderer.getDiskHitCount(), 1);
+      Assert.assertEquals(renderer.getMissCount(), 0);
+    } finally {
+      renderer.setDiskStore(null);
+      for (File file : directory.listFiles()) {
+        file.delete();
+      }
+      directory.delete();
+    }
+  }
+
+  @Test
+  public void testPreRenderMonomerStore() throws Exception {
+    MonomerImageRenderer renderer = MonomerImageRenderer.getInstance();
+    MonomerStore store = new MonomerStore();
+    store.addMonomer(MonomerFactory.getInstance().getMonomerStore().getMonomer("PEPTIDE", "G"));
+    store.addMonomer(MonomerFactory.getInstance().getMonomerStore().getMonomer("PEPTIDE", "C"));
+    store.addMonomer(MonomerFactory.getInstance().getMonomerStore().getMonomer("RNA", "R"));
+    renderer.clear();
+    Assert.assertEquals(renderer.preRender(store, false), 3);
+    Assert.assertEquals(renderer.size(), 3);
+    renderer.resetStatistics();
+    Images.generateImageofMonomer(store.getMonomer("PEPTIDE", "C"), false);
+    Assert.assertEquals(renderer.getHitCount(), 1);
+  }
+
+}
@@ -0,0 +1,174 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2.tools;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.helm.notation2.tools.OffTargetIndex.Hit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class OffTargetIndexTest {
+
+  private static final String BASES = "ACGU";
+
+  @Test
+  public void testQueryFindsComplementarySites() {
+    Map<String, String> transcripts = new LinkedHashMap<String, String>();
+    transcripts.put("t1", "GGGGAUCGAUCGAUCGGGGG");
+    transcripts.put("t2", "CCCCAUCGAUCCAUCGCCCC");
+    OffTargetIndex index = OffTargetIndex.build(transcripts, 4);
+
+    /* reverse complement of AUCGAUCGAUCG */
+    List<Hit> hits = index.query("CGAUCGAUCGAU", 1);
+    Assert.assertEquals(hits.size(), 2);
+    Assert.assertEquals(hits.get(0).getTranscriptId(), "t1");
+    Assert.assertEquals(hits.get(0).getPosition(), 4);
+    Assert.assertEquals(hits.get(0).getMismatches(), 0);
+    Assert.assertEquals(hits.get(1).getTranscriptId(), "t2");
+    Assert.assertEquals(hits.get(1).getMismatches(), 1);
+
+    Assert.assertEquals(index.query("CGAUCGAUCGAU", 0).size(), 1);
+  }
+
+  @Test
+  public void testQueryMatchesBruteForce() {
+    Random random = new Random(7);
+    Map<String, String> transcripts = new LinkedHashMap<String, String>();
+    for (int i = 0; i < 5; i++) {
+      transcripts.put("t" + i, randomSequence(random, 300));
+    }
+    OffTargetIndex index = OffTargetIndex.build(transcripts, 5);
+    for (int q = 0; q < 20; q++) {
+      String transcript = transcripts.get("t" + random.nextInt(5));
+      int start = random.nextInt(transcript.length() - 19);
+      char[] site = transcript.substring(start, start + 19).toCharArray();
+      site[random.nextInt(19)] = BASES.charAt(random.nextInt(4));
+      String guide = reverseComplement(new String(site));
+      Assert.assertEquals(describe(index.query(guide, 2)), bruteForce(transcripts, guide, 2));
+    }
+  }
+
+  @Test
+  public void testSavedIndexIsMapped() throws Exception {
+    OffTargetIndex index = OffTargetIndex.buildFromFasta(">NM_1 first\nAAAAAUCGAUCG\nAUCGAAAA\n>NM_2 second\nUUUUUUUU\n", 6);
+    Assert.assertEquals(index.getNumberOfTranscripts(), 2);
+    File file = File.createTempFile("offtarget", ".idx");
+    try {
+      index.save(file);
+      OffTargetIndex opened = OffTargetIndex.open(file);
+      Assert.assertEquals(opened.getSeedLength(), 6);
+      Assert.assertEquals(opened.getNumberOfSeeds(), index.getNumberOfSeeds());
+      Assert.assertEquals(describe(opened.query("CGAUCGAUCGAU", 0)), Arrays.asList("NM_1:4:0"));
+      Assert.assertEquals(describe(opened.query("AAAAAA", 0)).size(), 3);
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testParallelQuery() {
+    Random random = new Random(11);
+    Map<String, String> transcripts = new LinkedHashMap<String, String>();
+    transcripts.put("t", randomSequence(random, 2000));
+    OffTargetIndex index = OffTargetIndex.build(transcripts, 7);
+    List<String> guides = new ArrayList<String>();
+    for (int i = 0; i < 10; i++) {
+      guides.add(randomSequence(random, 21));
+    }
+    guides.add(guides.get(0));
+    List<List<Hit>> result = index.query(guides, 3, 4);
+    Assert.assertEquals(result.size(), guides.size());
+    for (int i = 0; i < guides.size(); i++) {
+      Assert.assertEquals(describe(result.get(i)), describe(index.query(guides.get(i), 3)));
+    }
+  }
+
+  @Test
+  public void testTranscriptsSharingAnIdAreKept() {
+    OffTargetIndex index = OffTargetIndex.buildFromFasta(">NM_1 variant 1\nAAAAAUCGAUCG\n>NM_1 variant 2\nUUUUAUCGAUCG\n", 4);
+    Assert.assertEquals(index.getNumberOfTranscripts(), 2);
+    List<Hit> hits = index.query("CGAUCGAU", 0);
+    Assert.assertEquals(describe(hits), Arrays.asList("NM_1:4:0", "NM_1:4:0"));
+    Assert.assertNotEquals(hits.get(0).getTranscriptIndex(), hits.get(1).getTranscriptIndex());
+  }
+
+  @Test
+  public void testIndexOfHELMNotation() throws Exception {
+    OffTargetIndex index = OffTargetIndex.build(HELM2NotationUtils.readNotation("RNA1{R(A)P.R(U)P.R(C)P.R(G)P.R(A)P.R(U)}$$$$"), 3);
+    Assert.assertEquals(describe(index.query("AUCGAU", 0)), Arrays.asList("RNA1:0:0"));
+  }
+
+  private static List<String> describe(List<Hit> hits) {
+    List<String> result = new ArrayList<String>();
+    for (Hit hit : hits) {
+      result.add(hit.getTranscriptId() + ":" + hit.getPosition() + ":" + hit.getMismatches());
+    }
+    return result;
+  }
+
+  private static List<String> bruteForce(Map<String, String> transcripts, String guide, int maxMismatches) {
+    String site = reverseComplement(guide);
+    List<String> result = new ArrayList<String>();
+    for (int m = 0; m <= maxMismatches; m++) {
+      for (Map.Entry<String, String> entry : transcripts.entrySet()) {
+        String transcript = entry.getValue();
+        for (int p = 0; p + site.length() <= transcript.length(); p++) {
+          int mismatches = 0;
+          for (int i = 0; i < site.length(); i++) {
+            if (transcript.charAt(p + i) != site.charAt(i)) {
+              mismatches++;
+            }
+          }
+          if (mismatches == m) {
+            result.add(entry.getKey() + ":" + p + ":" + m);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  private static String reverseComplement(String sequence) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = sequence.length() - 1; i >= 0; i--) {
+      sb.append(BASES.charAt(3 - BASES.indexOf(sequence.charAt(i))));
+    }
+    return sb.toString();
+  }
+
+  private static String randomSequence(Random random, int length) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      sb.append(BASES.charAt(random.nextInt(4)));
+    }
+    return sb.toString();
+  }
+}
@@ -24,6 +24,10 @@
 package org.helm.notation2.tools;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import org.helm.notation2.exception.AnalogSequenceException;
 import org.helm.notation2.exception.ChemistryException;
@@ -184,6 +188,61 @@ public class RNAUtilsTest {
     Assert.assertTrue(RNAUtils.hasNucleotideModification(HELM2NotationUtils.getRNAPolymers(HELM2NotationUtils.readNotation(notation).getListOfPolymers()).get(0)));
   }
 
+  @Test
+  public void getMaxMatchFragmentTest() throws Exception {
+    Assert.assertEquals(RNAUtils.getMaxMatchFragment("AGGCUUAC", "CCGGCUUAGG"), "GGCUUA");
+    Assert.assertEquals(RNAUtils.getMaxMatchFragment("ACGTAC", "UACG"), "UAC");
+    Assert.assertEquals(RNAUtils.getMaxMatchFragment("AAAA", "CCCC"), "");
+    Assert.assertEquals(RNAUtils.getMaxMatchFragment("ACGAGG", "UACGUAGG", 3), "");
+
+    Random random = new Random(42);
+    for (int i = 0; i < 500; i++) {
+      String seq1 = randomSequence(random, 1 + random.nextInt(30));
+      String seq2 = randomSequence(random, 1 + random.nextInt(30));
+      Assert.assertEquals(RNAUtils.getMaxMatchFragment(seq1, seq2), bruteForceMaxMatchFragment(seq1, seq2), seq1 + " " + seq2);
+    }
+  }
+
+  @Test
+  public void getMaxMatchFragmentsTest() throws Exception {
+    Random random = new Random(7);
+    String guide = randomSequence(random, 21);
+    List<String> targets = new ArrayList<String>();
+    for (int i = 0; i < 200; i++) {
+      targets.add(randomSequence(random, 5 + random.nextInt(40)));
+    }
+    targets.addAll(Arrays.asList("", guide, guide.substring(3, 12)));
+    List<String> fragments = RNAUtils.getMaxMatchFragments(guide, targets);
+    for (int i = 0; i < targets.size(); i++) {
+      Assert.assertEquals(fragments.get(i), RNAUtils.getMaxMatchFragment(guide, targets.get(i)), targets.get(i));
+    }
+  }
+
+  private static String randomSequence(Random random, int length) {
+    String nucleotides = "ACGTU";
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      sb.append(nucleotides.charAt(random.nextInt(3 + random.nextInt(3))));
+    }
+    return sb.toString();
+  }
+
+  private static String bruteForceMaxMatchFragment(String seq1, String seq2) {
+    String longSeq = seq1.length() > seq2.length() ? seq1 : seq2;
+    String shortSeq = seq1.length() > seq2.length() ? seq2 : seq1;
+    longSeq = longSeq.replaceAll("T", "U");
+    shortSeq = shortSeq.replaceAll("T", "U");
+    for (int len = shortSeq.length(); len > RNAUtils.MINUMUM_MATCH_FRAGMENT_LENGTH; len--) {
+      for (int i = 0; i <= shortSeq.length() - len; i++) {
+        String tmp = shortSeq.substring(i, i + len);
+        if (longSeq.contains(tmp)) {
+          return tmp;
+        }
+      }
+    }
+    return "";
+  }
+
   private HELM2Notation produceHELM2Notation(String notation)
       throws org.helm.notation2.parser.exceptionparser.NotationException, FastaFormatException, IOException, JDOMException, ChemistryException {
     return SequenceConverter.readRNA(notation);
@@ -0,0 +1,56 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2.tools;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SymbolTrieTest {
+
+  @Test
+  public void testLongestMatch() {
+    Map<String, String> symbols = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+    symbols.put("A", "");
+    symbols.put("dA", "");
+    symbols.put("dAb", "");
+    SymbolTrie trie = new SymbolTrie(symbols);
+
+    Assert.assertEquals(trie.match("AdAbdAx", 0), 1);
+    Assert.assertEquals(trie.match("AdAbdAx", 1), 3);
+    Assert.assertEquals(trie.match("AdAbdAx", 4), 2);
+    Assert.assertEquals(trie.match("AdAbdAx", 6), 0);
+    Assert.assertEquals(trie.match("DA", 0), 0);
+    Assert.assertTrue(trie.isBuiltFrom(symbols));
+    Assert.assertFalse(trie.isBuiltFrom(new TreeMap<String, String>(symbols)));
+  }
+
+  @Test
+  public void testAminoAcidList() throws Exception {
+    Assert.assertEquals(AminoAcidParser.getAminoAcidList("ACDNleE"), Arrays.asList("A", "C", "D", "Nle", "E"));
+  }
+}
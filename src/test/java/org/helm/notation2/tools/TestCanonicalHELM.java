@@ -65,6 +65,22 @@ public class TestCanonicalHELM {
     Assert.assertEquals(HELM1Utils.getCanonical(HELM2NotationUtils.readNotation(test)), "PEPTIDE1{C}|RNA1{R(C)P.R(T)P.R(G)}|RNA2{R(G)P.R(T)}|PEPTIDE2{R.E}|PEPTIDE3{R.I.P}$PEPTIDE1,PEPTIDE2,1:R2-2:R3$$$V2.0");
   }
 
+  @Test
+  public void testCanonicalHELMOfHomoOligomer() throws HELM1FormatException, ChemistryException, ParserException, JDOMException {
+    StringBuilder polymers = new StringBuilder();
+    StringBuilder connections = new StringBuilder();
+    for (int i = 8; i >= 1; i--) {
+      polymers.append("PEPTIDE" + i + "{C.A.G.C}|");
+      if (i > 1) {
+        connections.append("PEPTIDE" + i + ",PEPTIDE" + (i - 1) + ",4:R3-1:R3|");
+      }
+    }
+    polymers.append("RNA1{R(A)P.R(G)}");
+    connections.setLength(connections.length() - 1);
+    String test = polymers + "$" + connections + "$$$V2.0";
+    Assert.assertEquals(HELM1Utils.getCanonical(HELM2NotationUtils.readNotation(test)), "PEPTIDE1{C.A.G.C}|PEPTIDE2{C.A.G.C}|PEPTIDE3{C.A.G.C}|PEPTIDE4{C.A.G.C}|PEPTIDE5{C.A.G.C}|PEPTIDE6{C.A.G.C}|PEPTIDE7{C.A.G.C}|PEPTIDE8{C.A.G.C}|RNA1{R(A)P.R(G)}$PEPTIDE1,PEPTIDE2,4:R3-1:R3|PEPTIDE2,PEPTIDE3,4:R3-1:R3|PEPTIDE3,PEPTIDE4,4:R3-1:R3|PEPTIDE4,PEPTIDE5,4:R3-1:R3|PEPTIDE5,PEPTIDE6,4:R3-1:R3|PEPTIDE6,PEPTIDE7,4:R3-1:R3|PEPTIDE7,PEPTIDE8,4:R3-1:R3$$$V2.0");
+  }
+
   @Test(expectedExceptions = HELM1FormatException.class)
   public void testCanonicalHELMExtendedWithCounts() throws HELM1FormatException, ChemistryException, ParserException, JDOMException {
     String test =
@@ -278,6 +278,36 @@ HELMEntity chem1=c.getTargetId();
 
   }
 
+  @Test
+  public void testMonomerValidationIsMemoized() throws MonomerLoadingException, org.helm.notation2.parser.exceptionparser.NotationException, ChemistryException, ParserException, JDOMException {
+    StringBuilder sb = new StringBuilder("PEPTIDE1{A");
+    for (int i = 0; i < 200; i++) {
+      sb.append(".[C(N[*:1])CCCCCCC([*:2])=O].G");
+    }
+    sb.append("}$$$$V2.0");
+    List<org.helm.notation2.parser.notation.polymer.MonomerNotation> monomers =
+        MethodsMonomerUtils.getListOfMonomerNotation(HELM2NotationUtils.readNotation(sb.toString()).getListOfPolymers());
+
+    Validation.clearSMILESVerdicts();
+    long before = Validation.getSMILESValidationCount();
+    Assert.assertTrue(Validation.validateMonomers(monomers));
+    Assert.assertTrue(Validation.validateMonomers(monomers));
+    Assert.assertEquals(Validation.getSMILESValidationCount() - before, 1);
+  }
+
+  @Test
+  public void testUnspecificConnectionsOfLargePeptide() throws ParserException, JDOMException, NotationException, ChemistryException {
+    StringBuilder sb = new StringBuilder("PEPTIDE1{A");
+    for (int i = 0; i < 300; i++) {
+      sb.append(".C.G");
+    }
+    sb.append("}$");
+    String peptide = sb.toString();
+    Assert.assertTrue(Validation.validateConnections(HELM2NotationUtils.readNotation(peptide + "PEPTIDE1,PEPTIDE1,C:R3-C:R3|PEPTIDE1,PEPTIDE1,C:R3-C:R3$$$V2.0")));
+    Assert.assertFalse(Validation.validateConnections(HELM2NotationUtils.readNotation(peptide + "PEPTIDE1,PEPTIDE1,G:R3-C:R3$$$V2.0")));
+    Assert.assertFalse(Validation.validateConnections(HELM2NotationUtils.readNotation(peptide + "PEPTIDE1,PEPTIDE1,2:R3-4:R3|PEPTIDE1,PEPTIDE1,(C,A):R3-4:R3$$$V2.0")));
+  }
+
   @Test
   public void testMonomerValidationCHEM() throws MonomerLoadingException, org.helm.notation2.parser.exceptionparser.NotationException, ChemistryException, ParserException, JDOMException {
 
@@ -0,0 +1,82 @@
+/**
+ * *****************************************************************************
+ * Copyright C 2015, The Pistoia Alliance
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *****************************************************************************
+ */
+package org.helm.notation2.tools;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.helm.chemtoolkit.CTKException;
+import org.helm.notation2.exception.BuilderMoleculeException;
+import org.helm.notation2.exception.ChemistryException;
+import org.helm.notation2.exception.MonomerLoadingException;
+import org.helm.notation2.exception.ValidationException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class WebServiceTest {
+
+  @Test
+  public void testBatchMolecularFormula() throws BuilderMoleculeException, CTKException, ValidationException, MonomerLoadingException, ChemistryException {
+    List<String> notations = Arrays.asList("PEPTIDE1{A.G.G.G.C.C.K.K.K.K}|CHEM1{[MCC]}$PEPTIDE1,CHEM1,10:R3-1:R1$$$", "PEPTIDE1{L.P}$$$$", "PEPTIDE1{L.P.X.N}$$$$", "RNA1{R(A)P.R(G)}$$$$",
+        "CHEM1{[MCC]}|CHEM2{[Az]}$CHEM2,CHEM1,1:R1-1:R1$$$");
+    WebService webService = new WebService();
+    webService.setBatchThreads(3);
+    List<BatchResult<String>> results = webService.getMolecularFormula(notations);
+    Assert.assertEquals(results.size(), notations.size());
+    for (int i = 0; i < notations.size(); i++) {
+      Assert.assertEquals(results.get(i).getInput(), notations.get(i));
+    }
+    Assert.assertEquals(results.get(0).getResult(), "C51H87N15O14S2");
+    Assert.assertEquals(results.get(1).getResult(), "C11H20N2O3");
+    Assert.assertFalse(results.get(2).isSuccessful());
+    Assert.assertNotNull(results.get(2).getError());
+    Assert.assertEquals(results.get(3).getResult(), webService.getMolecularFormula(notations.get(3)));
+    Assert.assertEquals(results.get(4).getResult(), "C16H20N4O4");
+  }
+
+  @Test
+  public void testBatchValidation() {
+    List<BatchResult<Boolean>> results = new WebService().validateHELM(Arrays.asList("PEPTIDE1{A.G}$$$$", "PEPTIDE1{A.G$$$$").iterator());
+    Assert.assertTrue(results.get(0).isSuccessful());
+    Assert.assertTrue(results.get(1).getError() instanceof ValidationException);
+  }
+
+  @Test
+  public void testBatchValidationExceedingWindow() {
+    WebService webService = new WebService();
+    webService.setBatchThreads(1);
+    List<String> notations = Arrays.asList("PEPTIDE1{A}$$$$", "PEPTIDE1{A.G}$$$$", null, "PEPTIDE1{A.G$$$$", "PEPTIDE1{G}$$$$");
+    for (int run = 0; run < 2; run++) {
+      List<BatchResult<Boolean>> results = webService.validateHELM(notations.iterator());
+      Assert.assertEquals(results.size(), notations.size());
+      for (int i = 0; i < notations.size(); i++) {
+        Assert.assertEquals(results.get(i).getInput(), notations.get(i));
+      }
+      Assert.assertTrue(results.get(1).isSuccessful());
+      Assert.assertTrue(results.get(2).getError() instanceof ValidationException);
+      Assert.assertTrue(results.get(3).getError() instanceof ValidationException);
+      Assert.assertTrue(results.get(4).isSuccessful());
+    }
+  }
+}